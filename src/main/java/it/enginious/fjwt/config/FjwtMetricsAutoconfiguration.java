@@ -0,0 +1,47 @@
+package it.enginious.fjwt.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import it.enginious.fjwt.core.metrics.FjwtMetrics;
+import it.enginious.fjwt.core.metrics.FjwtMicrometerMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+
+/**
+ * Fjwt metrics auto configuration, registers a {@link FjwtMicrometerMetrics} only when a {@link
+ * MeterRegistry} bean is present.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+@AutoConfiguration(
+        before = FjwtAutoconfiguration.class,
+        afterName = {
+                "org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration",
+                "org.springframework.boot.actuate.autoconfigure.metrics.CompositeMeterRegistryAutoConfiguration"
+        })
+@ConditionalOnClass(MeterRegistry.class)
+public class FjwtMetricsAutoconfiguration {
+
+    /**
+     * register a {@link FjwtMicrometerMetrics} bean
+     *
+     * @param meterRegistry the meter registry
+     * @return a {@link FjwtMicrometerMetrics} bean
+     */
+    @Bean
+    @ConditionalOnBean(MeterRegistry.class)
+    @ConditionalOnMissingBean(FjwtMetrics.class)
+    public FjwtMetrics fjwtMetrics(MeterRegistry meterRegistry) {
+
+        log.debug(
+                "registering bean of type [{}] as [{}]",
+                FjwtMicrometerMetrics.class.getName(),
+                FjwtMetrics.class.getName());
+        return new FjwtMicrometerMetrics(meterRegistry);
+    }
+}
@@ -0,0 +1,34 @@
+package it.enginious.fjwt.config;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import reactor.core.publisher.Mono;
+
+/**
+ * Fjwt auto configuration for reactive web applications, registers the WebFlux counterparts of the
+ * servlet filter and controller.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+@AutoConfiguration(after = FjwtAutoconfiguration.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@ConditionalOnClass({EnableWebFluxSecurity.class, Mono.class})
+@ComponentScan(basePackages = "it.enginious.fjwt.reactive")
+public class FjwtReactiveAutoconfiguration {
+
+    /**
+     * Logs if the configuration has been loaded into the context.
+     */
+    @PostConstruct
+    protected void init() {
+
+        log.debug("reactive configuration loaded");
+    }
+}
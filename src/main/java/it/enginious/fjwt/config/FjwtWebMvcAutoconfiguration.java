@@ -0,0 +1,35 @@
+package it.enginious.fjwt.config;
+
+import it.enginious.fjwt.core.FjwtClaimsArgumentResolver;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.AutoConfiguration;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+/**
+ * Fjwt web mvc auto configuration, registers the {@link FjwtClaimsArgumentResolver} only in servlet
+ * web applications using Spring MVC.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+@AutoConfiguration
+@ConditionalOnClass(WebMvcConfigurer.class)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class FjwtWebMvcAutoconfiguration implements WebMvcConfigurer {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+
+        log.debug("registering [{}]", FjwtClaimsArgumentResolver.class.getName());
+        resolvers.add(new FjwtClaimsArgumentResolver());
+    }
+}
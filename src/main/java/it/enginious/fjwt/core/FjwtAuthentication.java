@@ -0,0 +1,231 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.Claims;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpSession;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.io.Serial;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * The {@link Authentication} built from a verified token. The principal, a {@link UserDetails}
+ * rebuilt from the token claims, and its authorities are built only when they are first accessed,
+ * so requests that only need to know whether they are authenticated never run the {@link
+ * FjwtClaimsExtractorChain}. The authorities are the ones of the principal, they are not copied. The
+ * remote address and the session id are read from the request when the authentication is created, the
+ * request is not kept since it is recycled once completed, and the details are built from them only
+ * when they are first accessed.
+ *
+ * <p>Instances are immutable, except that they can be marked as not authenticated. A token whose
+ * claims can't be turned into a user marks its authentication as not authenticated when the principal
+ * is first accessed, and the authentication then has no principal and no authorities.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+public class FjwtAuthentication implements Authentication {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final transient Claims claims;
+    private final transient Function<Claims, UserDetails> userDetailsLoader;
+    private final transient boolean hasDetails;
+    private final transient String remoteAddress;
+    private final transient String sessionId;
+    private transient volatile UserDetails userDetails;
+    private transient volatile boolean principalFailed;
+    private volatile Object details;
+    private volatile boolean authenticated = true;
+
+    /**
+     * Creates a new authentication without details
+     *
+     * @param claims            the verified claims
+     * @param userDetailsLoader rebuilds the user from the claims, see {@link
+     *                          FjwtTokenUtil#getUserFromClaims(Claims)}
+     */
+    public FjwtAuthentication(Claims claims, Function<Claims, UserDetails> userDetailsLoader) {
+        this(claims, userDetailsLoader, null);
+    }
+
+    /**
+     * Creates a new authentication
+     *
+     * @param claims            the verified claims
+     * @param userDetailsLoader rebuilds the user from the claims, see {@link
+     *                          FjwtTokenUtil#getUserFromClaims(Claims)}
+     * @param request           the authenticated request, the details are read from it and it is not
+     *                          kept
+     */
+    public FjwtAuthentication(
+            Claims claims, Function<Claims, UserDetails> userDetailsLoader, HttpServletRequest request) {
+        this.claims = claims;
+        this.userDetailsLoader = userDetailsLoader;
+        this.hasDetails = Objects.nonNull(request);
+        if (hasDetails) {
+            HttpSession session = request.getSession(false);
+            this.remoteAddress = request.getRemoteAddr();
+            this.sessionId = Objects.nonNull(session) ? session.getId() : null;
+        } else {
+            this.remoteAddress = null;
+            this.sessionId = null;
+        }
+    }
+
+    /**
+     * Get the verified claims of the token
+     *
+     * @return the claims
+     */
+    public Claims getClaims() {
+        return claims;
+    }
+
+    /**
+     * Check if the principal has already been built
+     *
+     * @return true if the principal has already been built
+     */
+    public boolean isPrincipalLoaded() {
+        return Objects.nonNull(userDetails);
+    }
+
+    /**
+     * Get the name, which is the token subject, without building the principal
+     *
+     * @return the name
+     */
+    @Override
+    public String getName() {
+        return claims.getSubject();
+    }
+
+    /**
+     * Get the authorities, the principal is built if needed
+     *
+     * @return the authorities of the principal
+     */
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        UserDetails user = getPrincipal();
+        return Objects.nonNull(user) ? user.getAuthorities() : Collections.emptyList();
+    }
+
+    /**
+     * Get the credentials, tokens are never exposed
+     *
+     * @return always null
+     */
+    @Override
+    public Object getCredentials() {
+        return null;
+    }
+
+    /**
+     * Get the details, which are built on first access from the values read from the request
+     *
+     * @return the {@link WebAuthenticationDetails}, null if no request was given
+     */
+    @Override
+    public Object getDetails() {
+        Object webDetails = details;
+        if (Objects.isNull(webDetails) && hasDetails) {
+            synchronized (this) {
+                webDetails = details;
+                if (Objects.isNull(webDetails)) {
+                    webDetails = new WebAuthenticationDetails(remoteAddress, sessionId);
+                    details = webDetails;
+                }
+            }
+        }
+        return webDetails;
+    }
+
+    /**
+     * Get the principal, which is built on first access. If the user can't be rebuilt the failure is
+     * logged and the authentication is marked as not authenticated
+     *
+     * @return the user rebuilt from the token, null if it can't be rebuilt
+     */
+    @Override
+    public UserDetails getPrincipal() {
+        UserDetails user = userDetails;
+        if (Objects.isNull(user) && !principalFailed) {
+            synchronized (this) {
+                user = userDetails;
+                if (Objects.isNull(user) && !principalFailed) {
+                    user = loadPrincipal();
+                    userDetails = user;
+                    principalFailed = Objects.isNull(user);
+                }
+            }
+        }
+        return user;
+    }
+
+    private UserDetails loadPrincipal() {
+        UserDetails user = null;
+        try {
+            user = userDetailsLoader.apply(claims);
+        } catch (RuntimeException e) {
+            log.warn(String.format("user [%s] can't be rebuilt from the token:", getName()), e);
+        }
+        if (Objects.isNull(user)) {
+            log.debug("no user rebuilt for [{}], marking the authentication as not authenticated", getName());
+            authenticated = false;
+        }
+        return user;
+    }
+
+    @Override
+    public boolean isAuthenticated() {
+        return authenticated;
+    }
+
+    @Override
+    public void setAuthenticated(boolean authenticated) {
+        if (authenticated) {
+            throw new IllegalArgumentException(
+                    "a fjwt authentication can't be set to trusted, it is trusted only when created");
+        }
+        this.authenticated = false;
+    }
+
+    @Override
+    public String toString() {
+        return getClass().getSimpleName()
+                + " [Name="
+                + getName()
+                + ", Authenticated="
+                + authenticated
+                + ", Principal loaded="
+                + isPrincipalLoaded()
+                + "]";
+    }
+
+    /**
+     * Claims and loader are not serializable, a standard authentication with the built principal is
+     * serialized instead
+     */
+    @Serial
+    private Object writeReplace() {
+        UserDetails user = getPrincipal();
+        UsernamePasswordAuthenticationToken replacement =
+                authenticated
+                        ? UsernamePasswordAuthenticationToken.authenticated(user, null, getAuthorities())
+                        : UsernamePasswordAuthenticationToken.unauthenticated(user, null);
+        replacement.setDetails(getDetails());
+        return replacement;
+    }
+}
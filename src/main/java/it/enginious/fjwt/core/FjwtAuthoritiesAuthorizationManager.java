@@ -0,0 +1,44 @@
+package it.enginious.fjwt.core;
+
+import org.springframework.security.authorization.AuthoritiesAuthorizationManager;
+import org.springframework.security.authorization.AuthorityAuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.Collection;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Grants access when the authentication holds any of the required authorities. Authorities held in a
+ * {@link FjwtAuthoritySet} are checked with a bit test each, any other authentication is checked by
+ * an {@link AuthoritiesAuthorizationManager}.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+public class FjwtAuthoritiesAuthorizationManager implements AuthorizationManager<Collection<String>> {
+
+    private final AuthoritiesAuthorizationManager fallback = new AuthoritiesAuthorizationManager();
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public AuthorizationDecision check(Supplier<Authentication> authentication, Collection<String> authorities) {
+        Authentication current = authentication.get();
+        if (Objects.isNull(current)) {
+            return decision(false, authorities);
+        }
+        if (current.getAuthorities() instanceof FjwtAuthoritySet authoritySet) {
+            return decision(authoritySet.hasAnyAuthority(authorities), authorities);
+        }
+        return fallback.check(() -> current, authorities);
+    }
+
+    private static AuthorizationDecision decision(boolean granted, Collection<String> authorities) {
+        return new AuthorityAuthorizationDecision(granted, AuthorityUtils.createAuthorityList(authorities));
+    }
+}
@@ -0,0 +1,180 @@
+package it.enginious.fjwt.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Encodes authorities as bits over a versioned dictionary shared by issuers and verifiers, so that a
+ * token carries a short string instead of the name of each authority. The encoded value is the
+ * dictionary version followed by the base64url encoded bits, bit {@code i} standing for the {@code
+ * i}-th authority of the dictionary, for example {@code 2.BQ}.
+ *
+ * <p>Decoded values are cached as {@link FjwtAuthoritySet}, which are immutable and shared by all the
+ * users holding the same authorities. Once the maximum cache size is reached, new values are decoded
+ * on every request.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+public class FjwtAuthorityDictionary {
+
+    private static final char VERSION_SEPARATOR = '.';
+    private static final Base64.Encoder ENCODER = Base64.getUrlEncoder().withoutPadding();
+    private static final Base64.Decoder DECODER = Base64.getUrlDecoder();
+
+    private final Integer version;
+    private final Map<Integer, String[]> values = new HashMap<>();
+    private final Map<String, Integer> indexes = new HashMap<>();
+    private final FjwtGrantedAuthorityPool pool;
+    private final Map<String, FjwtAuthoritySet> decoded = new ConcurrentHashMap<>();
+    private final int cacheSize;
+
+    /**
+     * Creates a new dictionary
+     *
+     * @param version      the version used to encode, null to decode only
+     * @param dictionaries the authorities of each version
+     * @param pool         the pool the decoded authorities are taken from
+     * @param cacheSize    maximum number of cached decoded values
+     */
+    public FjwtAuthorityDictionary(
+            Integer version,
+            Map<Integer, List<String>> dictionaries,
+            FjwtGrantedAuthorityPool pool,
+            int cacheSize) {
+        dictionaries.forEach(
+                (v, authorities) -> {
+                    if (authorities.size() != authorities.stream().distinct().count()) {
+                        throw new IllegalStateException(
+                                String.format("authority dictionary version [%d] contains duplicates", v));
+                    }
+                    values.put(v, authorities.toArray(String[]::new));
+                });
+        if (Objects.nonNull(version)) {
+            if (!values.containsKey(version)) {
+                throw new IllegalStateException(
+                        String.format("authority dictionary version [%d] is not configured", version));
+            }
+            String[] current = values.get(version);
+            for (int i = 0; i < current.length; i++) {
+                indexes.put(current[i], i);
+            }
+        }
+        this.version = version;
+        this.pool = pool;
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Check if authorities are encoded when tokens are issued
+     *
+     * @return true if a version to encode with is configured
+     */
+    public boolean canEncode() {
+        return Objects.nonNull(version);
+    }
+
+    /**
+     * Encode the authorities found in the dictionary
+     *
+     * @param authorities the authority values
+     * @return the encoded value and the authorities that are not in the dictionary
+     */
+    public Encoded encode(Collection<String> authorities) {
+        if (!canEncode()) {
+            return new Encoded(null, new ArrayList<>(authorities));
+        }
+        byte[] bits = new byte[(indexes.size() + 7) >>> 3];
+        int length = 0;
+        List<String> others = new ArrayList<>();
+        for (String authority : authorities) {
+            Integer index = indexes.get(authority);
+            if (Objects.isNull(index)) {
+                others.add(authority);
+                continue;
+            }
+            bits[index >>> 3] |= (byte) (1 << (index & 7));
+            length = Math.max(length, (index >>> 3) + 1);
+        }
+        if (length == 0) {
+            return new Encoded(null, others);
+        }
+        return new Encoded(
+                String.valueOf(version) + VERSION_SEPARATOR + ENCODER.encodeToString(Arrays.copyOf(bits, length)),
+                others);
+    }
+
+    /**
+     * Decode an encoded value
+     *
+     * @param encoded the encoded value
+     * @return the decoded authorities, empty if the value can't be decoded with the configured
+     * dictionaries
+     */
+    public FjwtAuthoritySet decode(String encoded) {
+        FjwtAuthoritySet authorities = decoded.get(encoded);
+        if (Objects.nonNull(authorities)) {
+            return authorities;
+        }
+        authorities = FjwtAuthoritySet.of(decodeValues(encoded), pool);
+        if (decoded.size() < cacheSize) {
+            decoded.putIfAbsent(encoded, authorities);
+        }
+        return authorities;
+    }
+
+    /**
+     * Decode an encoded value to authority values
+     *
+     * @param encoded the encoded value
+     * @return the authority values, empty if the value can't be decoded with the configured
+     * dictionaries
+     */
+    public List<String> decodeValues(String encoded) {
+        int separator = encoded.indexOf(VERSION_SEPARATOR);
+        String[] dictionary = null;
+        byte[] bits = null;
+        try {
+            dictionary = separator > 0 ? values.get(Integer.valueOf(encoded.substring(0, separator))) : null;
+            bits = Objects.nonNull(dictionary) ? DECODER.decode(encoded.substring(separator + 1)) : null;
+        } catch (IllegalArgumentException e) {
+            log.debug("authorities [{}] can't be decoded: {}", encoded, e.getMessage());
+        }
+        if (Objects.isNull(bits)) {
+            // fewer authorities, never more
+            log.warn("authorities [{}] can't be decoded with the configured dictionaries, ignoring them", encoded);
+            return Collections.emptyList();
+        }
+        List<String> authorities = new ArrayList<>();
+        for (int i = 0; i < bits.length << 3; i++) {
+            if ((bits[i >>> 3] & (1 << (i & 7))) != 0) {
+                if (i >= dictionary.length) {
+                    log.warn("authorities [{}] refer to an authority missing from the dictionary, ignoring them", encoded);
+                    return Collections.emptyList();
+                }
+                authorities.add(dictionary[i]);
+            }
+        }
+        return authorities;
+    }
+
+    /**
+     * Encoded authorities
+     *
+     * @param value  the encoded value, null if no authority is in the dictionary
+     * @param others the authorities that are not in the dictionary
+     */
+    public record Encoded(String value, List<String> others) {
+    }
+}
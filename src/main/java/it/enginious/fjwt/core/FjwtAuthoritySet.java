@@ -0,0 +1,193 @@
+package it.enginious.fjwt.core;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.AbstractCollection;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * An immutable collection of distinct authorities held as a bitset over the indexes of a {@link
+ * FjwtGrantedAuthorityPool}, so that checking whether an authority is held is a hash lookup and a bit
+ * test instead of a scan of the authority names. Authorities that could not be pooled are held as they
+ * are. Pooled authorities are iterated in index order, followed by the others.
+ *
+ * <p>The pool is local to the application, a serialized set is read back as an immutable list of its
+ * authorities.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+public final class FjwtAuthoritySet extends AbstractCollection<GrantedAuthority> implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private static final long[] NO_WORDS = new long[0];
+    private static final GrantedAuthority[] NO_AUTHORITIES = new GrantedAuthority[0];
+
+    private final transient FjwtGrantedAuthorityPool pool;
+    private final transient long[] words;
+    private final transient GrantedAuthority[] unpooled;
+    private final int size;
+
+    private FjwtAuthoritySet(FjwtGrantedAuthorityPool pool, long[] words, GrantedAuthority[] unpooled) {
+        this.pool = pool;
+        this.words = words;
+        this.unpooled = unpooled;
+        int bits = 0;
+        for (long word : words) {
+            bits += Long.bitCount(word);
+        }
+        this.size = bits + unpooled.length;
+    }
+
+    /**
+     * Creates a set from authority values, the values are pooled
+     *
+     * @param authorities the authority values, duplicates are held once
+     * @param pool        the pool
+     * @return the set
+     */
+    public static FjwtAuthoritySet of(Collection<String> authorities, FjwtGrantedAuthorityPool pool) {
+        long[] words = NO_WORDS;
+        Set<String> unpooled = null;
+        for (String authority : authorities) {
+            int index = pool.internIndex(authority);
+            if (index < 0) {
+                if (Objects.isNull(unpooled)) {
+                    unpooled = new LinkedHashSet<>();
+                }
+                unpooled.add(authority);
+                continue;
+            }
+            int word = index >>> 6;
+            if (word >= words.length) {
+                words = Arrays.copyOf(words, word + 1);
+            }
+            words[word] |= 1L << index;
+        }
+        return new FjwtAuthoritySet(
+                pool,
+                words,
+                Objects.isNull(unpooled)
+                        ? NO_AUTHORITIES
+                        : unpooled.stream().map(SimpleGrantedAuthority::new).toArray(GrantedAuthority[]::new));
+    }
+
+    /**
+     * Check if the authority is held
+     *
+     * @param authority the authority value
+     * @return true if the authority is held
+     */
+    public boolean hasAuthority(String authority) {
+        int index = pool.indexOf(authority);
+        if (index >= 0) {
+            int word = index >>> 6;
+            return word < words.length && (words[word] & (1L << index)) != 0;
+        }
+        for (GrantedAuthority grantedAuthority : unpooled) {
+            if (grantedAuthority.getAuthority().equals(authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if at least one of the authorities is held
+     *
+     * @param authorities the authority values
+     * @return true if at least one of the authorities is held
+     */
+    public boolean hasAnyAuthority(Collection<String> authorities) {
+        for (String authority : authorities) {
+            if (hasAuthority(authority)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Check if the authority is held, any {@link GrantedAuthority} other than a {@link
+     * SimpleGrantedAuthority} is compared through its {@code equals} method
+     *
+     * @param o the authority
+     * @return true if the authority is held
+     */
+    @Override
+    public boolean contains(Object o) {
+        if (o instanceof SimpleGrantedAuthority authority) {
+            return hasAuthority(authority.getAuthority());
+        }
+        return super.contains(o);
+    }
+
+    @Override
+    public Iterator<GrantedAuthority> iterator() {
+        return new Iterator<>() {
+
+            private int next = nextIndex(0);
+            private int unpooledIndex;
+
+            @Override
+            public boolean hasNext() {
+                return next >= 0 || unpooledIndex < unpooled.length;
+            }
+
+            @Override
+            public GrantedAuthority next() {
+                if (next >= 0) {
+                    GrantedAuthority authority = pool.get(next);
+                    next = nextIndex(next + 1);
+                    return authority;
+                }
+                if (unpooledIndex < unpooled.length) {
+                    return unpooled[unpooledIndex++];
+                }
+                throw new NoSuchElementException();
+            }
+        };
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * The bits are meaningless without the pool, the authorities are serialized instead
+     */
+    @Serial
+    private Object writeReplace() {
+        return List.copyOf(this);
+    }
+
+    private int nextIndex(int from) {
+        int word = from >>> 6;
+        if (word >= words.length) {
+            return -1;
+        }
+        long bits = words[word] & (-1L << from);
+        while (true) {
+            if (bits != 0) {
+                return (word << 6) + Long.numberOfTrailingZeros(bits);
+            }
+            if (++word >= words.length) {
+                return -1;
+            }
+            bits = words[word];
+        }
+    }
+}
@@ -0,0 +1,66 @@
+package it.enginious.fjwt.core;
+
+import it.enginious.fjwt.core.exceptions.FjwtInvalidTokenException;
+
+import java.util.Objects;
+
+/**
+ * Extracts the token from the value of an {@code Authorization} header, shared by the servlet and
+ * the reactive request filters.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+public class FjwtBearerTokenExtractor {
+
+    /**
+     * The header carrying the token
+     */
+    public static final String AUTHORIZATION_HEADER = "Authorization";
+
+    /**
+     * The prefix of the token in the header
+     */
+    public static final String BEARER_PREFIX = "Bearer ";
+
+    private final int maxLength;
+
+    /**
+     * Creates a new extractor
+     *
+     * @param maxLength the maximum length of a token, see {@link FjwtConfig.Token#getMaxLength()}
+     */
+    public FjwtBearerTokenExtractor(int maxLength) {
+        this.maxLength = maxLength;
+    }
+
+    /**
+     * Extract the token that follows {@link #BEARER_PREFIX}, trimmed, checking its length before
+     * copying it out of the header
+     *
+     * @param header the authorization header
+     * @return the token or null if the header is not a bearer one
+     * @throws FjwtInvalidTokenException if the token exceeds {@link FjwtConfig.Token#getMaxLength()}
+     */
+    public String extract(String header) {
+        if (Objects.isNull(header)
+                || header.length() <= BEARER_PREFIX.length()
+                || !header.startsWith(BEARER_PREFIX)) {
+            return null;
+        }
+        int from = BEARER_PREFIX.length();
+        int to = header.length();
+        while (from < to && header.charAt(from) <= ' ') {
+            from++;
+        }
+        while (to > from && header.charAt(to - 1) <= ' ') {
+            to--;
+        }
+        if (to - from > maxLength) {
+            throw new FjwtInvalidTokenException(
+                    FjwtFailureReason.OVERSIZED,
+                    String.format("token length [%d] exceeds [%d]", to - from, maxLength));
+        }
+        return header.substring(from, to);
+    }
+}
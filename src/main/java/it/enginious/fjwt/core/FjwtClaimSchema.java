@@ -0,0 +1,360 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ClaimsBuilder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+import java.util.function.ObjIntConsumer;
+import java.util.function.ObjLongConsumer;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.ToLongFunction;
+
+/**
+ * A typed schema of the custom claims of a token: each claim is declared with its key, the getter it
+ * is written from and the setter of a {@link FjwtAbstractUserDetailsBuilder} subclass it is bound to.
+ * Getters and setters are method references, so claims are bound without reflection and flags and
+ * numbers are passed to the setters as primitives.
+ *
+ * <pre>{@code
+ * FjwtClaimSchema.builder(MyUser.class, MyUserBuilder.class)
+ *         .string("dep", MyUser::getDepartment, MyUserBuilder::department)
+ *         .bool("mfa", MyUser::isMfa, MyUserBuilder::mfa)
+ *         .build();
+ * }</pre>
+ *
+ * <p>A claim missing from the token leaves the builder untouched, a claim of the wrong type is logged
+ * and ignored.
+ *
+ * @param <U> the type of the users tokens are issued for
+ * @param <B> the type of the builder users are rebuilt with
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+public final class FjwtClaimSchema<U extends UserDetails, B extends FjwtAbstractUserDetailsBuilder> {
+
+    private static final String WRONG_TYPE_PATTERN = "claim [{}] is not a {}, ignoring it";
+
+    private final Class<U> userType;
+    private final Class<B> builderType;
+    private final Field<U, B>[] fields;
+    private final Set<String> keys;
+
+    @SuppressWarnings("unchecked")
+    private FjwtClaimSchema(Class<U> userType, Class<B> builderType, List<Field<U, B>> fields) {
+        this.userType = userType;
+        this.builderType = builderType;
+        this.fields = fields.toArray(Field[]::new);
+        this.keys = Collections.unmodifiableSet(new LinkedHashSet<>(fields.stream().map(Field::key).toList()));
+    }
+
+    /**
+     * Start declaring a schema
+     *
+     * @param userType    the type of the users tokens are issued for
+     * @param builderType the type of the builder users are rebuilt with
+     * @param <U>         the type of the users
+     * @param <B>         the type of the builder
+     * @return a schema builder
+     */
+    public static <U extends UserDetails, B extends FjwtAbstractUserDetailsBuilder> Builder<U, B> builder(
+            Class<U> userType, Class<B> builderType) {
+        return new Builder<>(userType, builderType);
+    }
+
+    /**
+     * Get the declared claim keys
+     *
+     * @return the keys, in declaration order
+     */
+    public Set<String> getKeys() {
+        return keys;
+    }
+
+    /**
+     * Add the declared claims of the user, nothing is added if the user is not of the schema type
+     *
+     * @param source the user
+     * @param dest   the claims
+     */
+    public void write(UserDetails source, ClaimsBuilder dest) {
+        if (!userType.isInstance(source)) {
+            log.debug("user is not a [{}], no claim added", userType.getName());
+            return;
+        }
+        U user = userType.cast(source);
+        for (Field<U, B> field : fields) {
+            field.write(user, dest);
+        }
+    }
+
+    /**
+     * Bind the declared claims to the builder, nothing is bound if the builder is not of the schema
+     * type
+     *
+     * @param source the verified claims
+     * @param dest   the builder
+     */
+    public void read(Claims source, FjwtAbstractUserDetailsBuilder dest) {
+        if (!builderType.isInstance(dest)) {
+            log.debug("builder is not a [{}], no claim bound", builderType.getName());
+            return;
+        }
+        B builder = builderType.cast(dest);
+        for (Field<U, B> field : fields) {
+            Object value = source.get(field.key());
+            if (Objects.nonNull(value)) {
+                field.read(value, builder);
+            }
+        }
+    }
+
+    /**
+     * A declared claim
+     */
+    private interface Field<U, B> {
+
+        String key();
+
+        void write(U source, ClaimsBuilder dest);
+
+        void read(Object value, B dest);
+    }
+
+    /**
+     * A setter taking a primitive boolean
+     *
+     * @param <B> the type of the builder
+     */
+    @FunctionalInterface
+    public interface ObjBooleanConsumer<B> {
+
+        /**
+         * Set the value
+         *
+         * @param builder the builder
+         * @param value   the value
+         */
+        void accept(B builder, boolean value);
+    }
+
+    /**
+     * Declares the claims of a {@link FjwtClaimSchema}
+     *
+     * @param <U> the type of the users
+     * @param <B> the type of the builder
+     */
+    public static final class Builder<U extends UserDetails, B extends FjwtAbstractUserDetailsBuilder> {
+
+        private final Class<U> userType;
+        private final Class<B> builderType;
+        private final List<Field<U, B>> fields = new ArrayList<>();
+
+        private Builder(Class<U> userType, Class<B> builderType) {
+            this.userType = userType;
+            this.builderType = builderType;
+        }
+
+        /**
+         * Declare a string claim, null values are not added
+         *
+         * @param key    the claim key
+         * @param getter the user getter
+         * @param setter the builder setter
+         * @return this builder
+         */
+        public Builder<U, B> string(String key, Function<U, String> getter, BiConsumer<B, String> setter) {
+            return add(
+                    new Field<>() {
+                        @Override
+                        public String key() {
+                            return key;
+                        }
+
+                        @Override
+                        public void write(U source, ClaimsBuilder dest) {
+                            String value = getter.apply(source);
+                            if (Objects.nonNull(value)) {
+                                dest.add(key, value);
+                            }
+                        }
+
+                        @Override
+                        public void read(Object value, B dest) {
+                            if (value instanceof String string) {
+                                setter.accept(dest, string);
+                            } else {
+                                log.warn(WRONG_TYPE_PATTERN, key, "string");
+                            }
+                        }
+                    });
+        }
+
+        /**
+         * Declare a list of strings claim, null values are not added
+         *
+         * @param key    the claim key
+         * @param getter the user getter
+         * @param setter the builder setter
+         * @return this builder
+         */
+        public Builder<U, B> strings(
+                String key, Function<U, ? extends Collection<String>> getter, BiConsumer<B, List<String>> setter) {
+            return add(
+                    new Field<>() {
+                        @Override
+                        public String key() {
+                            return key;
+                        }
+
+                        @Override
+                        public void write(U source, ClaimsBuilder dest) {
+                            Collection<String> value = getter.apply(source);
+                            if (Objects.nonNull(value)) {
+                                dest.add(key, value);
+                            }
+                        }
+
+                        @Override
+                        public void read(Object value, B dest) {
+                            if (value instanceof Collection<?> collection
+                                    && collection.stream().allMatch(String.class::isInstance)) {
+                                setter.accept(dest, collection.stream().map(String.class::cast).toList());
+                            } else {
+                                log.warn(WRONG_TYPE_PATTERN, key, "list of strings");
+                            }
+                        }
+                    });
+        }
+
+        /**
+         * Declare a boolean claim
+         *
+         * @param key    the claim key
+         * @param getter the user getter
+         * @param setter the builder setter
+         * @return this builder
+         */
+        public Builder<U, B> bool(String key, Predicate<U> getter, ObjBooleanConsumer<B> setter) {
+            return add(
+                    new Field<>() {
+                        @Override
+                        public String key() {
+                            return key;
+                        }
+
+                        @Override
+                        public void write(U source, ClaimsBuilder dest) {
+                            dest.add(key, getter.test(source));
+                        }
+
+                        @Override
+                        public void read(Object value, B dest) {
+                            if (value instanceof Boolean bool) {
+                                setter.accept(dest, bool);
+                            } else {
+                                log.warn(WRONG_TYPE_PATTERN, key, "boolean");
+                            }
+                        }
+                    });
+        }
+
+        /**
+         * Declare an int claim
+         *
+         * @param key    the claim key
+         * @param getter the user getter
+         * @param setter the builder setter
+         * @return this builder
+         */
+        public Builder<U, B> integer(String key, ToIntFunction<U> getter, ObjIntConsumer<B> setter) {
+            return add(
+                    new Field<>() {
+                        @Override
+                        public String key() {
+                            return key;
+                        }
+
+                        @Override
+                        public void write(U source, ClaimsBuilder dest) {
+                            dest.add(key, getter.applyAsInt(source));
+                        }
+
+                        @Override
+                        public void read(Object value, B dest) {
+                            if (value instanceof Integer number) {
+                                setter.accept(dest, number);
+                            } else {
+                                log.warn(WRONG_TYPE_PATTERN, key, "int");
+                            }
+                        }
+                    });
+        }
+
+        /**
+         * Declare a long claim
+         *
+         * @param key    the claim key
+         * @param getter the user getter
+         * @param setter the builder setter
+         * @return this builder
+         */
+        public Builder<U, B> number(String key, ToLongFunction<U> getter, ObjLongConsumer<B> setter) {
+            return add(
+                    new Field<>() {
+                        @Override
+                        public String key() {
+                            return key;
+                        }
+
+                        @Override
+                        public void write(U source, ClaimsBuilder dest) {
+                            dest.add(key, getter.applyAsLong(source));
+                        }
+
+                        @Override
+                        public void read(Object value, B dest) {
+                            // small values are read back as int
+                            if (value instanceof Integer || value instanceof Long) {
+                                setter.accept(dest, ((Number) value).longValue());
+                            } else {
+                                log.warn(WRONG_TYPE_PATTERN, key, "long");
+                            }
+                        }
+                    });
+        }
+
+        /**
+         * Create the schema
+         *
+         * @return the schema
+         * @throws IllegalStateException if a key is declared twice
+         */
+        public FjwtClaimSchema<U, B> build() {
+            Set<String> keys = new LinkedHashSet<>();
+            for (Field<U, B> field : fields) {
+                if (!keys.add(field.key())) {
+                    throw new IllegalStateException(
+                            String.format("claim [%s] is declared twice in schema", field.key()));
+                }
+            }
+            return new FjwtClaimSchema<>(userType, builderType, List.copyOf(fields));
+        }
+
+        private Builder<U, B> add(Field<U, B> field) {
+            fields.add(field);
+            return this;
+        }
+    }
+}
@@ -0,0 +1,44 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.Claims;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Binds a controller method parameter to the claims of the token verified by {@link
+ * FjwtRequestFilter}, the token is never parsed again. A parameter of type {@link Claims} (or {@link
+ * java.util.Map}) receives all the claims, a parameter of any other type receives the value of a
+ * single claim converted to the parameter type, for example:
+ *
+ * <pre>
+ * &#64;GetMapping("/me")
+ * public String me(&#64;FjwtClaims("sub") String username, &#64;FjwtClaims Claims claims) { ... }
+ * </pre>
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Documented
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+public @interface FjwtClaims {
+
+    /**
+     * The name of the claim to bind, if empty the parameter name is used unless the parameter
+     * receives all the claims
+     *
+     * @return the claim name
+     */
+    String value() default "";
+
+    /**
+     * Whether the claims, or the claim, must be present
+     *
+     * @return true if a missing value must fail the request
+     */
+    boolean required() default true;
+}
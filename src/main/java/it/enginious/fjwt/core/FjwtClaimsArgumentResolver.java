@@ -0,0 +1,96 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.convert.support.DefaultConversionService;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import java.util.Objects;
+
+/**
+ * Resolves the parameters annotated with {@link FjwtClaims} from the claims published by {@link
+ * FjwtRequestFilter} in the {@link FjwtRequestFilter#CLAIMS_ATTRIBUTE} request attribute or, when the
+ * request was already authenticated, from the {@link FjwtAuthentication} in the security context.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+public class FjwtClaimsArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(FjwtClaims.class);
+    }
+
+    @Override
+    public Object resolveArgument(
+            MethodParameter parameter,
+            ModelAndViewContainer mavContainer,
+            NativeWebRequest webRequest,
+            WebDataBinderFactory binderFactory)
+            throws Exception {
+
+        FjwtClaims annotation = Objects.requireNonNull(parameter.getParameterAnnotation(FjwtClaims.class));
+        Claims claims = getClaims(webRequest);
+        Class<?> type = parameter.getParameterType();
+
+        if (type.isAssignableFrom(Claims.class) && annotation.value().isEmpty()) {
+            if (Objects.isNull(claims) && annotation.required()) {
+                throw new ServletRequestBindingException(
+                        String.format("no verified claims available for parameter [%s]", parameter.getParameterName()));
+            }
+            return claims;
+        }
+
+        String name = getClaimName(parameter, annotation);
+        Object value = Objects.nonNull(claims) ? claims.get(name) : null;
+        if (Objects.isNull(value)) {
+            if (annotation.required()) {
+                throw new ServletRequestBindingException(String.format("missing claim [%s]", name));
+            }
+            return null;
+        }
+        if (Objects.nonNull(binderFactory)) {
+            return binderFactory.createBinder(webRequest, null, name).convertIfNecessary(value, type, parameter);
+        }
+        return DefaultConversionService.getSharedInstance().convert(value, type);
+    }
+
+    private static Claims getClaims(NativeWebRequest webRequest) {
+        Object claims =
+                webRequest.getAttribute(FjwtRequestFilter.CLAIMS_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST);
+        if (claims instanceof Claims verified) {
+            return verified;
+        }
+        // the filter skips requests that are already authenticated
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication instanceof FjwtAuthentication fjwtAuthentication) {
+            return fjwtAuthentication.getClaims();
+        }
+        log.debug("no verified claims found in the request");
+        return null;
+    }
+
+    private static String getClaimName(MethodParameter parameter, FjwtClaims annotation) {
+        if (!annotation.value().isEmpty()) {
+            return annotation.value();
+        }
+        String name = parameter.getParameterName();
+        if (Objects.isNull(name)) {
+            throw new IllegalArgumentException(
+                    String.format(
+                            "claim name for argument of type [%s] not specified, and parameter name information not available via reflection: set the value of @%s or compile with the '-parameters' flag",
+                            parameter.getNestedParameterType().getName(), FjwtClaims.class.getSimpleName()));
+        }
+        return name;
+    }
+}
@@ -4,6 +4,10 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ClaimsBuilder;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Duration;
+import java.util.Collections;
+import java.util.Set;
+
 /**
  * An element of the token extraction chain. See {@link FjwtClaimsExtractorChain}.
  *
@@ -27,4 +31,36 @@ public interface FjwtClaimsExtractor {
      * @param dest   target user builder
      */
     void addData(Claims source, FjwtAbstractUserDetailsBuilder dest);
+
+    /**
+     * Get the keys of the claims added to and read from the token, the {@link FjwtClaimsExtractorChain}
+     * refuses extractors declaring the same key
+     *
+     * @return the claim keys, empty if not declared
+     * @since 3.2.0
+     */
+    default Set<String> getClaimKeys() {
+        return Collections.emptySet();
+    }
+
+    /**
+     * Check if the claims can be added to the token concurrently with the other extractors, that is if
+     * {@link #getClaims(UserDetails, ClaimsBuilder)} only depends on the user
+     *
+     * @return true if the extractor is independent, false by default
+     * @since 3.2.0
+     */
+    default boolean isIndependent() {
+        return false;
+    }
+
+    /**
+     * Get the time an independent extractor can take to add its claims to the token
+     *
+     * @return the timeout, null to use the one of the chain
+     * @since 3.2.0
+     */
+    default Duration getTimeout() {
+        return null;
+    }
 }
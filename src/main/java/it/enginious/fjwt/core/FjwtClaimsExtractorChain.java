@@ -2,29 +2,169 @@ package it.enginious.fjwt.core;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.impl.DefaultClaimsBuilder;
-import lombok.RequiredArgsConstructor;
+import it.enginious.fjwt.core.exceptions.FjwtClaimsExtractionException;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.util.CollectionUtils;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.Duration;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents the extractors chain. When the token is generated all registered extractors will be
  * invoked by adding information to the token.
  *
+ * <p>The chain is checked when it is created: an extractor can't declare, see {@link
+ * FjwtClaimsExtractor#getClaimKeys()}, a registered claim of the token or a key declared by another
+ * extractor. Nothing is logged while the chain is invoked.
+ *
+ * <p>Extractors marked as independent, see {@link FjwtClaimsExtractor#isIndependent()}, add their
+ * claims concurrently on an executor, by default on virtual threads when the JVM supports them, while
+ * the others run on the calling thread. Each extractor adds its claims apart and the claims are merged
+ * in the order of the extractors, so the token is the same as when they run one after another. The
+ * user is rebuilt from a token on the calling thread. The executor created by the chain is shut down
+ * when the chain is destroyed, a given executor is left to its owner.
+ *
  * @author Giuseppe Milazzo
  * @since 1.1.0
  */
 @Slf4j
-@RequiredArgsConstructor
-public class FjwtClaimsExtractorChain {
+public class FjwtClaimsExtractorChain implements DisposableBean {
+
+    private static final Set<String> REGISTERED_CLAIMS =
+            Set.of(
+                    Claims.ISSUER,
+                    Claims.SUBJECT,
+                    Claims.AUDIENCE,
+                    Claims.EXPIRATION,
+                    Claims.NOT_BEFORE,
+                    Claims.ISSUED_AT,
+                    Claims.ID);
+
+    private static final FjwtClaimsExtractor[] NO_EXTRACTORS = new FjwtClaimsExtractor[0];
+
+    /**
+     * Default time an independent extractor can take to add its claims
+     */
+    public static final Duration DEFAULT_TIMEOUT = Duration.ofSeconds(5);
 
     /**
      * Extractors chain *
      */
-    private final List<FjwtClaimsExtractor> fjwtClaimsExtractors;
+    private final FjwtClaimsExtractor[] fjwtClaimsExtractors;
+    private final boolean[] independent;
+    private final long[] timeouts;
+    private final ExecutorService executor;
+    private final boolean ownsExecutor;
+
+    /**
+     * Creates a new chain, independent extractors time out after {@link #DEFAULT_TIMEOUT}
+     *
+     * @param fjwtClaimsExtractors the extractors, invoked in the given order
+     * @throws IllegalStateException if an extractor declares a registered claim or a key declared by
+     *                               another extractor
+     */
+    public FjwtClaimsExtractorChain(List<FjwtClaimsExtractor> fjwtClaimsExtractors) {
+        this(fjwtClaimsExtractors, DEFAULT_TIMEOUT);
+    }
+
+    /**
+     * Creates a new chain, independent extractors run on virtual threads when the JVM supports them
+     *
+     * @param fjwtClaimsExtractors the extractors, invoked in the given order
+     * @param timeout              the time an independent extractor can take, unless it has its own
+     * @throws IllegalStateException if an extractor declares a registered claim or a key declared by
+     *                               another extractor
+     */
+    public FjwtClaimsExtractorChain(List<FjwtClaimsExtractor> fjwtClaimsExtractors, Duration timeout) {
+        this(
+                fjwtClaimsExtractors,
+                CollectionUtils.isEmpty(fjwtClaimsExtractors)
+                                || fjwtClaimsExtractors.stream().noneMatch(FjwtClaimsExtractor::isIndependent)
+                        ? null
+                        : newDefaultExecutor(),
+                timeout,
+                true);
+    }
+
+    /**
+     * Creates a new chain
+     *
+     * @param fjwtClaimsExtractors the extractors, invoked in the given order
+     * @param executor             the executor independent extractors run on, if null they run on the
+     *                             calling thread
+     * @param timeout              the time an independent extractor can take, unless it has its own
+     * @throws IllegalStateException if an extractor declares a registered claim or a key declared by
+     *                               another extractor
+     */
+    public FjwtClaimsExtractorChain(
+            List<FjwtClaimsExtractor> fjwtClaimsExtractors, ExecutorService executor, Duration timeout) {
+        this(fjwtClaimsExtractors, executor, timeout, false);
+    }
+
+    private FjwtClaimsExtractorChain(
+            List<FjwtClaimsExtractor> fjwtClaimsExtractors,
+            ExecutorService executor,
+            Duration timeout,
+            boolean ownsExecutor) {
+        this.ownsExecutor = ownsExecutor;
+        this.fjwtClaimsExtractors =
+                CollectionUtils.isEmpty(fjwtClaimsExtractors)
+                        ? NO_EXTRACTORS
+                        : fjwtClaimsExtractors.toArray(FjwtClaimsExtractor[]::new);
+        this.independent = new boolean[this.fjwtClaimsExtractors.length];
+        this.timeouts = new long[this.fjwtClaimsExtractors.length];
+        boolean concurrent = false;
+        for (int i = 0; i < this.fjwtClaimsExtractors.length; i++) {
+            independent[i] = Objects.nonNull(executor) && this.fjwtClaimsExtractors[i].isIndependent();
+            timeouts[i] =
+                    Objects.requireNonNullElse(this.fjwtClaimsExtractors[i].getTimeout(), timeout).toNanos();
+            concurrent |= independent[i];
+        }
+        this.executor = concurrent ? executor : null;
+
+        Map<String, FjwtClaimsExtractor> owners = new HashMap<>();
+        for (FjwtClaimsExtractor extractor : this.fjwtClaimsExtractors) {
+            for (String key : extractor.getClaimKeys()) {
+                if (REGISTERED_CLAIMS.contains(key)) {
+                    throw new IllegalStateException(
+                            String.format(
+                                    "extractor [%s] declares the registered claim [%s]",
+                                    extractor.getClass().getName(), key));
+                }
+                FjwtClaimsExtractor owner = owners.putIfAbsent(key, extractor);
+                if (Objects.nonNull(owner)) {
+                    throw new IllegalStateException(
+                            String.format(
+                                    "claim [%s] is declared by both extractor [%s] and extractor [%s]",
+                                    key, owner.getClass().getName(), extractor.getClass().getName()));
+                }
+            }
+            log.debug(
+                    "extractor [{}] added to chain with claims [{}]",
+                    extractor.getClass().getName(),
+                    extractor.getClaimKeys());
+        }
+        log.debug(
+                "found [{}] extractors in chain, running independent extractors concurrently [{}]",
+                this.fjwtClaimsExtractors.length,
+                concurrent);
+    }
 
     /**
      * Invokes the extractors chain adding information to the token and returns a map containing all
@@ -36,17 +176,45 @@ public class FjwtClaimsExtractorChain {
     public Claims getClaims(UserDetails source) {
 
         DefaultClaimsBuilder claimsBuilder = new DefaultClaimsBuilder();
+        if (Objects.isNull(executor)) {
+            for (FjwtClaimsExtractor extractor : fjwtClaimsExtractors) {
+                extractor.getClaims(source, claimsBuilder);
+            }
+            return claimsBuilder.build();
+        }
 
-        log.debug(
-                "found [{}] extractors in chain",
-                Objects.nonNull(fjwtClaimsExtractors) ? fjwtClaimsExtractors.size() : 0);
-
-        if (!CollectionUtils.isEmpty(fjwtClaimsExtractors)) {
-            fjwtClaimsExtractors.forEach(
-                    ce -> {
-                        log.info("retrieving claims from user using [{}]", ce.getClass().getName());
-                        ce.getClaims(source, claimsBuilder);
-                    });
+        long start = System.nanoTime();
+        DefaultClaimsBuilder[] parts = new DefaultClaimsBuilder[fjwtClaimsExtractors.length];
+        Future<?>[] futures = new Future<?>[fjwtClaimsExtractors.length];
+        try {
+            for (int i = 0; i < fjwtClaimsExtractors.length; i++) {
+                if (independent[i]) {
+                    FjwtClaimsExtractor extractor = fjwtClaimsExtractors[i];
+                    DefaultClaimsBuilder part = new DefaultClaimsBuilder();
+                    parts[i] = part;
+                    futures[i] = executor.submit(() -> extractor.getClaims(source, part));
+                }
+            }
+            for (int i = 0; i < fjwtClaimsExtractors.length; i++) {
+                if (!independent[i]) {
+                    parts[i] = new DefaultClaimsBuilder();
+                    fjwtClaimsExtractors[i].getClaims(source, parts[i]);
+                }
+            }
+            for (int i = 0; i < fjwtClaimsExtractors.length; i++) {
+                if (independent[i]) {
+                    await(i, futures[i], start);
+                }
+            }
+        } finally {
+            for (Future<?> future : futures) {
+                if (Objects.nonNull(future)) {
+                    future.cancel(true);
+                }
+            }
+        }
+        for (DefaultClaimsBuilder part : parts) {
+            claimsBuilder.add(part.build());
         }
         return claimsBuilder.build();
     }
@@ -59,16 +227,66 @@ public class FjwtClaimsExtractorChain {
      */
     public void addData(Claims source, FjwtAbstractUserDetailsBuilder dest) {
 
-        log.debug(
-                "found [{}] extractors in chain",
-                Objects.nonNull(fjwtClaimsExtractors) ? fjwtClaimsExtractors.size() : 0);
-
-        if (!CollectionUtils.isEmpty(fjwtClaimsExtractors)) {
-            fjwtClaimsExtractors.forEach(
-                    ce -> {
-                        log.info("retrieving claims from token using [{}]", ce.getClass().getName());
-                        ce.addData(source, dest);
-                    });
+        for (FjwtClaimsExtractor extractor : fjwtClaimsExtractors) {
+            extractor.addData(source, dest);
+        }
+    }
+
+    /**
+     * Shuts the executor down if it was created by the chain, extractions in progress are completed
+     */
+    @Override
+    public void destroy() {
+        if (ownsExecutor && Objects.nonNull(executor)) {
+            log.debug("shutting down the executor of the independent extractors");
+            executor.shutdown();
+        }
+    }
+
+    private void await(int index, Future<?> future, long start) {
+        String name = fjwtClaimsExtractors[index].getClass().getName();
+        try {
+            future.get(Math.max(0, start + timeouts[index] - System.nanoTime()), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            throw new FjwtClaimsExtractionException(
+                    String.format(
+                            "extractor [%s] timed out after [%d] ms",
+                            name, TimeUnit.NANOSECONDS.toMillis(timeouts[index])),
+                    e);
+        } catch (ExecutionException e) {
+            throw new FjwtClaimsExtractionException(String.format("extractor [%s] failed", name), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new FjwtClaimsExtractionException(
+                    String.format("interrupted while waiting for extractor [%s]", name), e);
+        }
+    }
+
+    /**
+     * Creates the executor extractors run on by default, see {@link FjwtClaimsExtractor#isIndependent()}
+     *
+     * @return an executor running each task on a new virtual thread on Java 21 or later, on a cached
+     * pool of daemon threads otherwise
+     */
+    public static ExecutorService newDefaultExecutor() {
+        try {
+            return (ExecutorService)
+                    MethodHandles.publicLookup()
+                            .findStatic(
+                                    Executors.class,
+                                    "newVirtualThreadPerTaskExecutor",
+                                    MethodType.methodType(ExecutorService.class))
+                            .invoke();
+        } catch (Throwable e) {
+            log.debug("virtual threads are not available on Java [{}]: {}", Runtime.version(), e.toString());
         }
+        AtomicInteger count = new AtomicInteger();
+        ThreadFactory threadFactory =
+                runnable -> {
+                    Thread thread = new Thread(runnable, "fjwt-extractor-" + count.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                };
+        return Executors.newCachedThreadPool(threadFactory);
     }
 }
@@ -8,7 +8,9 @@ import org.springframework.stereotype.Component;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.stream.Stream;
 
 /**
@@ -33,6 +35,11 @@ public class FjwtConfig {
      */
     private List<String> unsecured = new ArrayList<>();
 
+    /**
+     * List of paths served without any security filter, they are not authenticated at all
+     */
+    private List<String> ignored = new ArrayList<>();
+
     /**
      * Jwt token ttl in seconds
      */
@@ -58,6 +65,36 @@ public class FjwtConfig {
      */
     private boolean enableDefaultExtractors = true;
 
+    /**
+     * Pack the user flags in a single claim left out when all of them have their default value
+     */
+    private boolean compactFlags = false;
+
+    /**
+     * Refused tokens reporting configuration
+     */
+    private final Failures failures = new Failures();
+
+    /**
+     * Received tokens configuration
+     */
+    private final Token token = new Token();
+
+    /**
+     * Security context configuration
+     */
+    private final Context context = new Context();
+
+    /**
+     * Authorities configuration
+     */
+    private final Authorities authorities = new Authorities();
+
+    /**
+     * Extractors configuration
+     */
+    private final Extractors extractors = new Extractors();
+
     /**
      * Get all unsecured endpoints (which means this.endpoint + this.unsecured)
      *
@@ -67,4 +104,148 @@ public class FjwtConfig {
         return Stream.concat(Arrays.stream(new String[]{getEndpoint()}), getUnsecured().stream())
                 .toArray(String[]::new);
     }
+
+    /**
+     * Refused tokens reporting configuration parameters.
+     *
+     * @author Giuseppe Milazzo
+     * @since 3.2.0
+     */
+    @Getter
+    @Setter
+    public static class Failures {
+
+        /**
+         * Interval in seconds between two summaries of the refused tokens
+         */
+        private int interval = 60;
+
+        /**
+         * The full stack trace is logged once every this number of refused tokens, 0 disables traces
+         */
+        private int traceSampleRate = 100;
+
+        /**
+         * Maximum number of distinct reason and client pairs tracked between two summaries
+         */
+        private int maxEntries = 1000;
+    }
+
+    /**
+     * Received tokens configuration parameters.
+     *
+     * @author Giuseppe Milazzo
+     * @since 3.2.0
+     */
+    @Getter
+    @Setter
+    public static class Token {
+
+        /**
+         * Maximum length of a received token, longer tokens are refused before being parsed
+         */
+        private int maxLength = 8192;
+
+        /**
+         * Maximum number of refused tokens remembered to refuse them again without parsing, 0 disables
+         * the cache
+         */
+        private int negativeCacheSize = 0;
+
+        /**
+         * Seconds a refused token is remembered for
+         */
+        private int negativeCacheTtl = 60;
+
+        /**
+         * Estimated maximum heap bytes of the users shared between the requests carrying the same token,
+         * 0 disables sharing
+         */
+        private long principalCacheBytes = 0;
+    }
+
+    /**
+     * Security context configuration parameters.
+     *
+     * @author Giuseppe Milazzo
+     * @since 3.2.0
+     */
+    @Getter
+    @Setter
+    public static class Context {
+
+        /**
+         * Keep the security context in a ScopedValue instead of a ThreadLocal, when the JVM supports it
+         */
+        private boolean scopedValue = false;
+    }
+
+    /**
+     * Authorities configuration parameters.
+     *
+     * @author Giuseppe Milazzo
+     * @since 3.2.0
+     */
+    @Getter
+    @Setter
+    public static class Authorities {
+
+        /**
+         * Maximum number of distinct authorities shared between the users rebuilt from tokens, 0
+         * disables sharing
+         */
+        private int poolSize = FjwtGrantedAuthorityPool.DEFAULT_MAX_SIZE;
+
+        /**
+         * Version of the dictionary the authorities of issued tokens are encoded with, if null they are
+         * written by name
+         */
+        private Integer dictionaryVersion;
+
+        /**
+         * Authority dictionaries by version, tokens can be verified as long as the dictionary they were
+         * encoded with is configured
+         */
+        private Map<Integer, List<String>> dictionaries = new HashMap<>();
+
+        /**
+         * Maximum number of distinct encoded authorities whose decoding is cached
+         */
+        private int dictionaryCacheSize = 1024;
+
+        /**
+         * Authorities directly implied by each authority, implied authorities are left out of issued
+         * tokens and added back when they are verified
+         */
+        private Map<String, List<String>> hierarchy = new HashMap<>();
+
+        /**
+         * Maximum number of distinct combinations of authorities whose expansion is cached
+         */
+        private int hierarchyCacheSize = 1024;
+
+        /**
+         * Check the authorities of {@code @Secured} methods against the authority bits, when false they
+         * are checked as Spring Security does. In both cases {@code securedEnabled} must not be set on
+         * {@code @EnableMethodSecurity} as well
+         */
+        private boolean securedMethods = true;
+    }
+
+    /**
+     * Extractors configuration parameters.
+     *
+     * @author Giuseppe Milazzo
+     * @since 3.2.0
+     */
+    @Getter
+    @Setter
+    public static class Extractors {
+
+        /**
+         * Milliseconds an independent extractor can take to add its claims to a token, unless it has its
+         * own timeout
+         */
+        private long timeout = FjwtClaimsExtractorChain.DEFAULT_TIMEOUT.toMillis();
+    }
 }
@@ -1,11 +1,16 @@
 package it.enginious.fjwt.core;
 
+import it.enginious.fjwt.core.exceptions.FjwtClaimsExtractionException;
 import it.enginious.fjwt.core.exceptions.FjwtTokenInvalidatorException;
+import it.enginious.fjwt.core.jfr.FjwtEvent;
+import it.enginious.fjwt.core.jfr.FjwtTokenIssuanceEvent;
+import it.enginious.fjwt.core.metrics.FjwtMetrics;
 import it.enginious.fjwt.dto.FjwtRequest;
 import it.enginious.fjwt.dto.FjwtResponse;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.authentication.AuthenticationManager;
@@ -26,24 +31,31 @@ import org.springframework.web.bind.annotation.RestController;
 @Slf4j
 @CrossOrigin
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 public class FjwtController {
 
     private final AuthenticationManager authenticationManager;
     private final FjwtTokenUtil fjwtTokenUtil;
     private final FjwtTokenInvalidator fjwtTokenInvalidator;
+    private final FjwtMetrics metrics;
 
     /**
      * Authentication endpoint, you can set this path through {@link FjwtConfig#endpoint}.
      *
      * @param request a {@link FjwtRequest}
-     * @return the authentication response which is {@link HttpStatus#OK} in case of success and
-     * {@link HttpStatus#UNAUTHORIZED} in case of failure.
+     * @return the authentication response which is {@link HttpStatus#OK} in case of success, {@link
+     * HttpStatus#SERVICE_UNAVAILABLE} when the claims of the token can't be extracted and {@link
+     * HttpStatus#UNAUTHORIZED} in case of any other failure.
      */
     @PostMapping("${fjwt.endpoint:/authenticate}")
     public ResponseEntity<FjwtResponse> createAuthenticationToken(
             @Valid @RequestBody FjwtRequest request) {
 
+        FjwtTokenIssuanceEvent event = new FjwtTokenIssuanceEvent();
+        event.begin();
+        long start = System.nanoTime();
+        String outcome = FjwtEvent.AUTHENTICATION_FAILED;
         try {
             log.debug("processing request for user [{}]", request.getUsername());
 
@@ -55,12 +67,22 @@ public class FjwtController {
                                     .getPrincipal();
 
             String token = fjwtTokenUtil.generateToken(user);
+            event.setTokenSize(token.length());
 
             if (!(fjwtTokenInvalidator instanceof NoopTokenInvalidator)) {
                 log.debug("storing token for user [{}]", request.getUsername());
-                fjwtTokenInvalidator.store(user, token);
+                long storeStart = System.nanoTime();
+                try {
+                    fjwtTokenInvalidator.store(user, token);
+                } finally {
+                    long elapsed = System.nanoTime() - storeStart;
+                    metrics.recordInvalidator(FjwtMetrics.STORE, elapsed);
+                    event.setInvalidatorLatency(elapsed);
+                }
             }
 
+            metrics.recordTokenIssuance(System.nanoTime() - start);
+            outcome = FjwtEvent.SUCCESS;
             return ResponseEntity.ok(FjwtResponse.builder().token(token).build());
 
         } catch (AuthenticationException e) {
@@ -70,10 +92,26 @@ public class FjwtController {
                     e);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
         } catch (FjwtTokenInvalidatorException e) {
+            outcome = FjwtFailureReason.INVALIDATOR_ERROR.getValue();
             log.error(
                     String.format("error occurred while storing token for user [%s]", request.getUsername()),
                     e);
             return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        } catch (FjwtClaimsExtractionException e) {
+            outcome = FjwtEvent.EXTRACTION_FAILED;
+            metrics.recordExtractionFailure();
+            log.error(
+                    String.format(
+                            "error occurred while extracting the claims for user [%s]", request.getUsername()),
+                    e);
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+        } finally {
+            event.end();
+            if (event.shouldCommit()) {
+                event.setAlgorithm(fjwtTokenUtil.getAlgorithm());
+                event.setOutcome(outcome);
+                event.commit();
+            }
         }
     }
 }
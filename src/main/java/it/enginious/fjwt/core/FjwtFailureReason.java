@@ -0,0 +1,81 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.io.DecodingException;
+import io.jsonwebtoken.security.SignatureException;
+import it.enginious.fjwt.core.exceptions.FjwtInvalidTokenException;
+
+/**
+ * The reasons why a token can be refused.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+public enum FjwtFailureReason {
+
+    /**
+     * The token is expired
+     */
+    EXPIRED("expired"),
+    /**
+     * The token signature could not be verified
+     */
+    BAD_SIGNATURE("bad_signature"),
+    /**
+     * The token was incorrectly constructed
+     */
+    MALFORMED("malformed"),
+    /**
+     * The token exceeds {@link FjwtConfig.Token#getMaxLength()}
+     */
+    OVERSIZED("oversized"),
+    /**
+     * The token was invalidated through {@link FjwtTokenInvalidator}
+     */
+    REVOKED("revoked"),
+    /**
+     * The {@link FjwtTokenInvalidator} raised an error
+     */
+    INVALIDATOR_ERROR("invalidator_error"),
+    /**
+     * The token was refused for any other reason
+     */
+    INVALID("invalid");
+
+    private final String value;
+
+    FjwtFailureReason(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Get the value of this reason, suitable for metric tags and log messages
+     *
+     * @return the value
+     */
+    public String getValue() {
+        return value;
+    }
+
+    /**
+     * Get the reason that matches the exception raised while parsing a token
+     *
+     * @param e the exception
+     * @return the matching reason
+     */
+    public static FjwtFailureReason of(Exception e) {
+        if (e instanceof FjwtInvalidTokenException ite) {
+            return ite.getReason();
+        } else if (e instanceof ExpiredJwtException) {
+            return EXPIRED;
+        } else if (e instanceof SignatureException) {
+            return BAD_SIGNATURE;
+        } else if (e instanceof MalformedJwtException
+                || e instanceof DecodingException
+                || e instanceof IllegalArgumentException) {
+            return MALFORMED;
+        }
+        return INVALID;
+    }
+}
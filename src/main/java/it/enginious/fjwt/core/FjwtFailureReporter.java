@@ -0,0 +1,222 @@
+package it.enginious.fjwt.core;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Reports the refused tokens without flooding the logs. Failures are grouped by reason and client
+ * and a summary is logged every {@link FjwtConfig.Failures#getInterval()} seconds, while the full
+ * stack trace is logged only once every {@link FjwtConfig.Failures#getTraceSampleRate()} failures.
+ *
+ * <p>At most {@link FjwtConfig.Failures#getMaxEntries()} reason and client pairs are tracked, failures of
+ * further clients are counted for the {@value #OTHER_CLIENTS} client of their reason. A pair without
+ * failures for a whole interval is dropped: its counter is retired first, so that failures reported
+ * meanwhile are counted on a new one instead of being lost.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FjwtFailureReporter {
+
+    /**
+     * Client used when the maximum number of tracked entries is reached
+     */
+    static final String OTHER_CLIENTS = "other";
+
+    private static final int SUMMARY_MAX_ENTRIES = 20;
+
+    /**
+     * Value of a counter dropped from the tracked pairs, it can't be incremented any more
+     */
+    private static final long RETIRED = -1;
+
+    private static final Comparator<Entry> ENTRY_ORDER =
+            Comparator.comparing(Entry::reason)
+                    .thenComparing(Entry::client, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+    private final FjwtConfig fjwtConfig;
+
+    private final Map<Entry, AtomicLong> failures = new ConcurrentHashMap<>();
+
+    /**
+     * Number of tracked pairs, the {@value #OTHER_CLIENTS} ones excluded
+     */
+    private final AtomicInteger tracked = new AtomicInteger();
+
+    private final AtomicLong total = new AtomicLong();
+
+    private ScheduledExecutorService scheduler;
+
+    /**
+     * initialize this bean, see {@link PostConstruct}
+     */
+    @PostConstruct
+    public void init() {
+        int interval = fjwtConfig.getFailures().getInterval();
+        if (interval <= 0) {
+            log.warn("refused tokens summary interval is [{}], summary will be logged on shutdown only", interval);
+            return;
+        }
+        scheduler =
+                Executors.newSingleThreadScheduledExecutor(
+                        r -> {
+                            Thread thread = new Thread(r, "fjwt-failure-reporter");
+                            thread.setDaemon(true);
+                            return thread;
+                        });
+        scheduler.scheduleAtFixedRate(this::flush, interval, interval, TimeUnit.SECONDS);
+    }
+
+    /**
+     * Flushes the last summary and stops the scheduler
+     */
+    @PreDestroy
+    public void destroy() {
+        if (Objects.nonNull(scheduler)) {
+            scheduler.shutdownNow();
+        }
+        flush();
+    }
+
+    /**
+     * Reports a refused token
+     *
+     * @param reason the reason why the token was refused
+     * @param client the client that sent the token
+     * @param e      the exception raised while parsing the token, if any
+     */
+    public void report(FjwtFailureReason reason, String client, Exception e) {
+
+        increment(new Entry(reason, client));
+
+        int sampleRate = fjwtConfig.getFailures().getTraceSampleRate();
+        if (Objects.nonNull(e) && sampleRate > 0 && total.getAndIncrement() % sampleRate == 0) {
+            log.warn(
+                    String.format(
+                            "token refused with reason [%s] for client [%s] (sampled 1 every %d):",
+                            reason.getValue(), client, sampleRate),
+                    e);
+        } else {
+            log.debug(
+                    "token refused with reason [{}] for client [{}]: {}",
+                    reason.getValue(),
+                    client,
+                    Objects.nonNull(e) ? e.getMessage() : null);
+        }
+    }
+
+    /**
+     * Logs a summary of the tokens refused since the last flush
+     */
+    public void flush() {
+
+        Map<Entry, Long> snapshot = new HashMap<>();
+        failures.forEach(
+                (entry, counter) -> {
+                    long count = drain(counter);
+                    if (count > 0) {
+                        snapshot.put(entry, count);
+                    } else if (counter.compareAndSet(0, RETIRED)) {
+                        untrack(entry, counter);
+                    }
+                });
+
+        long sum = snapshot.values().stream().mapToLong(Long::longValue).sum();
+        if (sum == 0) {
+            return;
+        }
+
+        long distinct = snapshot.size();
+        String details =
+                snapshot.entrySet().stream()
+                        .sorted(
+                                Map.Entry.<Entry, Long>comparingByValue(Comparator.reverseOrder())
+                                        .thenComparing(Map.Entry::getKey, ENTRY_ORDER))
+                        .limit(SUMMARY_MAX_ENTRIES)
+                        .map(
+                                e ->
+                                        String.format(
+                                                "[%s] from [%s]: %d",
+                                                e.getKey().reason().getValue(), e.getKey().client(), e.getValue()))
+                        .collect(Collectors.joining(", "));
+
+        log.warn(
+                "refused [{}] tokens from [{}] reason and client pairs: {}{}",
+                sum,
+                distinct,
+                details,
+                distinct > SUMMARY_MAX_ENTRIES
+                        ? String.format(" and [%d] more", distinct - SUMMARY_MAX_ENTRIES)
+                        : "");
+    }
+
+    private void increment(Entry entry) {
+        while (true) {
+            AtomicLong counter = failures.get(entry);
+            if (Objects.isNull(counter)) {
+                counter = failures.computeIfAbsent(entry, this::track);
+                if (Objects.isNull(counter)) {
+                    entry = new Entry(entry.reason(), OTHER_CLIENTS);
+                    continue;
+                }
+            }
+            long count = counter.get();
+            if (count == RETIRED) {
+                // retired by a flush that has not removed it yet
+                untrack(entry, counter);
+            } else if (counter.compareAndSet(count, count + 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Creates the counter of a new pair, unless the maximum number of pairs is tracked already
+     */
+    private AtomicLong track(Entry entry) {
+        if (OTHER_CLIENTS.equals(entry.client())) {
+            return new AtomicLong();
+        }
+        if (tracked.incrementAndGet() > fjwtConfig.getFailures().getMaxEntries()) {
+            tracked.decrementAndGet();
+            return null;
+        }
+        return new AtomicLong();
+    }
+
+    private void untrack(Entry entry, AtomicLong counter) {
+        if (failures.remove(entry, counter) && !OTHER_CLIENTS.equals(entry.client())) {
+            tracked.decrementAndGet();
+        }
+    }
+
+    private static long drain(AtomicLong counter) {
+        while (true) {
+            long count = counter.get();
+            if (count == RETIRED || counter.compareAndSet(count, 0)) {
+                return count == RETIRED ? 0 : count;
+            }
+        }
+    }
+
+    private record Entry(FjwtFailureReason reason, String client) {
+    }
+}
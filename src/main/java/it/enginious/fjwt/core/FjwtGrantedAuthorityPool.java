@@ -0,0 +1,136 @@
+package it.enginious.fjwt.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * A bounded pool of canonical {@link GrantedAuthority} instances, so that the authorities rebuilt
+ * from tokens share the same instances instead of allocating new ones for every request, and equality
+ * checks between them are resolved by identity. Once the maximum size is reached the pooled
+ * authorities are kept and new ones are created without being pooled.
+ *
+ * <p>Each pooled authority is given a stable index, lower than the maximum size, which {@link
+ * FjwtAuthoritySet} uses to hold authorities as bits.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+public class FjwtGrantedAuthorityPool {
+
+    /**
+     * Default maximum number of pooled authorities
+     */
+    public static final int DEFAULT_MAX_SIZE = 1024;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicInteger nextIndex = new AtomicInteger();
+    private final AtomicBoolean full = new AtomicBoolean();
+    private final AtomicReferenceArray<GrantedAuthority> authorities;
+    private final int maxSize;
+
+    /**
+     * Creates a new pool with the default maximum size
+     */
+    public FjwtGrantedAuthorityPool() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Creates a new pool
+     *
+     * @param maxSize maximum number of pooled authorities, 0 disables pooling
+     */
+    public FjwtGrantedAuthorityPool(int maxSize) {
+        this.maxSize = maxSize;
+        this.authorities = new AtomicReferenceArray<>(Math.max(maxSize, 0));
+    }
+
+    /**
+     * Get the canonical authority for the given value
+     *
+     * @param authority the authority value
+     * @return the pooled authority, or a new one if the pool is full
+     */
+    public GrantedAuthority intern(String authority) {
+        int index = internIndex(authority);
+        return index >= 0 ? authorities.get(index) : new SimpleGrantedAuthority(authority);
+    }
+
+    /**
+     * Pool the authority with the given value, if not pooled yet, and get its index
+     *
+     * @param authority the authority value
+     * @return the index of the pooled authority, -1 if the pool is full
+     */
+    public int internIndex(String authority) {
+        Entry entry = entries.get(authority);
+        if (Objects.nonNull(entry)) {
+            return entry.index();
+        }
+        if (nextIndex.get() < maxSize) {
+            entry = entries.computeIfAbsent(authority, this::newEntry);
+            if (Objects.nonNull(entry)) {
+                return entry.index();
+            }
+        }
+        if (maxSize > 0 && full.compareAndSet(false, true)) {
+            log.warn("granted authority pool is full with [{}] authorities, new authorities won't be pooled", maxSize);
+        }
+        return -1;
+    }
+
+    /**
+     * Get the index of an authority, without pooling it
+     *
+     * @param authority the authority value
+     * @return the index of the pooled authority, -1 if it is not pooled
+     */
+    public int indexOf(String authority) {
+        Entry entry = entries.get(authority);
+        return Objects.nonNull(entry) ? entry.index() : -1;
+    }
+
+    /**
+     * Get the pooled authority with the given index
+     *
+     * @param index the index
+     * @return the pooled authority
+     */
+    public GrantedAuthority get(int index) {
+        return authorities.get(index);
+    }
+
+    /**
+     * Get the number of pooled authorities
+     *
+     * @return the number of pooled authorities
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Called by computeIfAbsent at most once per authority, so each index is taken once
+     */
+    private Entry newEntry(String authority) {
+        int index = nextIndex.getAndIncrement();
+        if (index >= maxSize) {
+            return null;
+        }
+        GrantedAuthority grantedAuthority = new SimpleGrantedAuthority(authority);
+        authorities.set(index, grantedAuthority);
+        return new Entry(index, grantedAuthority);
+    }
+
+    private record Entry(int index, GrantedAuthority authority) {
+    }
+}
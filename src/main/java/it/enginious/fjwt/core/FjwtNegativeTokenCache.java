@@ -0,0 +1,132 @@
+package it.enginious.fjwt.core;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.EnumSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * Remembers the tokens refused for a reason that can't change over time, so that a token sent again
+ * is refused with a single lookup instead of being parsed and verified again. Tokens are keyed by
+ * their SHA-256 digest, entries are kept for a fixed time and, when the maximum size is reached, an
+ * arbitrary entry is evicted to make room for the new one.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+public class FjwtNegativeTokenCache {
+
+    private static final String DIGEST_ALGORITHM = "SHA-256";
+
+    /**
+     * Reasons that are cached, a token refused for any other reason could be accepted later
+     */
+    private static final Set<FjwtFailureReason> CACHEABLE =
+            EnumSet.of(FjwtFailureReason.EXPIRED, FjwtFailureReason.BAD_SIGNATURE, FjwtFailureReason.MALFORMED);
+
+    private static final ThreadLocal<MessageDigest> DIGEST =
+            ThreadLocal.withInitial(FjwtNegativeTokenCache::newDigest);
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlNanos;
+    private final LongSupplier nanoTime;
+
+    /**
+     * Creates a new cache
+     *
+     * @param maxSize maximum number of cached tokens
+     * @param ttl     seconds a refused token is remembered for
+     */
+    public FjwtNegativeTokenCache(int maxSize, int ttl) {
+        this(maxSize, TimeUnit.SECONDS.toNanos(ttl), System::nanoTime);
+    }
+
+    FjwtNegativeTokenCache(int maxSize, long ttlNanos, LongSupplier nanoTime) {
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlNanos;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * Check if the token was refused recently
+     *
+     * @param token the token
+     * @return the reason why the token was refused, null if it is unknown
+     */
+    public FjwtFailureReason get(String token) {
+        Key key = Key.of(token);
+        Entry entry = entries.get(key);
+        if (Objects.isNull(entry)) {
+            return null;
+        }
+        if (nanoTime.getAsLong() - entry.expiresAt() >= 0) {
+            entries.remove(key, entry);
+            return null;
+        }
+        return entry.reason();
+    }
+
+    /**
+     * Remember a refused token, only if the reason can't change over time
+     *
+     * @param token  the token
+     * @param reason the reason why the token was refused
+     */
+    public void put(String token, FjwtFailureReason reason) {
+        if (!CACHEABLE.contains(reason)) {
+            return;
+        }
+        if (entries.size() >= maxSize) {
+            Iterator<Key> keys = entries.keySet().iterator();
+            if (keys.hasNext()) {
+                keys.next();
+                keys.remove();
+            }
+        }
+        entries.put(Key.of(token), new Entry(reason, nanoTime.getAsLong() + ttlNanos));
+    }
+
+    /**
+     * Get the number of cached tokens, expired entries included until they are looked up or evicted
+     *
+     * @return the number of cached tokens
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private static MessageDigest newDigest() {
+        try {
+            return MessageDigest.getInstance(DIGEST_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(DIGEST_ALGORITHM + " is not available", e);
+        }
+    }
+
+    private record Entry(FjwtFailureReason reason, long expiresAt) {
+    }
+
+    /**
+     * The token digest, held as four longs to get value equality without keeping an array
+     */
+    private record Key(long a, long b, long c, long d) {
+
+        private static Key of(String token) {
+            ByteBuffer digest =
+                    ByteBuffer.wrap(DIGEST.get().digest(token.getBytes(StandardCharsets.ISO_8859_1)));
+            return new Key(digest.getLong(), digest.getLong(), digest.getLong(), digest.getLong());
+        }
+    }
+}
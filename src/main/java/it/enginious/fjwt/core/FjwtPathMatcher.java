@@ -0,0 +1,179 @@
+package it.enginious.fjwt.core;
+
+import jakarta.servlet.http.HttpServletRequest;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Matches a request against a set of ant patterns in a single pass over its path. Patterns made of
+ * literal segments, {@code *} segments and a trailing {@code **} are compiled into a segment trie,
+ * any other pattern is matched through an {@link AntPathRequestMatcher} as usual. The result is
+ * always the same as matching the request against an {@link AntPathRequestMatcher} for each pattern.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+public class FjwtPathMatcher {
+
+    private static final String SEPARATOR = "/";
+    private static final String ANY_SEGMENT = "*";
+    private static final String ANY_SEGMENTS = "**";
+    private static final String MATCH_ALL = "/**";
+
+    private final Node root = new Node();
+    private final List<AntPathRequestMatcher> matchers;
+    private final List<AntPathRequestMatcher> uncompiledMatchers = new ArrayList<>();
+    private final boolean matchAll;
+
+    /**
+     * Compile the given patterns
+     *
+     * @param patterns the ant patterns
+     */
+    public FjwtPathMatcher(String... patterns) {
+        this.matchers = Arrays.stream(patterns).map(AntPathRequestMatcher::new).toList();
+        this.matchAll =
+                Arrays.stream(patterns).anyMatch(p -> MATCH_ALL.equals(p) || ANY_SEGMENTS.equals(p));
+        for (int i = 0; i < patterns.length; i++) {
+            if (!compile(patterns[i])) {
+                log.debug("pattern [{}] can't be compiled, it will be matched as is", patterns[i]);
+                uncompiledMatchers.add(matchers.get(i));
+            }
+        }
+    }
+
+    /**
+     * Check if the request matches any of the patterns
+     *
+     * @param request the request
+     * @return true if the request matches at least one pattern
+     */
+    public boolean matches(HttpServletRequest request) {
+        if (matchAll) {
+            return true;
+        }
+        String path = getRequestPath(request);
+        // empty segments and relative paths are matched differently by the ant matchers
+        if (Objects.isNull(path) || !path.startsWith(SEPARATOR) || path.contains("//")) {
+            return matchers.stream().anyMatch(m -> m.matches(request));
+        }
+        return match(root, path, 1, path.endsWith(SEPARATOR))
+                || uncompiledMatchers.stream().anyMatch(m -> m.matches(request));
+    }
+
+    private boolean compile(String pattern) {
+        if (!pattern.startsWith(SEPARATOR)
+                || pattern.contains("//")
+                || pattern.indexOf('?') != -1
+                || pattern.indexOf('{') != -1
+                || pattern.indexOf('}') != -1) {
+            return false;
+        }
+        String[] segments = StringUtils.tokenizeToStringArray(pattern, SEPARATOR, false, true);
+        for (int i = 0; i < segments.length; i++) {
+            boolean wildcard = segments[i].indexOf('*') != -1;
+            if (wildcard
+                    && !ANY_SEGMENT.equals(segments[i])
+                    && !(ANY_SEGMENTS.equals(segments[i]) && i == segments.length - 1)) {
+                return false;
+            }
+        }
+
+        Node node = root;
+        for (String segment : segments) {
+            if (ANY_SEGMENTS.equals(segment)) {
+                node.anySegments = true;
+                return true;
+            }
+            node = node.child(segment);
+        }
+        if (pattern.endsWith(SEPARATOR)) {
+            node.terminalWithSeparator = true;
+        } else {
+            node.terminal = true;
+        }
+        return true;
+    }
+
+    /**
+     * Match the path from {@code from}, which is the beginning of a segment or the end of the path,
+     * against the patterns below {@code node}
+     */
+    private static boolean match(Node node, String path, int from, boolean trailingSeparator) {
+        if (node.anySegments) {
+            return true;
+        }
+        if (from >= path.length()) {
+            if (trailingSeparator ? node.terminalWithSeparator : node.terminal) {
+                return true;
+            }
+            // "/foo/*" matches "/foo/" too
+            return trailingSeparator
+                    && Objects.nonNull(node.anySegment)
+                    && (node.anySegment.terminal || node.anySegment.terminalWithSeparator);
+        }
+
+        int end = path.indexOf('/', from);
+        if (end == -1) {
+            end = path.length();
+        }
+        int next = end < path.length() ? end + 1 : end;
+        int length = end - from;
+        for (int i = 0; i < node.segments.length; i++) {
+            String segment = node.segments[i];
+            if (segment.length() == length
+                    && path.regionMatches(from, segment, 0, length)
+                    && match(node.children[i], path, next, trailingSeparator)) {
+                return true;
+            }
+        }
+        return Objects.nonNull(node.anySegment)
+                && match(node.anySegment, path, next, trailingSeparator);
+    }
+
+    private static String getRequestPath(HttpServletRequest request) {
+        String url = request.getServletPath();
+        String pathInfo = request.getPathInfo();
+        if (Objects.nonNull(pathInfo)) {
+            url = StringUtils.hasLength(url) ? url + pathInfo : pathInfo;
+        }
+        return url;
+    }
+
+    private static class Node {
+
+        private String[] segments = new String[0];
+        private Node[] children = new Node[0];
+        private Node anySegment;
+        private boolean anySegments;
+        private boolean terminal;
+        private boolean terminalWithSeparator;
+
+        private Node child(String segment) {
+            if (ANY_SEGMENT.equals(segment)) {
+                if (Objects.isNull(anySegment)) {
+                    anySegment = new Node();
+                }
+                return anySegment;
+            }
+            for (int i = 0; i < segments.length; i++) {
+                if (segments[i].equals(segment)) {
+                    return children[i];
+                }
+            }
+            Node child = new Node();
+            segments = Arrays.copyOf(segments, segments.length + 1);
+            children = Arrays.copyOf(children, children.length + 1);
+            segments[segments.length - 1] = segment;
+            children[children.length - 1] = child;
+            return child;
+        }
+    }
+}
@@ -0,0 +1,155 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.Claims;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Date;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Shares the user rebuilt from a token between all the requests carrying the same token, so that a
+ * client sending its token again gets the same principal instead of a new builder and a new user on
+ * every request. Users are keyed by the subject and the issue time of the token and by the hash of all
+ * its claims, and the claims are compared on every hit, so two tokens share a user only when they carry
+ * the same claims.
+ *
+ * <p>The cache is bounded by an estimate of the heap its entries take: when the estimate exceeds the
+ * maximum, arbitrary entries are evicted. Cached users are handed to concurrent requests, so they must
+ * be immutable as {@link FjwtUserDetails} is. The claims have already been verified when the cache is
+ * looked up, entries of expired tokens are just never used again until they are evicted.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+public class FjwtPrincipalCache {
+
+    /**
+     * Estimated bytes of an entry besides the username, the authorities and the claims: the map node,
+     * the key, the entry and the user
+     */
+    static final int ENTRY_BYTES = 160;
+
+    /**
+     * Estimated bytes of each claim kept to be compared, with its key and value
+     */
+    static final int CLAIM_BYTES = 96;
+
+    /**
+     * Estimated bytes of each authority of a user, authorities are expected to be pooled
+     */
+    static final int AUTHORITY_BYTES = 16;
+
+    private final Map<Key, Entry> entries = new ConcurrentHashMap<>();
+    private final AtomicLong bytes = new AtomicLong();
+    private final long maxBytes;
+
+    /**
+     * Creates a new cache
+     *
+     * @param maxBytes estimated maximum number of heap bytes taken by the cached users
+     */
+    public FjwtPrincipalCache(long maxBytes) {
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Get the user of the claims, building and caching it if missing
+     *
+     * @param claims  the verified claims
+     * @param builder builds the user from the claims
+     * @return the user, shared with the other requests carrying the same claims
+     */
+    public UserDetails get(Claims claims, Function<Claims, UserDetails> builder) {
+        Key key = Key.of(claims);
+        Entry entry = entries.get(key);
+        if (Objects.nonNull(entry) && entry.claims().equals(claims)) {
+            return entry.user();
+        }
+        UserDetails user = builder.apply(claims);
+        put(key, new Entry(claims, user, estimateBytes(claims, user)));
+        return user;
+    }
+
+    /**
+     * Forget all the users, they are built again on the next request
+     */
+    public void invalidateAll() {
+        entries.forEach(this::remove);
+    }
+
+    /**
+     * Get the number of cached users
+     *
+     * @return the number of cached users
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    /**
+     * Get the estimated number of heap bytes taken by the cached users
+     *
+     * @return the estimated bytes
+     */
+    public long bytes() {
+        return bytes.get();
+    }
+
+    static long estimateBytes(Claims claims, UserDetails user) {
+        String username = user.getUsername();
+        int authorities = Objects.isNull(user.getAuthorities()) ? 0 : user.getAuthorities().size();
+        return ENTRY_BYTES
+                + (long) CLAIM_BYTES * claims.size()
+                + 2L * (Objects.isNull(username) ? 0 : username.length())
+                + (long) AUTHORITY_BYTES * authorities;
+    }
+
+    private void put(Key key, Entry entry) {
+        if (entry.bytes() > maxBytes) {
+            log.debug("user [{}] is too large to be cached", entry.user().getUsername());
+            return;
+        }
+        // a colliding entry is replaced, the last claims seen are the most likely to be sent again
+        Entry previous = entries.put(key, entry);
+        bytes.addAndGet(entry.bytes() - (Objects.isNull(previous) ? 0 : previous.bytes()));
+        Iterator<Map.Entry<Key, Entry>> iterator = entries.entrySet().iterator();
+        while (bytes.get() > maxBytes && iterator.hasNext()) {
+            Map.Entry<Key, Entry> evicted = iterator.next();
+            remove(evicted.getKey(), evicted.getValue());
+        }
+    }
+
+    private void remove(Key key, Entry entry) {
+        if (entries.remove(key, entry)) {
+            bytes.addAndGet(-entry.bytes());
+        }
+    }
+
+    /**
+     * A cached user with the claims it was built from, compared on every hit since different claims can
+     * have the same hash
+     */
+    private record Entry(Claims claims, UserDetails user, long bytes) {
+    }
+
+    /**
+     * The subject, the issue time and the hash of all the claims
+     */
+    private record Key(String subject, long issuedAt, int hash) {
+
+        private static Key of(Claims claims) {
+            Date issuedAt = claims.getIssuedAt();
+            return new Key(
+                    claims.getSubject(),
+                    Objects.isNull(issuedAt) ? Long.MIN_VALUE : issuedAt.getTime(),
+                    claims.hashCode());
+        }
+    }
+}
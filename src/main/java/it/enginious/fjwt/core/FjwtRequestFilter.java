@@ -1,7 +1,12 @@
 package it.enginious.fjwt.core;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.JwtException;
+import it.enginious.fjwt.core.exceptions.FjwtInvalidTokenException;
 import it.enginious.fjwt.core.exceptions.FjwtTokenInvalidatorException;
+import it.enginious.fjwt.core.jfr.FjwtEvent;
+import it.enginious.fjwt.core.jfr.FjwtRequestAuthenticationEvent;
+import it.enginious.fjwt.core.metrics.FjwtMetrics;
 import jakarta.annotation.PostConstruct;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
@@ -9,21 +14,17 @@ import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.commons.lang3.StringUtils;
-import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
-import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
-import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
 import org.springframework.stereotype.Component;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
-import java.util.Arrays;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Objects;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
+import java.util.function.Function;
 
 /**
  * Check if a token is supplied in request and its validity. If a valid token is found the
@@ -34,27 +35,64 @@ import java.util.regex.Pattern;
  */
 @Slf4j
 @Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequiredArgsConstructor
 public class FjwtRequestFilter extends OncePerRequestFilter {
 
-    private static final String AUTHORIZATION_HEADER = "Authorization";
-    private static final Pattern TOKEN_PATTERN = Pattern.compile("^Bearer (.+)$");
-    private static final int TOKEN_GROUP = 1;
+    /**
+     * Request attribute holding the verified {@link Claims} of an authenticated request, see {@link
+     * FjwtClaims}
+     */
+    public static final String CLAIMS_ATTRIBUTE = FjwtRequestFilter.class.getName() + ".CLAIMS";
+
+    private static final String NO_TOKEN = "no_token";
 
     private final FjwtTokenUtil fjwtTokenUtil;
     private final FjwtTokenInvalidator fjwtTokenInvalidator;
     private final FjwtConfig fjwtConfig;
-    private List<AntPathRequestMatcher> unsecuredEndpointsMatchers;
+    private final FjwtMetrics metrics;
+    private final FjwtFailureReporter failureReporter;
+    private FjwtPathMatcher unsecuredEndpointsMatcher;
+    private FjwtPathMatcher ignoredEndpointsMatcher;
+    private FjwtBearerTokenExtractor bearerTokenExtractor;
+    private FjwtNegativeTokenCache negativeTokenCache;
+    private List<Stage> stages;
 
     /**
      * initialize this bean, see {@link PostConstruct}
      */
     @PostConstruct
     public void init() {
-        unsecuredEndpointsMatchers =
-                Arrays.stream(fjwtConfig.getAllUnsecuredEndpoints())
-                        .map(AntPathRequestMatcher::new)
-                        .toList();
+        unsecuredEndpointsMatcher = new FjwtPathMatcher(fjwtConfig.getAllUnsecuredEndpoints());
+        ignoredEndpointsMatcher = new FjwtPathMatcher(fjwtConfig.getIgnored().toArray(String[]::new));
+        bearerTokenExtractor = new FjwtBearerTokenExtractor(fjwtConfig.getToken().getMaxLength());
+        int negativeCacheSize = fjwtConfig.getToken().getNegativeCacheSize();
+        negativeTokenCache =
+                negativeCacheSize > 0
+                        ? new FjwtNegativeTokenCache(negativeCacheSize, fjwtConfig.getToken().getNegativeCacheTtl())
+                        : null;
+        // cheapest checks first, each stage can stop the processing
+        List<Stage> pipeline = new ArrayList<>();
+        pipeline.add(new Stage(FjwtMetrics.STAGE_CONTEXT, this::checkContext));
+        pipeline.add(new Stage(FjwtMetrics.STAGE_EXTRACTION, this::extractToken));
+        if (Objects.nonNull(negativeTokenCache)) {
+            pipeline.add(new Stage(FjwtMetrics.STAGE_NEGATIVE_CACHE, this::checkNegativeCache));
+        }
+        pipeline.add(new Stage(FjwtMetrics.STAGE_EXPIRATION, this::checkExpiration));
+        pipeline.add(new Stage(FjwtMetrics.STAGE_VERIFICATION, this::verifyToken));
+        pipeline.add(new Stage(FjwtMetrics.STAGE_USER, this::buildUser));
+        pipeline.add(new Stage(FjwtMetrics.STAGE_REVOCATION, this::checkRevocation));
+        pipeline.add(new Stage(FjwtMetrics.STAGE_AUTHENTICATION, this::authenticate));
+        stages = List.copyOf(pipeline);
+    }
+
+    /**
+     * This filter is registered in the servlet container too, so paths ignored by the security filter
+     * chain must be skipped here as well
+     */
+    @Override
+    protected boolean shouldNotFilter(HttpServletRequest request) {
+        return ignoredEndpointsMatcher.matches(request);
     }
 
     @Override
@@ -62,7 +100,7 @@ public class FjwtRequestFilter extends OncePerRequestFilter {
             HttpServletRequest request, HttpServletResponse response, FilterChain chain)
             throws ServletException, IOException {
 
-        if (unsecuredEndpointsMatchers.stream().anyMatch(rm -> rm.matches(request))) {
+        if (unsecuredEndpointsMatcher.matches(request)) {
             log.debug(
                     "request is for [{}] which is an unsecured endpoint, bypassing chain",
                     request.getPathInfo());
@@ -75,55 +113,176 @@ public class FjwtRequestFilter extends OncePerRequestFilter {
     }
 
     private void handleRequest(HttpServletRequest request) {
-        log.debug("retrieving token from request using header [{}]", AUTHORIZATION_HEADER);
-        String requestTokenHeader = request.getHeader(AUTHORIZATION_HEADER);
-        Matcher matcher =
-                TOKEN_PATTERN.matcher(StringUtils.defaultIfBlank(requestTokenHeader, StringUtils.EMPTY));
-
-        if (matcher.matches()) {
-            log.debug("token matched with pattern [{}]", TOKEN_PATTERN.pattern());
-            UserDetails userDetails = null;
-            String jwtToken = StringUtils.trim(matcher.group(TOKEN_GROUP));
-
+        Exchange exchange = new Exchange(request, new FjwtRequestAuthenticationEvent());
+        exchange.event.begin();
+        String outcome = null;
+        for (Stage stage : stages) {
+            long start = System.nanoTime();
             try {
-                userDetails = fjwtTokenUtil.getUserFromToken(jwtToken);
-            } catch (JwtException | IllegalArgumentException e) {
-                logger.warn("exception occurred while parsing token: ", e);
+                outcome = stage.processor().apply(exchange);
+            } finally {
+                metrics.recordFilterStage(stage.name(), System.nanoTime() - start);
             }
-
-            if (Objects.nonNull(userDetails)
-                    && Objects.isNull(SecurityContextHolder.getContext().getAuthentication())) {
-
-                if (!wasTokenInvalidated(userDetails, jwtToken)) {
-                    log.debug("building authentication for user [{}]", userDetails.getUsername());
-                    UsernamePasswordAuthenticationToken authentication =
-                            new UsernamePasswordAuthenticationToken(
-                                    userDetails, null, userDetails.getAuthorities());
-                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
-                    log.debug(
-                            "adding authentication for user [{}] to security context", userDetails.getUsername());
-                    SecurityContextHolder.getContext().setAuthentication(authentication);
-                } else {
-                    log.debug("token was invalidated for user [{}]", userDetails.getUsername());
-                }
+            if (Objects.nonNull(outcome)) {
+                log.debug("stopping at stage [{}] with outcome [{}]", stage.name(), outcome);
+                break;
             }
-        } else {
-            log.debug("token did not match with pattern [{}]", TOKEN_PATTERN.pattern());
         }
+        exchange.event.end();
+        if (Objects.nonNull(exchange.token) && exchange.event.shouldCommit()) {
+            exchange.event.setAlgorithm(fjwtTokenUtil.getAlgorithm());
+            exchange.event.setTokenSize(exchange.token.length());
+            exchange.event.setOutcome(outcome);
+            exchange.event.commit();
+        }
+    }
+
+    private String checkContext(Exchange exchange) {
+        if (Objects.nonNull(SecurityContextHolder.getContext().getAuthentication())) {
+            log.debug("request is already authenticated");
+            return FjwtEvent.SKIPPED;
+        }
+        return null;
+    }
+
+    private String extractToken(Exchange exchange) {
+        log.debug(
+                "retrieving token from request using header [{}]",
+                FjwtBearerTokenExtractor.AUTHORIZATION_HEADER);
+        long start = System.nanoTime();
+        try {
+            exchange.token =
+                    bearerTokenExtractor.extract(
+                            exchange.request.getHeader(FjwtBearerTokenExtractor.AUTHORIZATION_HEADER));
+        } catch (FjwtInvalidTokenException e) {
+            return refuse(exchange, e);
+        } finally {
+            metrics.recordTokenExtraction(System.nanoTime() - start);
+        }
+        if (Objects.isNull(exchange.token)) {
+            log.debug("token not found with prefix [{}]", FjwtBearerTokenExtractor.BEARER_PREFIX);
+            return NO_TOKEN;
+        }
+        log.debug("token found with prefix [{}]", FjwtBearerTokenExtractor.BEARER_PREFIX);
+        metrics.recordTokenSize(FjwtMetrics.RECEIVED, exchange.token.length());
+        return null;
+    }
+
+    private String checkNegativeCache(Exchange exchange) {
+        FjwtFailureReason reason = negativeTokenCache.get(exchange.token);
+        if (Objects.isNull(reason)) {
+            return null;
+        }
+        log.debug("token was recently refused with reason [{}]", reason.getValue());
+        metrics.recordFailure(reason);
+        failureReporter.report(reason, exchange.request.getRemoteAddr(), null);
+        return reason.getValue();
+    }
+
+    private String checkExpiration(Exchange exchange) {
+        try {
+            fjwtTokenUtil.checkExpiration(exchange.token);
+            return null;
+        } catch (FjwtInvalidTokenException e) {
+            return refuse(exchange, e);
+        }
+    }
+
+    private String verifyToken(Exchange exchange) {
+        try {
+            exchange.claims = fjwtTokenUtil.getClaimsFromToken(exchange.token);
+            return null;
+        } catch (JwtException | IllegalArgumentException e) {
+            return refuse(exchange, e);
+        }
+    }
+
+    private String buildUser(Exchange exchange) {
+        // the user and the details are built only when they are accessed
+        exchange.authentication =
+                new FjwtAuthentication(exchange.claims, fjwtTokenUtil::getUserFromClaims, exchange.request);
+        return null;
+    }
+
+    private String checkRevocation(Exchange exchange) {
+        if (fjwtTokenInvalidator instanceof NoopTokenInvalidator) {
+            return null;
+        }
+        UserDetails userDetails = exchange.authentication.getPrincipal();
+        if (Objects.isNull(userDetails)) {
+            return refuse(exchange, new FjwtInvalidTokenException(FjwtFailureReason.INVALID, "user can't be built"));
+        }
+        FjwtFailureReason invalidation =
+                checkTokenInvalidation(userDetails, exchange.token, exchange.event);
+        return Objects.nonNull(invalidation) ? invalidation.getValue() : null;
+    }
+
+    private String authenticate(Exchange exchange) {
+        log.debug("adding authentication for user [{}] to security context", exchange.authentication.getName());
+        SecurityContextHolder.getContext().setAuthentication(exchange.authentication);
+        exchange.request.setAttribute(CLAIMS_ATTRIBUTE, exchange.claims);
+        return FjwtEvent.SUCCESS;
+    }
+
+    private String refuse(Exchange exchange, Exception e) {
+        FjwtFailureReason reason = FjwtFailureReason.of(e);
+        if (Objects.nonNull(negativeTokenCache) && Objects.nonNull(exchange.token)) {
+            negativeTokenCache.put(exchange.token, reason);
+        }
+        metrics.recordFailure(reason);
+        failureReporter.report(reason, exchange.request.getRemoteAddr(), e);
+        return reason.getValue();
     }
 
-    private boolean wasTokenInvalidated(UserDetails userDetails, String jwtToken) {
+    private FjwtFailureReason checkTokenInvalidation(
+            UserDetails userDetails, String jwtToken, FjwtRequestAuthenticationEvent event) {
 
+        long start = System.nanoTime();
         try {
-            return !(fjwtTokenInvalidator instanceof NoopTokenInvalidator)
-                    && fjwtTokenInvalidator.wasInvalidated(userDetails, jwtToken);
+            if (fjwtTokenInvalidator.wasInvalidated(userDetails, jwtToken)) {
+                metrics.recordFailure(FjwtFailureReason.REVOKED);
+                log.debug("token was invalidated for user [{}]", userDetails.getUsername());
+                return FjwtFailureReason.REVOKED;
+            }
+            return null;
         } catch (FjwtTokenInvalidatorException e) {
+            metrics.recordFailure(FjwtFailureReason.INVALIDATOR_ERROR);
             log.error(
                     String.format(
                             "error while checking if token was invalidated for user [%s]:",
                             userDetails.getUsername()),
                     e);
-            return Boolean.TRUE;
+            return FjwtFailureReason.INVALIDATOR_ERROR;
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            metrics.recordInvalidator(FjwtMetrics.WAS_INVALIDATED, elapsed);
+            event.setInvalidatorLatency(elapsed);
+        }
+    }
+
+    /**
+     * A stage of the request processing
+     *
+     * @param name      the stage name, used for metrics
+     * @param processor returns the outcome when the processing must stop, null to go on
+     */
+    private record Stage(String name, Function<Exchange, String> processor) {
+    }
+
+    /**
+     * State shared by the stages while processing a request
+     */
+    private static final class Exchange {
+
+        private final HttpServletRequest request;
+        private final FjwtRequestAuthenticationEvent event;
+        private String token;
+        private Claims claims;
+        private FjwtAuthentication authentication;
+
+        private Exchange(HttpServletRequest request, FjwtRequestAuthenticationEvent event) {
+            this.request = request;
+            this.event = event;
         }
     }
 }
@@ -0,0 +1,129 @@
+package it.enginious.fjwt.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.access.hierarchicalroles.RoleHierarchy;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * A hierarchy of authorities, each one implying the authorities configured below it and, in turn, the
+ * ones they imply. Issued tokens carry only the top-level authorities of a user, the ones not implied
+ * by another authority the user holds, and the implied ones are added back when a token is verified.
+ *
+ * <p>Expanded authorities are cached as {@link FjwtAuthoritySet}, which are immutable and shared by all
+ * the users holding the same combination of authorities. Once the maximum cache size is reached, new
+ * combinations are expanded on every request.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+public class FjwtRoleHierarchy implements RoleHierarchy {
+
+    private final Map<String, Set<String>> reachable = new HashMap<>();
+    private final FjwtGrantedAuthorityPool pool;
+    private final Map<List<String>, FjwtAuthoritySet> expanded = new ConcurrentHashMap<>();
+    private final int cacheSize;
+
+    /**
+     * Creates a new hierarchy
+     *
+     * @param hierarchy the authorities directly implied by each authority
+     * @param pool      the pool the expanded authorities are taken from
+     * @param cacheSize maximum number of cached expanded combinations
+     */
+    public FjwtRoleHierarchy(Map<String, List<String>> hierarchy, FjwtGrantedAuthorityPool pool, int cacheSize) {
+        hierarchy.keySet().forEach(authority -> reach(authority, hierarchy, new LinkedHashSet<>()));
+        this.pool = pool;
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Remove the authorities implied by other authorities of the collection
+     *
+     * @param authorities the authority values
+     * @return the top-level authority values, in the same order
+     */
+    public List<String> compress(Collection<String> authorities) {
+        Set<String> implied = new HashSet<>();
+        for (String authority : authorities) {
+            implied.addAll(reachable.getOrDefault(authority, Collections.emptySet()));
+        }
+        List<String> compressed = new ArrayList<>();
+        for (String authority : authorities) {
+            if (!implied.contains(authority) && !compressed.contains(authority)) {
+                compressed.add(authority);
+            }
+        }
+        return compressed;
+    }
+
+    /**
+     * Add the implied authorities to the collection
+     *
+     * @param authorities the authority values
+     * @return the authorities and the ones they imply
+     */
+    public FjwtAuthoritySet expand(Collection<String> authorities) {
+        List<String> key = authorities.stream().distinct().sorted().toList();
+        FjwtAuthoritySet authoritySet = expanded.get(key);
+        if (Objects.nonNull(authoritySet)) {
+            return authoritySet;
+        }
+        Set<String> values = new LinkedHashSet<>(key);
+        for (String authority : key) {
+            values.addAll(reachable.getOrDefault(authority, Collections.emptySet()));
+        }
+        authoritySet = FjwtAuthoritySet.of(values, pool);
+        if (expanded.size() < cacheSize) {
+            expanded.putIfAbsent(key, authoritySet);
+        }
+        return authoritySet;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Collection<? extends GrantedAuthority> getReachableGrantedAuthorities(
+            Collection<? extends GrantedAuthority> authorities) {
+        if (Objects.isNull(authorities) || authorities.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return expand(authorities.stream().map(GrantedAuthority::getAuthority).toList());
+    }
+
+    /**
+     * Compute the authorities reachable from the given one
+     */
+    private Set<String> reach(String authority, Map<String, List<String>> hierarchy, Set<String> path) {
+        Set<String> authorities = reachable.get(authority);
+        if (Objects.nonNull(authorities)) {
+            return authorities;
+        }
+        if (!path.add(authority)) {
+            throw new IllegalStateException(
+                    String.format("authority hierarchy contains a cycle %s -> [%s]", path, authority));
+        }
+        authorities = new LinkedHashSet<>();
+        for (String implied : hierarchy.getOrDefault(authority, Collections.emptyList())) {
+            authorities.add(implied);
+            authorities.addAll(reach(implied, hierarchy, path));
+        }
+        path.remove(authority);
+        log.debug("authority [{}] implies [{}]", authority, authorities);
+        reachable.put(authority, authorities);
+        return authorities;
+    }
+}
@@ -0,0 +1,56 @@
+package it.enginious.fjwt.core;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Binds a new scope of the {@link FjwtScopedValueSecurityContextHolderStrategy} for the rest of the
+ * security filter chain, so that the {@link org.springframework.security.core.context.SecurityContext}
+ * of the request lives in a {@code ScopedValue}. It must be the first filter of the chain.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@RequiredArgsConstructor
+public class FjwtScopedSecurityContextFilter extends OncePerRequestFilter {
+
+    private final FjwtScopedValueSecurityContextHolderStrategy strategy;
+
+    @Override
+    protected void doFilterInternal(
+            HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+
+        try {
+            strategy.runInNewScope(
+                    () -> {
+                        try {
+                            chain.doFilter(request, response);
+                        } catch (IOException | ServletException e) {
+                            throw new ChainException(e);
+                        }
+                    });
+        } catch (ChainException e) {
+            if (e.getCause() instanceof IOException ioe) {
+                throw ioe;
+            }
+            throw (ServletException) e.getCause();
+        }
+    }
+
+    /**
+     * Carries the checked exceptions of the chain out of the scope
+     */
+    private static final class ChainException extends RuntimeException {
+
+        private ChainException(Exception cause) {
+            super(cause);
+        }
+    }
+}
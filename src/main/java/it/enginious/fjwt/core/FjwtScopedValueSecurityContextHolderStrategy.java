@@ -0,0 +1,276 @@
+package it.enginious.fjwt.core;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+/**
+ * A {@link SecurityContextHolderStrategy} that keeps the {@link SecurityContext} in a {@code
+ * java.lang.ScopedValue} bound for the duration of a request by {@link
+ * FjwtScopedSecurityContextFilter}, instead of a {@link ThreadLocal}. Virtual threads don't pay for a
+ * thread local map entry and subtasks forked by a {@code StructuredTaskScope} see the context of the
+ * request that forked them.
+ *
+ * <p>A subtask reads the context of the request until it writes its own: setting or clearing the
+ * context in a subtask only affects that subtask, the context of the request is only written by the
+ * thread that bound the scope. Like with any other strategy, a subtask that changes the authentication
+ * of the context it reads instead of setting a new context changes the one of the request.
+ *
+ * <p>{@code ScopedValue} is a preview API from Java 21 to 24 and a final one from Java 25, so it is
+ * bound at runtime: see {@link #isSupported()}. Outside a bound scope, or when it is not supported,
+ * every call is delegated to the fallback strategy. As a bean, the strategy is installed in the {@link
+ * SecurityContextHolder} once all the singletons are created, when it is supported, and the previous
+ * strategy is restored when the context is closed.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+public class FjwtScopedValueSecurityContextHolderStrategy
+        implements SecurityContextHolderStrategy, SmartInitializingSingleton, DisposableBean {
+
+    private static final MethodHandle WHERE;
+    private static final MethodHandle RUN;
+    private static final MethodHandle IS_BOUND;
+    private static final MethodHandle GET;
+    private static final Object SCOPE;
+
+    static {
+        MethodHandle where = null;
+        MethodHandle run = null;
+        MethodHandle isBound = null;
+        MethodHandle get = null;
+        Object scope = null;
+        try {
+            Class<?> scopedValue = Class.forName("java.lang.ScopedValue");
+            Class<?> carrier = Class.forName("java.lang.ScopedValue$Carrier");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            where =
+                    lookup.findStatic(
+                            scopedValue, "where", MethodType.methodType(carrier, scopedValue, Object.class));
+            run = lookup.findVirtual(carrier, "run", MethodType.methodType(void.class, Runnable.class));
+            isBound = lookup.findVirtual(scopedValue, "isBound", MethodType.methodType(boolean.class));
+            get = lookup.findVirtual(scopedValue, "get", MethodType.methodType(Object.class));
+            // fails when preview features are not enabled on Java 21 to 24
+            scope = lookup.findStatic(scopedValue, "newInstance", MethodType.methodType(scopedValue)).invoke();
+        } catch (Throwable e) {
+            log.debug("ScopedValue is not available on Java [{}]: {}", Runtime.version(), e.toString());
+            scope = null;
+        }
+        SCOPE = scope;
+        WHERE = where;
+        RUN = run;
+        IS_BOUND = isBound;
+        GET = get;
+    }
+
+    private final SecurityContextHolderStrategy fallback;
+    private SecurityContextHolderStrategy installedOver;
+
+    /**
+     * Creates a new strategy
+     *
+     * @param fallback the strategy used outside a bound scope
+     */
+    public FjwtScopedValueSecurityContextHolderStrategy(SecurityContextHolderStrategy fallback) {
+        this.fallback = fallback;
+    }
+
+    /**
+     * Check if {@code ScopedValue} can be used on the running JVM
+     *
+     * @return true on Java 25 or later, or on Java 21 to 24 with preview features enabled
+     */
+    public static boolean isSupported() {
+        return Objects.nonNull(SCOPE);
+    }
+
+    /**
+     * Run the action in a new scope with an empty context, the action is just run when {@code
+     * ScopedValue} is not supported
+     *
+     * @param action the action
+     */
+    public void runInNewScope(Runnable action) {
+        if (!isSupported()) {
+            action.run();
+            return;
+        }
+        try {
+            RUN.invoke(WHERE.invoke(SCOPE, new Scope(Thread.currentThread())), action);
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Install this strategy in the {@link SecurityContextHolder} when {@code ScopedValue} is supported
+     */
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (!isSupported()) {
+            log.warn(
+                    "ScopedValue is not available on Java [{}] (it needs --enable-preview up to Java 24): the security context will be kept in a ThreadLocal",
+                    Runtime.version());
+            return;
+        }
+        installedOver = SecurityContextHolder.getContextHolderStrategy();
+        log.debug("installing [{}] in place of [{}]", getClass().getName(), installedOver.getClass().getName());
+        SecurityContextHolder.setContextHolderStrategy(this);
+    }
+
+    /**
+     * Restore the strategy this one was installed over, unless another one has been installed since
+     */
+    @Override
+    public void destroy() {
+        if (Objects.nonNull(installedOver) && SecurityContextHolder.getContextHolderStrategy() == this) {
+            log.debug("restoring [{}]", installedOver.getClass().getName());
+            SecurityContextHolder.setContextHolderStrategy(installedOver);
+        }
+        installedOver = null;
+    }
+
+    @Override
+    public void clearContext() {
+        Scope scope = currentScope();
+        if (Objects.isNull(scope)) {
+            fallback.clearContext();
+            return;
+        }
+        Scope own = scope.own(true);
+        own.context = null;
+        own.deferred = null;
+    }
+
+    @Override
+    public SecurityContext getContext() {
+        Scope scope = currentScope();
+        if (Objects.isNull(scope)) {
+            return fallback.getContext();
+        }
+        Scope own = scope.own(false);
+        // a subtask that never wrote reads the context of the request without storing anything in it
+        return Objects.nonNull(own) ? own.resolve(true) : scope.resolve(false);
+    }
+
+    @Override
+    public Supplier<SecurityContext> getDeferredContext() {
+        return Objects.isNull(currentScope()) ? fallback.getDeferredContext() : this::getContext;
+    }
+
+    @Override
+    public void setContext(SecurityContext context) {
+        Objects.requireNonNull(context, "only non-null SecurityContext instances are permitted");
+        Scope scope = currentScope();
+        if (Objects.isNull(scope)) {
+            fallback.setContext(context);
+            return;
+        }
+        Scope own = scope.own(true);
+        own.context = context;
+        own.deferred = null;
+    }
+
+    @Override
+    public void setDeferredContext(Supplier<SecurityContext> deferredContext) {
+        Objects.requireNonNull(deferredContext, "only non-null Supplier instances are permitted");
+        Scope scope = currentScope();
+        if (Objects.isNull(scope)) {
+            fallback.setDeferredContext(deferredContext);
+            return;
+        }
+        Scope own = scope.own(true);
+        own.context = null;
+        own.deferred = deferredContext;
+    }
+
+    @Override
+    public SecurityContext createEmptyContext() {
+        return new SecurityContextImpl();
+    }
+
+    private static Scope currentScope() {
+        if (!isSupported()) {
+            return null;
+        }
+        try {
+            return (boolean) IS_BOUND.invoke(SCOPE) ? (Scope) GET.invoke(SCOPE) : null;
+        } catch (RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The value bound for a request, it is mutable since a scoped value can't be rebound while the
+     * security filters replace the context. Only the thread that bound it writes it, the subtasks that
+     * inherit it write their own copy, which lives as long as the request scope
+     */
+    private static final class Scope {
+
+        private final Thread owner;
+        private volatile SecurityContext context;
+        private volatile Supplier<SecurityContext> deferred;
+        private volatile Map<Thread, Scope> forks;
+
+        private Scope(Thread owner) {
+            this.owner = owner;
+        }
+
+        /**
+         * Get the scope the current thread writes, the one of the request for the thread that bound it
+         * and a copy for a subtask, created on first write
+         */
+        private Scope own(boolean create) {
+            Thread thread = Thread.currentThread();
+            if (thread == owner) {
+                return this;
+            }
+            Map<Thread, Scope> threadForks = forks;
+            if (Objects.isNull(threadForks)) {
+                if (!create) {
+                    return null;
+                }
+                synchronized (this) {
+                    if (Objects.isNull(forks)) {
+                        forks = new ConcurrentHashMap<>();
+                    }
+                    threadForks = forks;
+                }
+            }
+            return create ? threadForks.computeIfAbsent(thread, Scope::new) : threadForks.get(thread);
+        }
+
+        private SecurityContext resolve(boolean store) {
+            SecurityContext resolved = context;
+            if (Objects.isNull(resolved)) {
+                Supplier<SecurityContext> supplier = deferred;
+                resolved = Objects.nonNull(supplier) ? supplier.get() : null;
+                if (Objects.isNull(resolved)) {
+                    resolved = new SecurityContextImpl();
+                }
+                if (store) {
+                    context = resolved;
+                    deferred = null;
+                }
+            }
+            return resolved;
+        }
+    }
+}
@@ -2,6 +2,8 @@ package it.enginious.fjwt.core;
 
 import it.enginious.fjwt.core.extractors.FjwtAuthoritiesExtractor;
 import it.enginious.fjwt.core.extractors.FjwtUserDetailsFlagsExtractor;
+import it.enginious.fjwt.core.metrics.FjwtMetrics;
+import it.enginious.fjwt.core.metrics.NoopFjwtMetrics;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.StringUtils;
 import org.springframework.beans.factory.annotation.Value;
@@ -9,14 +11,18 @@ import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.Clock;
+import java.time.Duration;
 import java.time.ZoneId;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
@@ -74,39 +80,69 @@ public class FjwtSecurityConfig {
      * register the default {@link FjwtClaimsExtractorChain}
      *
      * @param extractors all registered beans of type {@link FjwtClaimsExtractor}
+     * @param fjwtConfig the configuration
      * @return the default claim extractor bean
      */
     @Bean
     @ConditionalOnMissingBean(FjwtClaimsExtractorChain.class)
     public FjwtClaimsExtractorChain claimsExtractorChain(
-            Optional<List<FjwtClaimsExtractor>> extractors) {
+            Optional<List<FjwtClaimsExtractor>> extractors, FjwtConfig fjwtConfig) {
 
         log.debug(
                 DEFAULT_BEAN_REGISTRATION_PATTERN,
                 FjwtClaimsExtractorChain.class.getName(),
                 FjwtClaimsExtractorChain.class.getName());
-        return new FjwtClaimsExtractorChain(extractors.orElse(new ArrayList<>()));
+        return new FjwtClaimsExtractorChain(
+                extractors.orElse(new ArrayList<>()),
+                Duration.ofMillis(fjwtConfig.getExtractors().getTimeout()));
     }
 
     /**
-     * register the default {@link FjwtUserDetailsBuilderFactory}
+     * register the default {@link FjwtUserDetailsBuilderFactory}, sharing the users through a {@link
+     * FjwtPrincipalCache} if enabled
      *
+     * @param fjwtConfig the configuration
      * @return the default user details builder factory bean
      */
     @Bean
     @ConditionalOnMissingBean(FjwtUserDetailsBuilderFactory.class)
-    public FjwtUserDetailsBuilderFactory userDetailsBuilderFactory() {
+    public FjwtUserDetailsBuilderFactory userDetailsBuilderFactory(FjwtConfig fjwtConfig) {
 
         log.debug(
                 DEFAULT_BEAN_REGISTRATION_PATTERN,
                 FjwtSimpleUserDetailsBuilder.class.getName(),
                 FjwtUserDetailsBuilderFactory.class.getName());
-        return FjwtSimpleUserDetailsBuilder::new;
+        FjwtUserDetailsBuilderFactory factory = FjwtSimpleUserDetailsBuilder::new;
+        long principalCacheBytes = fjwtConfig.getToken().getPrincipalCacheBytes();
+        if (principalCacheBytes > 0) {
+            log.debug("users are shared through a principal cache of [{}] bytes", principalCacheBytes);
+            return FjwtUserDetailsBuilderFactory.cached(factory, new FjwtPrincipalCache(principalCacheBytes));
+        }
+        return factory;
+    }
+
+    /**
+     * register the default {@link FjwtGrantedAuthorityPool}
+     *
+     * @param fjwtConfig the configuration
+     * @return the default granted authority pool bean
+     */
+    @Bean
+    @ConditionalOnMissingBean(FjwtGrantedAuthorityPool.class)
+    public FjwtGrantedAuthorityPool grantedAuthorityPool(FjwtConfig fjwtConfig) {
+
+        log.debug(
+                DEFAULT_BEAN_REGISTRATION_PATTERN,
+                FjwtGrantedAuthorityPool.class.getName(),
+                FjwtGrantedAuthorityPool.class.getName());
+        return new FjwtGrantedAuthorityPool(fjwtConfig.getAuthorities().getPoolSize());
     }
 
     /**
      * register a {@link FjwtAuthoritiesExtractor} bean
      *
+     * @param authorityPool the granted authority pool
+     * @param fjwtConfig    the configuration
      * @return a {@link FjwtAuthoritiesExtractor} bean
      */
     @Bean
@@ -115,18 +151,41 @@ public class FjwtSecurityConfig {
             name = "enableDefaultExtractors",
             havingValue = "true",
             matchIfMissing = true)
-    public FjwtAuthoritiesExtractor authoritiesExtractor() {
+    public FjwtAuthoritiesExtractor authoritiesExtractor(
+            FjwtGrantedAuthorityPool authorityPool, FjwtConfig fjwtConfig) {
 
         log.debug(
                 DEFAULT_EXTRACTORS_BEAN_REGISTRATION_PATTERN,
                 FjwtAuthoritiesExtractor.class.getName(),
                 FjwtClaimsExtractor.class.getName());
-        return new FjwtAuthoritiesExtractor();
+        FjwtConfig.Authorities authorities = fjwtConfig.getAuthorities();
+        FjwtAuthorityDictionary dictionary = null;
+        if (!authorities.getDictionaries().isEmpty() || Objects.nonNull(authorities.getDictionaryVersion())) {
+            log.debug(
+                    "authorities are encoded with dictionary version [{}], versions [{}] can be decoded",
+                    authorities.getDictionaryVersion(),
+                    authorities.getDictionaries().keySet());
+            dictionary =
+                    new FjwtAuthorityDictionary(
+                            authorities.getDictionaryVersion(),
+                            authorities.getDictionaries(),
+                            authorityPool,
+                            authorities.getDictionaryCacheSize());
+        }
+        FjwtRoleHierarchy hierarchy = null;
+        if (!authorities.getHierarchy().isEmpty()) {
+            log.debug("implied authorities are left out of tokens, hierarchy [{}]", authorities.getHierarchy());
+            hierarchy =
+                    new FjwtRoleHierarchy(
+                            authorities.getHierarchy(), authorityPool, authorities.getHierarchyCacheSize());
+        }
+        return new FjwtAuthoritiesExtractor(authorityPool, dictionary, hierarchy);
     }
 
     /**
      * register a {@link FjwtUserDetailsFlagsExtractor} bean
      *
+     * @param fjwtConfig the configuration
      * @return a {@link FjwtUserDetailsFlagsExtractor} bean
      */
     @Bean
@@ -135,13 +194,13 @@ public class FjwtSecurityConfig {
             name = "enableDefaultExtractors",
             havingValue = "true",
             matchIfMissing = true)
-    public FjwtUserDetailsFlagsExtractor userDetailsFlagsExtractor() {
+    public FjwtUserDetailsFlagsExtractor userDetailsFlagsExtractor(FjwtConfig fjwtConfig) {
 
         log.debug(
                 DEFAULT_EXTRACTORS_BEAN_REGISTRATION_PATTERN,
                 FjwtUserDetailsFlagsExtractor.class.getName(),
                 FjwtClaimsExtractor.class.getName());
-        return new FjwtUserDetailsFlagsExtractor();
+        return new FjwtUserDetailsFlagsExtractor(fjwtConfig.isCompactFlags());
     }
 
     /**
@@ -160,6 +219,40 @@ public class FjwtSecurityConfig {
         return new NoopTokenInvalidator();
     }
 
+    /**
+     * register the default {@link FjwtMetrics}
+     *
+     * @return the default metrics bean
+     */
+    @Bean
+    @ConditionalOnMissingBean(FjwtMetrics.class)
+    public FjwtMetrics metrics() {
+
+        log.debug(
+                DEFAULT_BEAN_REGISTRATION_PATTERN,
+                NoopFjwtMetrics.class.getName(),
+                FjwtMetrics.class.getName());
+        return new NoopFjwtMetrics();
+    }
+
+    /**
+     * register a {@link FjwtScopedValueSecurityContextHolderStrategy}, it installs itself in the {@link
+     * SecurityContextHolder} once all the singletons are created when the JVM supports it
+     *
+     * @return a {@link FjwtScopedValueSecurityContextHolderStrategy} bean
+     */
+    @Bean
+    @ConditionalOnProperty(prefix = "fjwt.context", name = "scopedValue", havingValue = "true")
+    @ConditionalOnMissingBean(SecurityContextHolderStrategy.class)
+    public FjwtScopedValueSecurityContextHolderStrategy securityContextHolderStrategy() {
+
+        log.debug(
+                "registering bean of type [{}] as [{}]",
+                FjwtScopedValueSecurityContextHolderStrategy.class.getName(),
+                SecurityContextHolderStrategy.class.getName());
+        return new FjwtScopedValueSecurityContextHolderStrategy(SecurityContextHolder.getContextHolderStrategy());
+    }
+
     /**
      * register the default {@link Clock}
      *
@@ -1,14 +1,11 @@
 package it.enginious.fjwt.core;
 
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
-import java.util.Collection;
-
 /**
- * The default implementation for {@link FjwtAbstractUserDetailsBuilder} that returns an on the fly
- * built {@link UserDetails} with standard properties.
+ * The default implementation for {@link FjwtAbstractUserDetailsBuilder} that returns an immutable
+ * {@link FjwtUserDetails} with standard properties.
  *
  * @author Giuseppe Milazzo
  * @since 1.1.0
@@ -31,41 +28,7 @@ public class FjwtSimpleUserDetailsBuilder extends FjwtAbstractUserDetailsBuilder
     @Override
     public UserDetails build() {
         log.debug("building user");
-        return new UserDetails() {
-            @Override
-            public Collection<? extends GrantedAuthority> getAuthorities() {
-                return authorities;
-            }
-
-            @Override
-            public String getPassword() {
-                return null;
-            }
-
-            @Override
-            public String getUsername() {
-                return username;
-            }
-
-            @Override
-            public boolean isAccountNonExpired() {
-                return !accountExpired;
-            }
-
-            @Override
-            public boolean isAccountNonLocked() {
-                return !accountLocked;
-            }
-
-            @Override
-            public boolean isCredentialsNonExpired() {
-                return !credentialsExpired;
-            }
-
-            @Override
-            public boolean isEnabled() {
-                return enabled;
-            }
-        };
+        return new FjwtUserDetails(
+                username, authorities, !accountExpired, !accountLocked, !credentialsExpired, enabled);
     }
 }
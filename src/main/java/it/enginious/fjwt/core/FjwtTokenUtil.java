@@ -1,7 +1,11 @@
 package it.enginious.fjwt.core;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.MalformedJwtException;
 import io.jsonwebtoken.impl.security.DefaultSecureRequest;
@@ -9,6 +13,10 @@ import io.jsonwebtoken.security.MacAlgorithm;
 import io.jsonwebtoken.security.SecureDigestAlgorithm;
 import io.jsonwebtoken.security.SignatureAlgorithm;
 import io.jsonwebtoken.security.SignatureException;
+import it.enginious.fjwt.core.exceptions.FjwtInvalidTokenException;
+import it.enginious.fjwt.core.jfr.FjwtEvent;
+import it.enginious.fjwt.core.jfr.FjwtTokenVerificationEvent;
+import it.enginious.fjwt.core.metrics.FjwtMetrics;
 import jakarta.annotation.PostConstruct;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,6 +28,7 @@ import org.springframework.stereotype.Component;
 import javax.crypto.SecretKey;
 import javax.crypto.spec.SecretKeySpec;
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 import java.time.Clock;
@@ -62,8 +71,17 @@ public class FjwtTokenUtil {
      */
     private final FjwtUserDetailsBuilderFactory userDetailsBuilderFactory;
 
+    /**
+     * Metrics collector
+     */
+    private final FjwtMetrics metrics;
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
     private SecretKey key;
 
+    private String algorithmId;
+
     /**
      * initialize this bean, see {@link PostConstruct}
      */
@@ -71,7 +89,7 @@ public class FjwtTokenUtil {
     @SuppressWarnings({"unchecked", "rawtypes"})
     protected void init() {
 
-        String algorithmId = StringUtils.defaultIfBlank(fjwtConfig.getAlgorithm(), Jwts.SIG.HS256.getId());
+        algorithmId = StringUtils.defaultIfBlank(fjwtConfig.getAlgorithm(), Jwts.SIG.HS256.getId());
 
 
         SecureDigestAlgorithm algorithm = Jwts.SIG.get().forKey(algorithmId);
@@ -122,6 +140,15 @@ public class FjwtTokenUtil {
         }
     }
 
+    /**
+     * Get the signature algorithm in use, available once this bean is initialized
+     *
+     * @return the signature algorithm id
+     */
+    public String getAlgorithm() {
+        return algorithmId;
+    }
+
     /**
      * Parse token and return the username
      *
@@ -168,7 +195,12 @@ public class FjwtTokenUtil {
      */
     public String generateToken(UserDetails userDetails) {
         log.debug("generating token for user [{}]", userDetails.getUsername());
-        return doGenerateToken(claimsExtractorChain.getClaims(userDetails), userDetails.getUsername());
+        long start = System.nanoTime();
+        Claims claims = claimsExtractorChain.getClaims(userDetails);
+        metrics.recordExtractorChain(FjwtMetrics.GET_CLAIMS, System.nanoTime() - start);
+        String token = doGenerateToken(claims, userDetails.getUsername());
+        metrics.recordTokenSize(FjwtMetrics.ISSUED, token.length());
+        return token;
     }
 
     /**
@@ -179,27 +211,171 @@ public class FjwtTokenUtil {
      */
     public UserDetails getUserFromToken(String token) {
         log.debug("retrieving user from token");
-        Claims claims = getAllClaimsFromToken(token);
+        return getUserFromClaims(getAllClaimsFromToken(token));
+    }
+
+    /**
+     * Parse token, verifying its signature and expiration, and return all its claims
+     *
+     * @param token the token
+     * @return the verified claims
+     * @throws JwtException             if the token can't be trusted, see {@link #getUsernameFromToken(String)}
+     * @throws IllegalArgumentException if the specified string is {@code null} or empty or only
+     *                                  whitespace.
+     */
+    public Claims getClaimsFromToken(String token) {
+        log.debug("retrieving claims from token");
+        return getAllClaimsFromToken(token);
+    }
+
+    /**
+     * Reconstruct user from already verified claims
+     *
+     * @param claims the verified claims
+     * @return the reconstructed user
+     */
+    public UserDetails getUserFromClaims(Claims claims) {
+        return userDetailsBuilderFactory.getUser(claims, this::buildUser);
+    }
+
+    private UserDetails buildUser(Claims claims) {
         FjwtAbstractUserDetailsBuilder builder = userDetailsBuilderFactory.apply(claims.getSubject());
+        long start = System.nanoTime();
         claimsExtractorChain.addData(claims, builder);
+        metrics.recordExtractorChain(FjwtMetrics.ADD_DATA, System.nanoTime() - start);
         UserDetails userDetails = builder.build();
         log.debug("user [{}] retrieved from token", userDetails.getUsername());
         return userDetails;
     }
 
+    /**
+     * Cheap expiration pre-check: reads the {@code exp} claim from the payload without verifying the
+     * signature, so it can only be used to refuse a token early. Tokens whose payload can't be read
+     * or has no numeric {@code exp} claim are left to the full verification.
+     *
+     * @param token the token
+     * @throws FjwtInvalidTokenException with reason {@link FjwtFailureReason#EXPIRED} if the token is
+     *                                   expired
+     */
+    public void checkExpiration(String token) {
+        int payloadStart = token.indexOf('.') + 1;
+        int payloadEnd = payloadStart > 0 ? token.indexOf('.', payloadStart) : -1;
+        if (payloadEnd == -1) {
+            return;
+        }
+        Long expiration;
+        try {
+            expiration =
+                    readExpiration(
+                            Base64.getUrlDecoder().decode(token.substring(payloadStart, payloadEnd)));
+        } catch (IllegalArgumentException | IOException e) {
+            log.trace("payload can't be read, expiration check left to verification", e);
+            return;
+        }
+        // same as jjwt without clock skew: expired when now is after exp
+        if (Objects.nonNull(expiration)
+                && expiration < Long.MAX_VALUE / DateUtils.MILLIS_PER_SECOND
+                && clock.instant().toEpochMilli() > expiration * DateUtils.MILLIS_PER_SECOND) {
+            throw new FjwtInvalidTokenException(FjwtFailureReason.EXPIRED, "token is expired");
+        }
+    }
+
+    private static Long readExpiration(byte[] payload) throws IOException {
+        try (JsonParser parser = JSON_FACTORY.createParser(payload)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                return null;
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.currentName();
+                JsonToken value = parser.nextToken();
+                if (Claims.EXPIRATION.equals(name)) {
+                    return value == JsonToken.VALUE_NUMBER_INT ? parser.getLongValue() : null;
+                }
+                parser.skipChildren();
+            }
+            return null;
+        }
+    }
+
     private <T> T getClaimFromToken(String token, Function<Claims, T> claimsResolver) {
         return claimsResolver.apply(getAllClaimsFromToken(token));
     }
 
     private Claims getAllClaimsFromToken(String token) {
         log.debug("parsing token");
-        return Jwts.parser()
-                .decryptWith(key)
-                .verifyWith(key)
-                .clock(() -> Date.from(clock.instant()))
-                .build()
-                .parseSignedClaims(token)
-                .getPayload();
+        FjwtTokenVerificationEvent event = new FjwtTokenVerificationEvent();
+        event.begin();
+        long start = System.nanoTime();
+        String outcome = FjwtEvent.SUCCESS;
+        try {
+            checkStructure(token);
+            return Jwts.parser()
+                    .decryptWith(key)
+                    .verifyWith(key)
+                    .clock(() -> Date.from(clock.instant()))
+                    .build()
+                    .parseSignedClaims(token)
+                    .getPayload();
+        } catch (JwtException | IllegalArgumentException e) {
+            outcome = FjwtFailureReason.of(e).getValue();
+            throw e;
+        } finally {
+            metrics.recordTokenVerification(System.nanoTime() - start);
+            event.end();
+            if (event.shouldCommit()) {
+                event.setAlgorithm(algorithmId);
+                event.setTokenSize(StringUtils.length(token));
+                event.setOutcome(outcome);
+                event.commit();
+            }
+        }
+    }
+
+    /**
+     * Refuses, without any decoding, the tokens that are not made of three non-empty base64url
+     * segments or that exceed {@link FjwtConfig.Token#getMaxLength()}. A {@code null} or blank token
+     * is refused with an {@link IllegalArgumentException}, as the public methods document
+     */
+    private void checkStructure(String token) {
+        if (StringUtils.isBlank(token)) {
+            throw new IllegalArgumentException("token cannot be null or empty.");
+        }
+        if (token.length() > fjwtConfig.getToken().getMaxLength()) {
+            throw new FjwtInvalidTokenException(
+                    FjwtFailureReason.OVERSIZED,
+                    String.format(
+                            "token length [%d] exceeds [%d]",
+                            token.length(), fjwtConfig.getToken().getMaxLength()));
+        }
+        int separators = 0;
+        int segmentLength = 0;
+        for (int i = 0; i < token.length(); i++) {
+            char c = token.charAt(i);
+            if (c == '.') {
+                if (segmentLength == 0 || ++separators > 2) {
+                    break;
+                }
+                segmentLength = 0;
+            } else if (isBase64UrlChar(c)) {
+                segmentLength++;
+            } else {
+                throw new FjwtInvalidTokenException(
+                        FjwtFailureReason.MALFORMED,
+                        String.format("token contains invalid character at position [%d]", i));
+            }
+        }
+        if (separators != 2 || segmentLength == 0) {
+            throw new FjwtInvalidTokenException(
+                    FjwtFailureReason.MALFORMED, "token must be made of 3 non-empty segments");
+        }
+    }
+
+    private static boolean isBase64UrlChar(char c) {
+        return (c >= 'A' && c <= 'Z')
+                || (c >= 'a' && c <= 'z')
+                || (c >= '0' && c <= '9')
+                || c == '-'
+                || c == '_';
     }
 
     private String doGenerateToken(Map<String, Object> claims, String subject) {
@@ -0,0 +1,79 @@
+package it.enginious.fjwt.core;
+
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The immutable {@link UserDetails} built by {@link FjwtSimpleUserDetailsBuilder}. It holds only the
+ * properties of the user and no reference to its builder, so the same instance can be shared by all
+ * the requests carrying the same token, see {@link FjwtPrincipalCache}. Users rebuilt from a token
+ * have no password.
+ *
+ * @param username              the username
+ * @param authorities           the authorities, copied unless they are already a {@link FjwtAuthoritySet}
+ * @param accountNonExpired     a flag for account not expired
+ * @param accountNonLocked      a flag for account not locked
+ * @param credentialsNonExpired a flag for credentials not expired
+ * @param enabled               a flag for account enabling
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+public record FjwtUserDetails(
+        String username,
+        Collection<? extends GrantedAuthority> authorities,
+        boolean accountNonExpired,
+        boolean accountNonLocked,
+        boolean credentialsNonExpired,
+        boolean enabled)
+        implements UserDetails {
+
+    /**
+     * Creates a new user
+     */
+    public FjwtUserDetails {
+        if (Objects.isNull(authorities)) {
+            authorities = List.of();
+        } else if (!(authorities instanceof FjwtAuthoritySet)) {
+            authorities = List.copyOf(authorities);
+        }
+    }
+
+    @Override
+    public Collection<? extends GrantedAuthority> getAuthorities() {
+        return authorities;
+    }
+
+    @Override
+    public String getPassword() {
+        return null;
+    }
+
+    @Override
+    public String getUsername() {
+        return username;
+    }
+
+    @Override
+    public boolean isAccountNonExpired() {
+        return accountNonExpired;
+    }
+
+    @Override
+    public boolean isAccountNonLocked() {
+        return accountNonLocked;
+    }
+
+    @Override
+    public boolean isCredentialsNonExpired() {
+        return credentialsNonExpired;
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+}
@@ -1,5 +1,8 @@
 package it.enginious.fjwt.core;
 
+import io.jsonwebtoken.Claims;
+import org.springframework.security.core.userdetails.UserDetails;
+
 import java.util.function.Function;
 
 /**
@@ -11,4 +14,38 @@ import java.util.function.Function;
  */
 public interface FjwtUserDetailsBuilderFactory
         extends Function<String, FjwtAbstractUserDetailsBuilder> {
+
+    /**
+     * Get the user of already verified claims, the default implementation builds a new user every time
+     *
+     * @param claims  the verified claims
+     * @param builder builds the user from the claims with a builder created by this factory
+     * @return the user
+     * @since 3.2.0
+     */
+    default UserDetails getUser(Claims claims, Function<Claims, UserDetails> builder) {
+        return builder.apply(claims);
+    }
+
+    /**
+     * Wrap a factory so that the users it builds are shared by the requests carrying the same claims
+     *
+     * @param factory the factory, its builders must build immutable users
+     * @param cache   the cache the users are shared through
+     * @return the caching factory
+     * @since 3.2.0
+     */
+    static FjwtUserDetailsBuilderFactory cached(FjwtUserDetailsBuilderFactory factory, FjwtPrincipalCache cache) {
+        return new FjwtUserDetailsBuilderFactory() {
+            @Override
+            public FjwtAbstractUserDetailsBuilder apply(String username) {
+                return factory.apply(username);
+            }
+
+            @Override
+            public UserDetails getUser(Claims claims, Function<Claims, UserDetails> builder) {
+                return cache.get(claims, builder);
+            }
+        };
+    }
 }
@@ -1,21 +1,39 @@
 package it.enginious.fjwt.core;
 
+import io.micrometer.observation.ObservationRegistry;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.aopalliance.intercept.MethodInvocation;
+import org.springframework.aop.Advisor;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.beans.factory.config.BeanDefinition;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Role;
+import org.springframework.security.access.annotation.Secured;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.ProviderManager;
 import org.springframework.security.authentication.dao.DaoAuthenticationProvider;
+import org.springframework.security.authorization.AuthorizationManager;
+import org.springframework.security.authorization.ObservationAuthorizationManager;
+import org.springframework.security.authorization.method.AuthorizationManagerBeforeMethodInterceptor;
+import org.springframework.security.authorization.method.SecuredAuthorizationManager;
 import org.springframework.security.config.annotation.method.configuration.EnableMethodSecurity;
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
+import org.springframework.security.config.annotation.web.builders.WebSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
+import org.springframework.security.config.annotation.web.configuration.WebSecurityCustomizer;
 import org.springframework.security.config.annotation.web.configurers.AbstractHttpConfigurer;
 import org.springframework.security.config.http.SessionCreationPolicy;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
+import org.springframework.security.web.session.DisableEncodeUrlFilter;
 
 /**
  * Fjwt web security configuration.
@@ -25,14 +43,50 @@ import org.springframework.security.web.authentication.UsernamePasswordAuthentic
  */
 @Slf4j
 @Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @EnableWebSecurity
 @RequiredArgsConstructor
-@EnableMethodSecurity(securedEnabled = true)
+@EnableMethodSecurity
 public class FjwtWebSecurityConfig {
 
     private final FjwtEntryPoint fjwtEntryPoint;
     private final FjwtRequestFilter fjwtRequestFilter;
     private final FjwtConfig fjwtConfig;
+    private final ObjectProvider<FjwtScopedValueSecurityContextHolderStrategy> scopedValueStrategy;
+
+    /**
+     * register the interceptor of {@link Secured} methods, their authorities are checked by a {@link
+     * FjwtAuthoritiesAuthorizationManager} unless {@code fjwt.authorities.securedMethods} is false, in
+     * which case they are checked as Spring Security does. It replaces the one registered by {@code
+     * securedEnabled}, which must not be set on {@link EnableMethodSecurity} as well, otherwise
+     * secured methods are checked twice.
+     *
+     * @param authoritySetCheck whether authorities are checked against the authority bits
+     * @param strategyProvider  the security context holder strategy, if any
+     * @param registryProvider  the observation registry, if any
+     * @return the secured methods interceptor bean
+     */
+    @Bean
+    @Role(BeanDefinition.ROLE_INFRASTRUCTURE)
+    public static Advisor securedMethodInterceptor(
+            @Value("${fjwt.authorities.securedMethods:true}") boolean authoritySetCheck,
+            ObjectProvider<SecurityContextHolderStrategy> strategyProvider,
+            ObjectProvider<ObservationRegistry> registryProvider) {
+        SecuredAuthorizationManager secured = new SecuredAuthorizationManager();
+        if (authoritySetCheck) {
+            secured.setAuthoritiesAuthorizationManager(new FjwtAuthoritiesAuthorizationManager());
+        } else {
+            log.debug("@Secured methods are checked by [{}]", SecuredAuthorizationManager.class.getName());
+        }
+        ObservationRegistry registry = registryProvider.getIfUnique(() -> ObservationRegistry.NOOP);
+        AuthorizationManager<MethodInvocation> authorizationManager =
+                registry.isNoop() ? secured : new ObservationAuthorizationManager<>(registry, secured);
+        AuthorizationManagerBeforeMethodInterceptor interceptor =
+                AuthorizationManagerBeforeMethodInterceptor.secured(authorizationManager);
+        interceptor.setSecurityContextHolderStrategy(
+                strategyProvider.getIfAvailable(SecurityContextHolder::getContextHolderStrategy));
+        return interceptor;
+    }
 
     /**
      * register the {@link AuthenticationManager}
@@ -55,6 +109,25 @@ public class FjwtWebSecurityConfig {
         return new ProviderManager(authenticationProvider);
     }
 
+    /**
+     * register the {@link WebSecurityCustomizer} that removes {@link FjwtConfig#getIgnored()} paths
+     * from the security filter chain
+     *
+     * @return the web security customizer bean
+     */
+    @Bean
+    public WebSecurityCustomizer webSecurityCustomizer() {
+        return web -> {
+            if (!fjwtConfig.getIgnored().isEmpty()) {
+                log.debug(
+                        "configuring [{}]: paths served without security filters are [{}]",
+                        WebSecurity.class.getName(),
+                        String.join(", ", fjwtConfig.getIgnored()));
+                web.ignoring().requestMatchers(fjwtConfig.getIgnored().toArray(String[]::new));
+            }
+        };
+    }
+
     /**
      * register the {@link SecurityFilterChain}
      *
@@ -81,6 +154,15 @@ public class FjwtWebSecurityConfig {
                         sessionManagementConfigurer ->
                                 sessionManagementConfigurer.sessionCreationPolicy(SessionCreationPolicy.STATELESS));
 
+        scopedValueStrategy.ifAvailable(
+                strategy -> {
+                    if (FjwtScopedValueSecurityContextHolderStrategy.isSupported()) {
+                        log.debug("binding the security context to a ScopedValue for each request");
+                        httpSecurity.addFilterBefore(
+                                new FjwtScopedSecurityContextFilter(strategy), DisableEncodeUrlFilter.class);
+                    }
+                });
+
         return httpSecurity
                 .addFilterBefore(fjwtRequestFilter, UsernamePasswordAuthenticationFilter.class)
                 .build();
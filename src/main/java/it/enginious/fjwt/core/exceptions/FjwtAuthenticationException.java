@@ -0,0 +1,37 @@
+package it.enginious.fjwt.core.exceptions;
+
+import it.enginious.fjwt.core.FjwtFailureReason;
+import org.springframework.security.core.AuthenticationException;
+
+/**
+ * Exception signalled when a token is refused while authenticating a request, it carries the reason
+ * why the token was refused.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+public class FjwtAuthenticationException extends AuthenticationException {
+
+    private final transient FjwtFailureReason reason;
+
+    /**
+     * Construct an exception with the specified reason, message and cause
+     *
+     * @param reason  the failure reason
+     * @param message the message
+     * @param cause   the cause, if any
+     */
+    public FjwtAuthenticationException(FjwtFailureReason reason, String message, Throwable cause) {
+        super(message, cause);
+        this.reason = reason;
+    }
+
+    /**
+     * Get the failure reason
+     *
+     * @return the failure reason
+     */
+    public FjwtFailureReason getReason() {
+        return reason;
+    }
+}
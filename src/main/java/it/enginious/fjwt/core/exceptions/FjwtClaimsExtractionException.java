@@ -0,0 +1,21 @@
+package it.enginious.fjwt.core.exceptions;
+
+/**
+ * Exception thrown when an independent extractor fails or times out while the claims of a token are
+ * extracted, no token is issued.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+public class FjwtClaimsExtractionException extends RuntimeException {
+
+    /**
+     * Construct an exception with the specified message and cause
+     *
+     * @param message the message
+     * @param cause   the cause, if any
+     */
+    public FjwtClaimsExtractionException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
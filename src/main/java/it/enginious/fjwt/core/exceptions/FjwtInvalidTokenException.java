@@ -0,0 +1,47 @@
+package it.enginious.fjwt.core.exceptions;
+
+import io.jsonwebtoken.JwtException;
+import it.enginious.fjwt.core.FjwtFailureReason;
+
+/**
+ * Lightweight exception thrown when a token is refused by a cheap pre-check, before any decoding
+ * or signature work. It does not fill in its stack trace since the failure reason is all that
+ * matters.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+public class FjwtInvalidTokenException extends JwtException {
+
+    private final transient FjwtFailureReason reason;
+
+    /**
+     * Construct an exception with the specified reason and message
+     *
+     * @param reason  the failure reason
+     * @param message the message
+     */
+    public FjwtInvalidTokenException(FjwtFailureReason reason, String message) {
+        super(message);
+        this.reason = reason;
+    }
+
+    /**
+     * Get the failure reason
+     *
+     * @return the failure reason
+     */
+    public FjwtFailureReason getReason() {
+        return reason;
+    }
+
+    /**
+     * Does not fill in the stack trace.
+     *
+     * @return this exception
+     */
+    @Override
+    public synchronized Throwable fillInStackTrace() {
+        return this;
+    }
+}
@@ -3,20 +3,32 @@ package it.enginious.fjwt.core.extractors;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ClaimsBuilder;
 import it.enginious.fjwt.core.FjwtAbstractUserDetailsBuilder;
+import it.enginious.fjwt.core.FjwtAuthorityDictionary;
+import it.enginious.fjwt.core.FjwtAuthoritySet;
 import it.enginious.fjwt.core.FjwtClaimsExtractor;
+import it.enginious.fjwt.core.FjwtGrantedAuthorityPool;
+import it.enginious.fjwt.core.FjwtRoleHierarchy;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.lang3.ObjectUtils;
 import org.springframework.security.core.GrantedAuthority;
-import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.util.CollectionUtils;
 
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 /**
- * Authorities extractor, adds all authorities to the token.
+ * Authorities extractor, adds all authorities to the token. Authorities rebuilt from a token are
+ * taken from a {@link FjwtGrantedAuthorityPool} and held in a {@link FjwtAuthoritySet}.
+ *
+ * <p>When a {@link FjwtAuthorityDictionary} is given, the authorities found in the dictionary are
+ * written encoded in the {@link #ENCODED_AUTHORITIES} claim and only the others are written by name.
+ *
+ * <p>When a {@link FjwtRoleHierarchy} is given, only the authorities not implied by other authorities
+ * of the user are added to the token, the implied ones are added back when the user is rebuilt.
  *
  * @author Giuseppe Milazzo
  * @since 1.1.0
@@ -29,6 +41,60 @@ public class FjwtAuthoritiesExtractor implements FjwtClaimsExtractor {
      */
     public static final String AUTHORITIES = "authorities";
 
+    /**
+     * Dictionary encoded authorities key
+     */
+    public static final String ENCODED_AUTHORITIES = "eauth";
+
+    private static final Set<String> CLAIM_KEYS = Set.of(AUTHORITIES, ENCODED_AUTHORITIES);
+
+    private final FjwtGrantedAuthorityPool authorityPool;
+    private final FjwtAuthorityDictionary dictionary;
+    private final FjwtRoleHierarchy hierarchy;
+
+    /**
+     * Creates a new extractor with a pool of the default size
+     */
+    public FjwtAuthoritiesExtractor() {
+        this(new FjwtGrantedAuthorityPool());
+    }
+
+    /**
+     * Creates a new extractor
+     *
+     * @param authorityPool the pool the authorities rebuilt from a token are taken from
+     */
+    public FjwtAuthoritiesExtractor(FjwtGrantedAuthorityPool authorityPool) {
+        this(authorityPool, null);
+    }
+
+    /**
+     * Creates a new extractor
+     *
+     * @param authorityPool the pool the authorities rebuilt from a token are taken from
+     * @param dictionary    the dictionary authorities are encoded with, null to write them by name
+     */
+    public FjwtAuthoritiesExtractor(FjwtGrantedAuthorityPool authorityPool, FjwtAuthorityDictionary dictionary) {
+        this(authorityPool, dictionary, null);
+    }
+
+    /**
+     * Creates a new extractor
+     *
+     * @param authorityPool the pool the authorities rebuilt from a token are taken from
+     * @param dictionary    the dictionary authorities are encoded with, null to write them by name
+     * @param hierarchy     the hierarchy implied authorities are left out of the token with, null to
+     *                      add all of them
+     */
+    public FjwtAuthoritiesExtractor(
+            FjwtGrantedAuthorityPool authorityPool,
+            FjwtAuthorityDictionary dictionary,
+            FjwtRoleHierarchy hierarchy) {
+        this.authorityPool = authorityPool;
+        this.dictionary = dictionary;
+        this.hierarchy = hierarchy;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -39,8 +105,7 @@ public class FjwtAuthoritiesExtractor implements FjwtClaimsExtractor {
                 "found [{}] authorities in user",
                 Objects.nonNull(source.getAuthorities()) ? source.getAuthorities().size() : 0);
 
-        dest.add(
-                AUTHORITIES,
+        List<String> authorities =
                 (CollectionUtils.isEmpty(source.getAuthorities())
                         ? new ArrayList<>()
                         : source.getAuthorities())
@@ -51,7 +116,26 @@ public class FjwtAuthoritiesExtractor implements FjwtClaimsExtractor {
                                     log.debug("adding authority with value [{}]", authority);
                                     return authority;
                                 })
-                        .toList());
+                        .toList();
+
+        if (Objects.nonNull(hierarchy)) {
+            authorities = hierarchy.compress(authorities);
+            log.debug("adding top-level authorities [{}]", authorities);
+        }
+
+        if (Objects.isNull(dictionary) || !dictionary.canEncode()) {
+            dest.add(AUTHORITIES, authorities);
+            return;
+        }
+
+        FjwtAuthorityDictionary.Encoded encoded = dictionary.encode(authorities);
+        if (Objects.nonNull(encoded.value())) {
+            log.debug("adding encoded authorities with value [{}]", encoded.value());
+            dest.add(ENCODED_AUTHORITIES, encoded.value());
+        }
+        if (!encoded.others().isEmpty() || Objects.isNull(encoded.value())) {
+            dest.add(AUTHORITIES, encoded.others());
+        }
     }
 
     /**
@@ -68,15 +152,38 @@ public class FjwtAuthoritiesExtractor implements FjwtClaimsExtractor {
         log.debug(
                 "found [{}] authorities in token", Objects.nonNull(authorities) ? authorities.size() : 0);
 
+        String encoded = source.get(ENCODED_AUTHORITIES, String.class);
+        if (Objects.nonNull(encoded)) {
+            if (Objects.isNull(dictionary)) {
+                log.warn("token contains encoded authorities but no dictionary is configured, ignoring them");
+            } else if (authorities.isEmpty() && Objects.isNull(hierarchy)) {
+                // decoded sets are shared by all the users holding the same authorities
+                dest.authorities(dictionary.decode(encoded));
+                return;
+            } else {
+                List<String> decoded = new ArrayList<>(dictionary.decodeValues(encoded));
+                decoded.addAll(authorities);
+                authorities = decoded;
+            }
+        }
+
+        if (Objects.nonNull(hierarchy) && !authorities.isEmpty()) {
+            // expanded sets are shared by all the users holding the same top-level authorities
+            dest.authorities(hierarchy.expand(authorities));
+            return;
+        }
+
         if (!CollectionUtils.isEmpty(authorities)) {
-            dest.authorities(
-                    authorities.stream()
-                            .map(
-                                    a -> {
-                                        log.debug("retrieved authority with value [{}]", a);
-                                        return new SimpleGrantedAuthority(a);
-                                    })
-                            .toList());
+            log.debug("retrieved authorities with values [{}]", authorities);
+            dest.authorities(FjwtAuthoritySet.of(authorities, authorityPool));
         }
     }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getClaimKeys() {
+        return CLAIM_KEYS;
+    }
 }
@@ -0,0 +1,269 @@
+package it.enginious.fjwt.core.extractors;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ClaimsBuilder;
+import io.jsonwebtoken.impl.DefaultClaimsBuilder;
+import it.enginious.fjwt.core.FjwtAbstractUserDetailsBuilder;
+import it.enginious.fjwt.core.FjwtClaimsExtractor;
+import it.enginious.fjwt.core.FjwtClaimsExtractorChain;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Caches the claims added by an expensive extractor for each username, so that the extractor runs once
+ * per user and time window instead of on every token issued. Entries are kept for a fixed time and,
+ * when the maximum size is reached, an arbitrary entry is evicted to make room for the new one.
+ *
+ * <p>An entry used when less than the refresh-ahead time is left before it expires is refreshed in the
+ * background while the cached claims are still used, so frequent users never wait for the extractor. A
+ * failed refresh is logged and the entry is kept until it expires. Users whose data changes can be
+ * invalidated, see {@link #invalidate(String)}: claims being extracted while a user is invalidated are
+ * issued but not cached.
+ *
+ * <p>The default executor, created when none is given, is shut down when the extractor is destroyed.
+ *
+ * <p>Only the issuance is cached, the user is rebuilt from a token by the wrapped extractor.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+public class FjwtCachingClaimsExtractor implements FjwtClaimsExtractor, DisposableBean {
+
+    private final FjwtClaimsExtractor delegate;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private final int maxSize;
+    private final long ttlNanos;
+    private final long refreshAheadNanos;
+    private final Executor executor;
+    private final boolean ownsExecutor;
+    private final LongSupplier nanoTime;
+
+    /**
+     * Incremented on every invalidation, claims extracted across an invalidation are not cached
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Creates a new caching extractor, entries are refreshed on the default executor of the {@link
+     * FjwtClaimsExtractorChain}
+     *
+     * @param delegate     the extractor whose claims are cached
+     * @param maxSize      maximum number of cached users, zero or less disables the cache
+     * @param ttl          time the claims of a user are cached for
+     * @param refreshAhead time before the expiration from which an entry is refreshed, zero to never
+     *                     refresh
+     */
+    public FjwtCachingClaimsExtractor(
+            FjwtClaimsExtractor delegate, int maxSize, Duration ttl, Duration refreshAhead) {
+        this(
+                delegate,
+                maxSize,
+                ttl.toNanos(),
+                refreshAhead.toNanos(),
+                FjwtClaimsExtractorChain.newDefaultExecutor(),
+                true,
+                System::nanoTime);
+    }
+
+    /**
+     * Creates a new caching extractor
+     *
+     * @param delegate     the extractor whose claims are cached
+     * @param maxSize      maximum number of cached users, zero or less disables the cache
+     * @param ttl          time the claims of a user are cached for
+     * @param refreshAhead time before the expiration from which an entry is refreshed, zero to never
+     *                     refresh
+     * @param executor     the executor entries are refreshed on, left to its owner
+     */
+    public FjwtCachingClaimsExtractor(
+            FjwtClaimsExtractor delegate, int maxSize, Duration ttl, Duration refreshAhead, Executor executor) {
+        this(delegate, maxSize, ttl.toNanos(), refreshAhead.toNanos(), executor, System::nanoTime);
+    }
+
+    FjwtCachingClaimsExtractor(
+            FjwtClaimsExtractor delegate,
+            int maxSize,
+            long ttlNanos,
+            long refreshAheadNanos,
+            Executor executor,
+            LongSupplier nanoTime) {
+        this(delegate, maxSize, ttlNanos, refreshAheadNanos, executor, false, nanoTime);
+    }
+
+    private FjwtCachingClaimsExtractor(
+            FjwtClaimsExtractor delegate,
+            int maxSize,
+            long ttlNanos,
+            long refreshAheadNanos,
+            Executor executor,
+            boolean ownsExecutor,
+            LongSupplier nanoTime) {
+        if (refreshAheadNanos >= ttlNanos) {
+            throw new IllegalArgumentException("refresh ahead time must be shorter than the ttl");
+        }
+        this.delegate = delegate;
+        this.maxSize = maxSize;
+        this.ttlNanos = ttlNanos;
+        this.refreshAheadNanos = refreshAheadNanos;
+        this.executor = executor;
+        this.ownsExecutor = ownsExecutor;
+        this.nanoTime = nanoTime;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getClaims(UserDetails source, ClaimsBuilder dest) {
+        String username = source.getUsername();
+        long now = nanoTime.getAsLong();
+        Entry entry = entries.get(username);
+        if (Objects.nonNull(entry) && now - entry.expiresAt() < 0) {
+            if (refreshAheadNanos > 0
+                    && now - entry.expiresAt() + refreshAheadNanos >= 0
+                    && entry.refreshing().compareAndSet(false, true)) {
+                refresh(source, entry);
+            }
+            dest.add(entry.claims());
+            return;
+        }
+        long extractedGeneration = generation.get();
+        Entry extracted = extract(source);
+        put(username, extracted, extractedGeneration);
+        dest.add(extracted.claims());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addData(Claims source, FjwtAbstractUserDetailsBuilder dest) {
+        delegate.addData(source, dest);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getClaimKeys() {
+        return delegate.getClaimKeys();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isIndependent() {
+        return delegate.isIndependent();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Duration getTimeout() {
+        return delegate.getTimeout();
+    }
+
+    /**
+     * Forget the claims of a user, they are extracted again when the next token is issued
+     *
+     * @param username the username
+     */
+    public void invalidate(String username) {
+        generation.incrementAndGet();
+        entries.remove(username);
+    }
+
+    /**
+     * Forget the claims of all the users
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        entries.clear();
+    }
+
+    /**
+     * Shuts the executor down if it was created by this extractor, refreshes in progress are completed
+     */
+    @Override
+    public void destroy() {
+        if (ownsExecutor && executor instanceof ExecutorService executorService) {
+            log.debug("shutting down the executor of the claims refreshes");
+            executorService.shutdown();
+        }
+    }
+
+    /**
+     * Get the number of cached users, expired entries included until they are replaced or evicted
+     *
+     * @return the number of cached users
+     */
+    public int size() {
+        return entries.size();
+    }
+
+    private Entry extract(UserDetails source) {
+        DefaultClaimsBuilder claims = new DefaultClaimsBuilder();
+        delegate.getClaims(source, claims);
+        long now = nanoTime.getAsLong();
+        return new Entry(claims.build(), now + ttlNanos, new AtomicBoolean());
+    }
+
+    private void put(String username, Entry entry, long extractedGeneration) {
+        if (maxSize <= 0) {
+            return;
+        }
+        if (entries.size() >= maxSize && !entries.containsKey(username)) {
+            Iterator<String> usernames = entries.keySet().iterator();
+            if (usernames.hasNext()) {
+                usernames.next();
+                usernames.remove();
+            }
+        }
+        // invalidations bump the generation before removing, so a put racing with one either sees the
+        // new generation or is removed after it
+        entries.compute(
+                username, (key, current) -> generation.get() == extractedGeneration ? entry : current);
+    }
+
+    private void refresh(UserDetails source, Entry entry) {
+        String username = source.getUsername();
+        try {
+            executor.execute(
+                    () -> {
+                        try {
+                            // an invalidated or replaced entry is not brought back
+                            entries.replace(username, entry, extract(source));
+                        } catch (RuntimeException e) {
+                            log.warn("claims of user [{}] can't be refreshed: {}", username, e.toString());
+                            entry.refreshing().set(false);
+                        }
+                    });
+        } catch (RejectedExecutionException e) {
+            log.warn("claims of user [{}] can't be refreshed: {}", username, e.toString());
+            entry.refreshing().set(false);
+        }
+    }
+
+    /**
+     * The cached claims of a user
+     */
+    private record Entry(Map<String, Object> claims, long expiresAt, AtomicBoolean refreshing) {
+    }
+}
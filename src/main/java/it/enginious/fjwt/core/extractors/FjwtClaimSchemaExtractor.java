@@ -0,0 +1,55 @@
+package it.enginious.fjwt.core.extractors;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ClaimsBuilder;
+import it.enginious.fjwt.core.FjwtAbstractUserDetailsBuilder;
+import it.enginious.fjwt.core.FjwtClaimSchema;
+import it.enginious.fjwt.core.FjwtClaimsExtractor;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Set;
+
+/**
+ * Typed claims extractor, adds the claims declared by a {@link FjwtClaimSchema} to the token and binds
+ * them to the builder. Register it as a bean to add custom claims without writing an extractor.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+public class FjwtClaimSchemaExtractor implements FjwtClaimsExtractor {
+
+    private final FjwtClaimSchema<?, ?> schema;
+
+    /**
+     * Creates a new extractor
+     *
+     * @param schema the claim schema
+     */
+    public FjwtClaimSchemaExtractor(FjwtClaimSchema<?, ?> schema) {
+        this.schema = schema;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void getClaims(UserDetails source, ClaimsBuilder dest) {
+        schema.write(source, dest);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void addData(Claims source, FjwtAbstractUserDetailsBuilder dest) {
+        schema.read(source, dest);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getClaimKeys() {
+        return schema.getKeys();
+    }
+}
@@ -7,9 +7,16 @@ import it.enginious.fjwt.core.FjwtClaimsExtractor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.Objects;
+import java.util.Set;
+
 /**
  * UserDetails flags extractor, adds all flag in {@link UserDetails} to the token.
  *
+ * <p>In the compact profile the flags are packed in the bits of the {@link #FLAGS} claim, which is
+ * left out when every flag has its default value, that is a user enabled and neither expired nor
+ * locked. Tokens written in either profile are read back by any extractor.
+ *
  * @author Giuseppe Milazzo
  * @since 1.1.0
  */
@@ -35,6 +42,48 @@ public class FjwtUserDetailsFlagsExtractor implements FjwtClaimsExtractor {
      * Enabled flag key
      */
     public static final String ENABLED = "enabled";
+    /**
+     * Packed flags key of the compact profile
+     */
+    public static final String FLAGS = "fl";
+
+    /**
+     * Credentials expired bit of the packed flags
+     */
+    public static final int CREDENTIALS_EXPIRED_BIT = 1;
+    /**
+     * Account expired bit of the packed flags
+     */
+    public static final int ACCOUNT_EXPIRED_BIT = 1 << 1;
+    /**
+     * Account locked bit of the packed flags
+     */
+    public static final int ACCOUNT_LOCKED_BIT = 1 << 2;
+    /**
+     * Disabled bit of the packed flags
+     */
+    public static final int DISABLED_BIT = 1 << 3;
+
+    private static final Set<String> CLAIM_KEYS =
+            Set.of(CREDENTIALS_EXPIRED, ACCOUNT_EXPIRED, ACCOUNT_LOCKED, ENABLED, FLAGS);
+
+    private final boolean compact;
+
+    /**
+     * Creates a new extractor writing a claim for each flag
+     */
+    public FjwtUserDetailsFlagsExtractor() {
+        this(false);
+    }
+
+    /**
+     * Creates a new extractor
+     *
+     * @param compact true to pack the flags in the {@link #FLAGS} claim
+     */
+    public FjwtUserDetailsFlagsExtractor(boolean compact) {
+        this.compact = compact;
+    }
 
     /**
      * {@inheritDoc}
@@ -42,6 +91,18 @@ public class FjwtUserDetailsFlagsExtractor implements FjwtClaimsExtractor {
     @Override
     public void getClaims(UserDetails source, ClaimsBuilder dest) {
 
+        if (compact) {
+            int flags = (source.isCredentialsNonExpired() ? 0 : CREDENTIALS_EXPIRED_BIT)
+                    | (source.isAccountNonExpired() ? 0 : ACCOUNT_EXPIRED_BIT)
+                    | (source.isAccountNonLocked() ? 0 : ACCOUNT_LOCKED_BIT)
+                    | (source.isEnabled() ? 0 : DISABLED_BIT);
+            if (flags != 0) {
+                log.debug(ADDING_VALUE_PATTERN, FLAGS, flags);
+                dest.add(FLAGS, flags);
+            }
+            return;
+        }
+
         log.debug(ADDING_VALUE_PATTERN, CREDENTIALS_EXPIRED, !source.isCredentialsNonExpired());
         dest.add(CREDENTIALS_EXPIRED, !source.isCredentialsNonExpired());
 
@@ -61,19 +122,40 @@ public class FjwtUserDetailsFlagsExtractor implements FjwtClaimsExtractor {
     @Override
     public void addData(Claims source, FjwtAbstractUserDetailsBuilder dest) {
 
-        log.debug(
-                RETRIEVED_VALUE_PATTERN,
-                CREDENTIALS_EXPIRED,
-                source.get(CREDENTIALS_EXPIRED, Boolean.class));
-        dest.credentialsExpired(source.get(CREDENTIALS_EXPIRED, Boolean.class));
+        Integer flags = source.get(FLAGS, Integer.class);
+        // every token in the legacy profile has the enabled claim
+        Boolean enabled = Objects.isNull(flags) ? source.get(ENABLED, Boolean.class) : null;
+        if (Objects.isNull(enabled)) {
+            int bits = Objects.isNull(flags) ? 0 : flags;
+            log.debug(RETRIEVED_VALUE_PATTERN, FLAGS, bits);
+            dest.credentialsExpired((bits & CREDENTIALS_EXPIRED_BIT) != 0);
+            dest.accountExpired((bits & ACCOUNT_EXPIRED_BIT) != 0);
+            dest.accountLocked((bits & ACCOUNT_LOCKED_BIT) != 0);
+            dest.enabled((bits & DISABLED_BIT) == 0);
+            return;
+        }
 
-        log.debug(RETRIEVED_VALUE_PATTERN, ACCOUNT_EXPIRED, source.get(ACCOUNT_EXPIRED, Boolean.class));
-        dest.accountExpired(source.get(ACCOUNT_EXPIRED, Boolean.class));
+        Boolean credentialsExpired = source.get(CREDENTIALS_EXPIRED, Boolean.class);
+        log.debug(RETRIEVED_VALUE_PATTERN, CREDENTIALS_EXPIRED, credentialsExpired);
+        dest.credentialsExpired(Boolean.TRUE.equals(credentialsExpired));
 
-        log.debug(RETRIEVED_VALUE_PATTERN, ACCOUNT_LOCKED, source.get(ACCOUNT_LOCKED, Boolean.class));
-        dest.accountLocked(source.get(ACCOUNT_LOCKED, Boolean.class));
+        Boolean accountExpired = source.get(ACCOUNT_EXPIRED, Boolean.class);
+        log.debug(RETRIEVED_VALUE_PATTERN, ACCOUNT_EXPIRED, accountExpired);
+        dest.accountExpired(Boolean.TRUE.equals(accountExpired));
 
-        log.debug(RETRIEVED_VALUE_PATTERN, ENABLED, source.get(ENABLED, Boolean.class));
-        dest.enabled(source.get(ENABLED, Boolean.class));
+        Boolean accountLocked = source.get(ACCOUNT_LOCKED, Boolean.class);
+        log.debug(RETRIEVED_VALUE_PATTERN, ACCOUNT_LOCKED, accountLocked);
+        dest.accountLocked(Boolean.TRUE.equals(accountLocked));
+
+        log.debug(RETRIEVED_VALUE_PATTERN, ENABLED, enabled);
+        dest.enabled(enabled);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getClaimKeys() {
+        return CLAIM_KEYS;
     }
 }
@@ -0,0 +1,68 @@
+package it.enginious.fjwt.core.jfr;
+
+import jdk.jfr.*;
+
+/**
+ * Base class for all Fjwt JFR events. Events are disabled by default, so emitting them costs close
+ * to nothing unless a recording enables them, for example with the bundled {@code
+ * it/enginious/fjwt/jfr/fjwt.jfc} settings.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Enabled(false)
+@StackTrace(false)
+@Category("fjwt")
+public abstract class FjwtEvent extends Event {
+
+    /**
+     * Outcome of a successful operation
+     */
+    public static final String SUCCESS = "success";
+
+    /**
+     * Outcome of an operation skipped because there was nothing left to do
+     */
+    public static final String SKIPPED = "skipped";
+
+    /**
+     * Outcome of an operation refused because the user could not be authenticated
+     */
+    public static final String AUTHENTICATION_FAILED = "authentication_failed";
+
+    /**
+     * Outcome of a token issuance refused because an independent extractor failed or timed out
+     */
+    public static final String EXTRACTION_FAILED = "extraction_failed";
+
+    /**
+     * The token size
+     */
+    @Label("Token Size")
+    @DataAmount
+    protected int tokenSize;
+
+    /**
+     * The outcome
+     */
+    @Label("Outcome")
+    protected String outcome;
+
+    /**
+     * Sets the token size
+     *
+     * @param tokenSize the token size
+     */
+    public void setTokenSize(int tokenSize) {
+        this.tokenSize = tokenSize;
+    }
+
+    /**
+     * Sets the outcome
+     *
+     * @param outcome the outcome
+     */
+    public void setOutcome(String outcome) {
+        this.outcome = outcome;
+    }
+}
@@ -0,0 +1,54 @@
+package it.enginious.fjwt.core.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * Emitted when a request carrying a token is authenticated by the request filter.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Name(FjwtRequestAuthenticationEvent.NAME)
+@Label("Request Authentication")
+@Description("Authentication of a request carrying a token")
+public class FjwtRequestAuthenticationEvent extends FjwtEvent {
+
+    /**
+     * The event name
+     */
+    public static final String NAME = "it.enginious.fjwt.RequestAuthentication";
+
+    /**
+     * The signature algorithm
+     */
+    @Label("Algorithm")
+    protected String algorithm;
+
+    /**
+     * The time spent checking the token through the token invalidator
+     */
+    @Label("Invalidator Latency")
+    @Timespan
+    protected long invalidatorLatency;
+
+    /**
+     * Sets the signature algorithm
+     *
+     * @param algorithm the algorithm
+     */
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+
+    /**
+     * Sets the invalidator latency
+     *
+     * @param invalidatorLatency the latency in nanoseconds
+     */
+    public void setInvalidatorLatency(long invalidatorLatency) {
+        this.invalidatorLatency = invalidatorLatency;
+    }
+}
@@ -0,0 +1,37 @@
+package it.enginious.fjwt.core.jfr;
+
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Emitted when a token is parsed and its signature verified.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Name(FjwtTokenVerificationEvent.NAME)
+@Label("Token Verification")
+@Description("Token parsing and signature verification")
+public class FjwtTokenVerificationEvent extends FjwtEvent {
+
+    /**
+     * The event name
+     */
+    public static final String NAME = "it.enginious.fjwt.TokenVerification";
+
+    /**
+     * The signature algorithm
+     */
+    @Label("Algorithm")
+    protected String algorithm;
+
+    /**
+     * Sets the signature algorithm
+     *
+     * @param algorithm the algorithm
+     */
+    public void setAlgorithm(String algorithm) {
+        this.algorithm = algorithm;
+    }
+}
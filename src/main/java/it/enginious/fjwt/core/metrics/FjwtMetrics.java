@@ -0,0 +1,135 @@
+package it.enginious.fjwt.core.metrics;
+
+import it.enginious.fjwt.core.FjwtFailureReason;
+
+/**
+ * Collects measurements about every stage of the authentication. All durations are expressed in
+ * nanoseconds.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+public interface FjwtMetrics {
+
+    /**
+     * Operation name used when the extractors chain adds claims to a new token
+     */
+    String GET_CLAIMS = "getClaims";
+    /**
+     * Operation name used when the extractors chain adds data to a user rebuilt from a token
+     */
+    String ADD_DATA = "addData";
+    /**
+     * Operation name used when a token is stored through the token invalidator
+     */
+    String STORE = "store";
+    /**
+     * Operation name used when a token is checked through the token invalidator
+     */
+    String WAS_INVALIDATED = "wasInvalidated";
+    /**
+     * Source name used for issued tokens
+     */
+    String ISSUED = "issued";
+    /**
+     * Source name used for tokens received with a request
+     */
+    String RECEIVED = "received";
+    /**
+     * Filter stage checking if the request is already authenticated
+     */
+    String STAGE_CONTEXT = "context";
+    /**
+     * Filter stage extracting the token from the request
+     */
+    String STAGE_EXTRACTION = "extraction";
+    /**
+     * Filter stage looking up the token among the recently refused ones
+     */
+    String STAGE_NEGATIVE_CACHE = "negative_cache";
+    /**
+     * Filter stage pre-checking the token expiration without verifying it
+     */
+    String STAGE_EXPIRATION = "expiration";
+    /**
+     * Filter stage parsing the token and verifying its signature
+     */
+    String STAGE_VERIFICATION = "verification";
+    /**
+     * Filter stage rebuilding the user from the verified claims
+     */
+    String STAGE_USER = "user";
+    /**
+     * Filter stage checking if the token was revoked
+     */
+    String STAGE_REVOCATION = "revocation";
+    /**
+     * Filter stage adding the authentication to the security context
+     */
+    String STAGE_AUTHENTICATION = "authentication";
+
+    /**
+     * Records the time spent extracting the token from the request
+     *
+     * @param nanos the elapsed time
+     */
+    void recordTokenExtraction(long nanos);
+
+    /**
+     * Records the time spent parsing the token and verifying its signature
+     *
+     * @param nanos the elapsed time
+     */
+    void recordTokenVerification(long nanos);
+
+    /**
+     * Records the time spent in the extractors chain
+     *
+     * @param operation the operation, one of {@link #GET_CLAIMS} or {@link #ADD_DATA}
+     * @param nanos     the elapsed time
+     */
+    void recordExtractorChain(String operation, long nanos);
+
+    /**
+     * Records the time spent calling the token invalidator
+     *
+     * @param operation the operation, one of {@link #STORE} or {@link #WAS_INVALIDATED}
+     * @param nanos     the elapsed time
+     */
+    void recordInvalidator(String operation, long nanos);
+
+    /**
+     * Records the time spent issuing a token
+     *
+     * @param nanos the elapsed time
+     */
+    void recordTokenIssuance(long nanos);
+
+    /**
+     * Records the size of a token
+     *
+     * @param source the source, one of {@link #ISSUED} or {@link #RECEIVED}
+     * @param length the token length
+     */
+    void recordTokenSize(String source, int length);
+
+    /**
+     * Records the time spent in a stage of the request filter
+     *
+     * @param stage the stage, one of the {@code STAGE_} constants
+     * @param nanos the elapsed time
+     */
+    void recordFilterStage(String stage, long nanos);
+
+    /**
+     * Counts a refused token
+     *
+     * @param reason the reason why the token was refused
+     */
+    void recordFailure(FjwtFailureReason reason);
+
+    /**
+     * Counts a token that was not issued because an independent extractor failed or timed out
+     */
+    void recordExtractionFailure();
+}
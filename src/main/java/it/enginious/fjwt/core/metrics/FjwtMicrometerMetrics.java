@@ -0,0 +1,200 @@
+package it.enginious.fjwt.core.metrics;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import it.enginious.fjwt.core.FjwtFailureReason;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * A {@link FjwtMetrics} implementation backed by Micrometer. All meters are registered when this
+ * object is created, so recording a measurement never looks up the registry.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+public class FjwtMicrometerMetrics implements FjwtMetrics {
+
+    /**
+     * Prefix of all the meter names
+     */
+    public static final String PREFIX = "fjwt";
+
+    private static final String OPERATION = "operation";
+    private static final String SOURCE = "source";
+    private static final String STAGE = "stage";
+
+    private final Timer tokenExtraction;
+    private final Timer tokenVerification;
+    private final Timer getClaims;
+    private final Timer addData;
+    private final Timer store;
+    private final Timer wasInvalidated;
+    private final Timer tokenIssuance;
+    private final DistributionSummary issuedTokenSize;
+    private final DistributionSummary receivedTokenSize;
+    private final Map<FjwtFailureReason, Counter> failures = new EnumMap<>(FjwtFailureReason.class);
+    private final Counter extractionFailures;
+    private final Map<String, Timer> filterStages;
+
+    /**
+     * Registers all the meters in the supplied registry
+     *
+     * @param registry the meter registry
+     */
+    public FjwtMicrometerMetrics(MeterRegistry registry) {
+        tokenExtraction =
+                Timer.builder(PREFIX + ".token.extraction")
+                        .description("Time spent extracting the token from the request")
+                        .register(registry);
+        tokenVerification =
+                Timer.builder(PREFIX + ".token.verification")
+                        .description("Time spent parsing the token and verifying its signature")
+                        .register(registry);
+        getClaims = extractorChainTimer(registry, GET_CLAIMS);
+        addData = extractorChainTimer(registry, ADD_DATA);
+        store = invalidatorTimer(registry, STORE);
+        wasInvalidated = invalidatorTimer(registry, WAS_INVALIDATED);
+        tokenIssuance =
+                Timer.builder(PREFIX + ".token.issuance")
+                        .description("Time spent issuing a token")
+                        .register(registry);
+        extractionFailures =
+                Counter.builder(PREFIX + ".extractors.failures")
+                        .description("Number of tokens not issued because an independent extractor failed")
+                        .register(registry);
+        issuedTokenSize = tokenSizeSummary(registry, ISSUED);
+        receivedTokenSize = tokenSizeSummary(registry, RECEIVED);
+        filterStages =
+                Stream.of(
+                                STAGE_CONTEXT,
+                                STAGE_EXTRACTION,
+                                STAGE_NEGATIVE_CACHE,
+                                STAGE_EXPIRATION,
+                                STAGE_VERIFICATION,
+                                STAGE_USER,
+                                STAGE_REVOCATION,
+                                STAGE_AUTHENTICATION)
+                        .collect(
+                                Collectors.toUnmodifiableMap(
+                                        Function.identity(),
+                                        stage ->
+                                                Timer.builder(PREFIX + ".filter.stage")
+                                                        .description("Time spent in a stage of the request filter")
+                                                        .tag(STAGE, stage)
+                                                        .register(registry)));
+        for (FjwtFailureReason reason : FjwtFailureReason.values()) {
+            failures.put(
+                    reason,
+                    Counter.builder(PREFIX + ".token.failures")
+                            .description("Number of refused tokens")
+                            .tag("reason", reason.getValue())
+                            .register(registry));
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordTokenExtraction(long nanos) {
+        tokenExtraction.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordTokenVerification(long nanos) {
+        tokenVerification.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordExtractorChain(String operation, long nanos) {
+        (GET_CLAIMS.equals(operation) ? getClaims : addData).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordInvalidator(String operation, long nanos) {
+        (STORE.equals(operation) ? store : wasInvalidated).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordTokenIssuance(long nanos) {
+        tokenIssuance.record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordTokenSize(String source, int length) {
+        (ISSUED.equals(source) ? issuedTokenSize : receivedTokenSize).record(length);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordFilterStage(String stage, long nanos) {
+        Timer timer = filterStages.get(stage);
+        if (timer != null) {
+            timer.record(nanos, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordFailure(FjwtFailureReason reason) {
+        failures.get(reason).increment();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordExtractionFailure() {
+        extractionFailures.increment();
+    }
+
+    private static Timer extractorChainTimer(MeterRegistry registry, String operation) {
+        return Timer.builder(PREFIX + ".extractors")
+                .description("Time spent in the extractors chain")
+                .tag(OPERATION, operation)
+                .register(registry);
+    }
+
+    private static Timer invalidatorTimer(MeterRegistry registry, String operation) {
+        return Timer.builder(PREFIX + ".invalidator")
+                .description("Time spent calling the token invalidator")
+                .tag(OPERATION, operation)
+                .register(registry);
+    }
+
+    private static DistributionSummary tokenSizeSummary(MeterRegistry registry, String source) {
+        return DistributionSummary.builder(PREFIX + ".token.size")
+                .description("Size of the tokens")
+                .baseUnit("bytes")
+                .tag(SOURCE, source)
+                .publishPercentileHistogram()
+                .register(registry);
+    }
+}
@@ -0,0 +1,84 @@
+package it.enginious.fjwt.core.metrics;
+
+import it.enginious.fjwt.core.FjwtFailureReason;
+
+/**
+ * A noop metrics collector that does nothing
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+public final class NoopFjwtMetrics implements FjwtMetrics {
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordTokenExtraction(long nanos) {
+        // do nothing
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordTokenVerification(long nanos) {
+        // do nothing
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordExtractorChain(String operation, long nanos) {
+        // do nothing
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordInvalidator(String operation, long nanos) {
+        // do nothing
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordTokenIssuance(long nanos) {
+        // do nothing
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordTokenSize(String source, int length) {
+        // do nothing
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordFilterStage(String stage, long nanos) {
+        // do nothing
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordFailure(FjwtFailureReason reason) {
+        // do nothing
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void recordExtractionFailure() {
+        // do nothing
+    }
+}
@@ -0,0 +1,46 @@
+package it.enginious.fjwt.reactive;
+
+import org.springframework.security.authentication.AbstractAuthenticationToken;
+
+import java.util.Collections;
+
+/**
+ * An unauthenticated request carrying a bearer token, authenticated by {@link
+ * FjwtReactiveAuthenticationManager}.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+public class FjwtBearerTokenAuthentication extends AbstractAuthenticationToken {
+
+    private final String token;
+
+    /**
+     * Creates a new unauthenticated request
+     *
+     * @param token the token
+     */
+    public FjwtBearerTokenAuthentication(String token) {
+        super(Collections.emptyList());
+        this.token = token;
+    }
+
+    /**
+     * Get the token
+     *
+     * @return the token
+     */
+    public String getToken() {
+        return token;
+    }
+
+    @Override
+    public Object getCredentials() {
+        return token;
+    }
+
+    @Override
+    public Object getPrincipal() {
+        return null;
+    }
+}
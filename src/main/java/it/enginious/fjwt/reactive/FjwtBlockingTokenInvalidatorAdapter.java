@@ -0,0 +1,51 @@
+package it.enginious.fjwt.reactive;
+
+import it.enginious.fjwt.core.FjwtTokenInvalidator;
+import it.enginious.fjwt.core.NoopTokenInvalidator;
+import lombok.RequiredArgsConstructor;
+import org.springframework.security.core.userdetails.UserDetails;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Scheduler;
+
+/**
+ * Adapts a blocking {@link FjwtTokenInvalidator} to {@link FjwtReactiveTokenInvalidator} by calling
+ * it on a {@link Scheduler} meant for blocking work, so that the event loop is never blocked.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@RequiredArgsConstructor
+public class FjwtBlockingTokenInvalidatorAdapter implements FjwtReactiveTokenInvalidator {
+
+    private final FjwtTokenInvalidator delegate;
+    private final Scheduler scheduler;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Void> store(UserDetails source, String token) {
+        return Mono.<Void>fromCallable(
+                        () -> {
+                            delegate.store(source, token);
+                            return null;
+                        })
+                .subscribeOn(scheduler);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Boolean> wasInvalidated(UserDetails source, String token) {
+        return Mono.fromCallable(() -> delegate.wasInvalidated(source, token)).subscribeOn(scheduler);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public boolean isNoop() {
+        return delegate instanceof NoopTokenInvalidator;
+    }
+}
@@ -0,0 +1,116 @@
+package it.enginious.fjwt.reactive;
+
+import io.jsonwebtoken.JwtException;
+import it.enginious.fjwt.core.FjwtAuthentication;
+import it.enginious.fjwt.core.FjwtFailureReason;
+import it.enginious.fjwt.core.FjwtTokenUtil;
+import it.enginious.fjwt.core.exceptions.FjwtAuthenticationException;
+import it.enginious.fjwt.core.exceptions.FjwtTokenInvalidatorException;
+import it.enginious.fjwt.core.metrics.FjwtMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Authenticates a {@link FjwtBearerTokenAuthentication}, the reactive counterpart of the checks done
+ * by {@link it.enginious.fjwt.core.FjwtRequestFilter}: the expiration is pre-checked, then the token
+ * is verified and, unless the {@link FjwtReactiveTokenInvalidator} does nothing, its revocation is
+ * checked without blocking. Refused tokens are signalled as {@link FjwtAuthenticationException}, the
+ * caller records and reports them.
+ *
+ * <p>The revocation check needs the user, which is rebuilt by the {@link
+ * it.enginious.fjwt.core.FjwtClaimsExtractor} chain on the bounded elastic scheduler, since extractors
+ * are allowed to block. When the invalidator does nothing the user is rebuilt only when the principal is
+ * first accessed, on the thread accessing it, so extractors that block should be paired with an
+ * invalidator or must not be used on reactive stacks.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FjwtReactiveAuthenticationManager implements ReactiveAuthenticationManager {
+
+    private final FjwtTokenUtil fjwtTokenUtil;
+    private final FjwtReactiveTokenInvalidator fjwtTokenInvalidator;
+    private final FjwtMetrics metrics;
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Mono<Authentication> authenticate(Authentication authentication) {
+        if (!(authentication instanceof FjwtBearerTokenAuthentication bearer)) {
+            return Mono.empty();
+        }
+        String token = bearer.getToken();
+        return Mono.fromCallable(() -> verify(token)).flatMap(verified -> checkRevocation(verified, token));
+    }
+
+    private FjwtAuthentication verify(String token) {
+        try {
+            fjwtTokenUtil.checkExpiration(token);
+            // the user is rebuilt only when the principal is accessed
+            return new FjwtAuthentication(fjwtTokenUtil.getClaimsFromToken(token), fjwtTokenUtil::getUserFromClaims);
+        } catch (JwtException | IllegalArgumentException e) {
+            throw new FjwtAuthenticationException(FjwtFailureReason.of(e), e.getMessage(), e);
+        }
+    }
+
+    private Mono<Authentication> checkRevocation(FjwtAuthentication authentication, String token) {
+        if (fjwtTokenInvalidator.isNoop()) {
+            return Mono.just(authentication);
+        }
+        return Mono.fromCallable(authentication::getPrincipal)
+                .subscribeOn(Schedulers.boundedElastic())
+                .switchIfEmpty(
+                        Mono.error(
+                                () ->
+                                        new FjwtAuthenticationException(
+                                                FjwtFailureReason.INVALID, "user can't be rebuilt from the token", null)))
+                .flatMap(userDetails -> checkRevocation(authentication, userDetails, token));
+    }
+
+    private Mono<Authentication> checkRevocation(
+            FjwtAuthentication authentication, UserDetails userDetails, String token) {
+        return Mono.defer(
+                        () -> {
+                            long start = System.nanoTime();
+                            return fjwtTokenInvalidator
+                                    .wasInvalidated(userDetails, token)
+                                    .doFinally(
+                                            signal ->
+                                                    metrics.recordInvalidator(
+                                                            FjwtMetrics.WAS_INVALIDATED, System.nanoTime() - start));
+                        })
+                .onErrorMap(
+                        FjwtTokenInvalidatorException.class,
+                        e -> {
+                            log.error(
+                                    String.format(
+                                            "error while checking if token was invalidated for user [%s]:",
+                                            userDetails.getUsername()),
+                                    e);
+                            return new FjwtAuthenticationException(
+                                    FjwtFailureReason.INVALIDATOR_ERROR, e.getMessage(), e);
+                        })
+                // an invalidator that knows nothing about the token completes empty
+                .defaultIfEmpty(false)
+                .flatMap(
+                        revoked -> {
+                            if (Boolean.TRUE.equals(revoked)) {
+                                log.debug("token was invalidated for user [{}]", userDetails.getUsername());
+                                return Mono.error(
+                                        new FjwtAuthenticationException(
+                                                FjwtFailureReason.REVOKED, "token was invalidated", null));
+                            }
+                            return Mono.just(authentication);
+                        });
+    }
+}
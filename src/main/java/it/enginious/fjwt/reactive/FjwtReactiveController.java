@@ -0,0 +1,172 @@
+package it.enginious.fjwt.reactive;
+
+import it.enginious.fjwt.core.FjwtConfig;
+import it.enginious.fjwt.core.FjwtController;
+import it.enginious.fjwt.core.FjwtFailureReason;
+import it.enginious.fjwt.core.FjwtTokenUtil;
+import it.enginious.fjwt.core.exceptions.FjwtClaimsExtractionException;
+import it.enginious.fjwt.core.exceptions.FjwtTokenInvalidatorException;
+import it.enginious.fjwt.core.jfr.FjwtEvent;
+import it.enginious.fjwt.core.jfr.FjwtTokenIssuanceEvent;
+import it.enginious.fjwt.core.metrics.FjwtMetrics;
+import it.enginious.fjwt.dto.FjwtRequest;
+import it.enginious.fjwt.dto.FjwtResponse;
+import jakarta.validation.Valid;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.authentication.UserDetailsRepositoryReactiveAuthenticationManager;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+/**
+ * Jwt authentication controller for reactive stacks, the counterpart of {@link FjwtController}.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+@CrossOrigin
+@RestController
+public class FjwtReactiveController {
+
+    private final ReactiveAuthenticationManager authenticationManager;
+    private final FjwtTokenUtil fjwtTokenUtil;
+    private final FjwtReactiveTokenInvalidator fjwtTokenInvalidator;
+    private final FjwtMetrics metrics;
+
+    /**
+     * Creates a new controller, credentials are checked by a {@link
+     * UserDetailsRepositoryReactiveAuthenticationManager}
+     *
+     * @param userDetailsService   the user details service
+     * @param passwordEncoder      the password encoder
+     * @param fjwtTokenUtil        the token util
+     * @param fjwtTokenInvalidator the token invalidator
+     * @param metrics              the metrics
+     */
+    public FjwtReactiveController(
+            ReactiveUserDetailsService userDetailsService,
+            PasswordEncoder passwordEncoder,
+            FjwtTokenUtil fjwtTokenUtil,
+            FjwtReactiveTokenInvalidator fjwtTokenInvalidator,
+            FjwtMetrics metrics) {
+        UserDetailsRepositoryReactiveAuthenticationManager manager =
+                new UserDetailsRepositoryReactiveAuthenticationManager(userDetailsService);
+        manager.setPasswordEncoder(passwordEncoder);
+        this.authenticationManager = manager;
+        this.fjwtTokenUtil = fjwtTokenUtil;
+        this.fjwtTokenInvalidator = fjwtTokenInvalidator;
+        this.metrics = metrics;
+    }
+
+    /**
+     * Authentication endpoint, you can set this path through {@link FjwtConfig#endpoint}.
+     *
+     * @param request a {@link FjwtRequest}
+     * @return the authentication response which is {@link HttpStatus#OK} in case of success, {@link
+     * HttpStatus#SERVICE_UNAVAILABLE} when the claims of the token can't be extracted and {@link
+     * HttpStatus#UNAUTHORIZED} in case of any other failure.
+     */
+    @PostMapping("${fjwt.endpoint:/authenticate}")
+    public Mono<ResponseEntity<FjwtResponse>> createAuthenticationToken(
+            @Valid @RequestBody FjwtRequest request) {
+
+        return Mono.defer(
+                () -> {
+                    FjwtTokenIssuanceEvent event = new FjwtTokenIssuanceEvent();
+                    event.begin();
+                    long start = System.nanoTime();
+                    String[] outcome = {FjwtEvent.AUTHENTICATION_FAILED};
+                    log.debug("processing request for user [{}]", request.getUsername());
+
+                    return authenticationManager
+                            .authenticate(
+                                    new UsernamePasswordAuthenticationToken(request.getUsername(), request.getPassword()))
+                            .map(authentication -> (UserDetails) authentication.getPrincipal())
+                            .flatMap(
+                                    user -> {
+                                        String token = fjwtTokenUtil.generateToken(user);
+                                        event.setTokenSize(token.length());
+                                        return store(user, token, event).thenReturn(token);
+                                    })
+                            .map(
+                                    token -> {
+                                        metrics.recordTokenIssuance(System.nanoTime() - start);
+                                        outcome[0] = FjwtEvent.SUCCESS;
+                                        return ResponseEntity.ok(FjwtResponse.builder().token(token).build());
+                                    })
+                            .onErrorResume(
+                                    AuthenticationException.class,
+                                    e -> {
+                                        log.error(
+                                                String.format(
+                                                        "error occurred while processing request for user [%s]:",
+                                                        request.getUsername()),
+                                                e);
+                                        return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+                                    })
+                            .onErrorResume(
+                                    FjwtTokenInvalidatorException.class,
+                                    e -> {
+                                        outcome[0] = FjwtFailureReason.INVALIDATOR_ERROR.getValue();
+                                        log.error(
+                                                String.format(
+                                                        "error occurred while storing token for user [%s]",
+                                                        request.getUsername()),
+                                                e);
+                                        return Mono.just(ResponseEntity.status(HttpStatus.UNAUTHORIZED).build());
+                                    })
+                            .onErrorResume(
+                                    FjwtClaimsExtractionException.class,
+                                    e -> {
+                                        outcome[0] = FjwtEvent.EXTRACTION_FAILED;
+                                        metrics.recordExtractionFailure();
+                                        log.error(
+                                                String.format(
+                                                        "error occurred while extracting the claims for user [%s]",
+                                                        request.getUsername()),
+                                                e);
+                                        return Mono.just(
+                                                ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build());
+                                    })
+                            .doFinally(
+                                    signal -> {
+                                        event.end();
+                                        if (event.shouldCommit()) {
+                                            event.setAlgorithm(fjwtTokenUtil.getAlgorithm());
+                                            event.setOutcome(outcome[0]);
+                                            event.commit();
+                                        }
+                                    });
+                });
+    }
+
+    private Mono<Void> store(UserDetails user, String token, FjwtTokenIssuanceEvent event) {
+        if (fjwtTokenInvalidator.isNoop()) {
+            return Mono.empty();
+        }
+        return Mono.defer(
+                () -> {
+                    log.debug("storing token for user [{}]", user.getUsername());
+                    long storeStart = System.nanoTime();
+                    return fjwtTokenInvalidator
+                            .store(user, token)
+                            .doFinally(
+                                    signal -> {
+                                        long elapsed = System.nanoTime() - storeStart;
+                                        metrics.recordInvalidator(FjwtMetrics.STORE, elapsed);
+                                        event.setInvalidatorLatency(elapsed);
+                                    });
+                });
+    }
+}
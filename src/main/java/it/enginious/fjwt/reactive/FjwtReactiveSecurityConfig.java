@@ -0,0 +1,130 @@
+package it.enginious.fjwt.reactive;
+
+import it.enginious.fjwt.core.FjwtConfig;
+import it.enginious.fjwt.core.FjwtFailureReporter;
+import it.enginious.fjwt.core.FjwtTokenInvalidator;
+import it.enginious.fjwt.core.metrics.FjwtMetrics;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.config.annotation.web.reactive.EnableWebFluxSecurity;
+import org.springframework.security.config.web.server.SecurityWebFiltersOrder;
+import org.springframework.security.config.web.server.ServerHttpSecurity;
+import org.springframework.security.core.userdetails.ReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.UserDetailsService;
+import org.springframework.security.web.server.SecurityWebFilterChain;
+import org.springframework.security.web.server.authentication.HttpStatusServerEntryPoint;
+import org.springframework.security.web.server.context.NoOpServerSecurityContextRepository;
+import org.springframework.security.web.server.util.matcher.NegatedServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+/**
+ * Fjwt web security configuration for reactive stacks. The blocking {@link FjwtTokenInvalidator} and
+ * {@link UserDetailsService} beans are adapted by default, their calls run on {@link
+ * Schedulers#boundedElastic()} so that the event loop is never blocked.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+@Configuration
+@EnableWebFluxSecurity
+@RequiredArgsConstructor
+public class FjwtReactiveSecurityConfig {
+
+    private static final String DEFAULT_BEAN_REGISTRATION_PATTERN =
+            "registering bean of type [{}] as default [{}]";
+
+    private final FjwtConfig fjwtConfig;
+
+    /**
+     * register the default {@link FjwtReactiveTokenInvalidator}
+     *
+     * @param tokenInvalidator the blocking token invalidator
+     * @return the default reactive token invalidator bean
+     */
+    @Bean
+    @ConditionalOnMissingBean(FjwtReactiveTokenInvalidator.class)
+    public FjwtReactiveTokenInvalidator reactiveTokenInvalidator(FjwtTokenInvalidator tokenInvalidator) {
+
+        log.debug(
+                DEFAULT_BEAN_REGISTRATION_PATTERN,
+                FjwtBlockingTokenInvalidatorAdapter.class.getName(),
+                FjwtReactiveTokenInvalidator.class.getName());
+        return new FjwtBlockingTokenInvalidatorAdapter(tokenInvalidator, Schedulers.boundedElastic());
+    }
+
+    /**
+     * register the default {@link ReactiveUserDetailsService}
+     *
+     * @param userDetailsService the blocking user details service
+     * @return the default reactive user details service bean
+     */
+    @Bean
+    @ConditionalOnMissingBean(ReactiveUserDetailsService.class)
+    public ReactiveUserDetailsService reactiveUserDetailsService(UserDetailsService userDetailsService) {
+
+        log.debug(
+                DEFAULT_BEAN_REGISTRATION_PATTERN,
+                userDetailsService.getClass().getName(),
+                ReactiveUserDetailsService.class.getName());
+        return username ->
+                Mono.fromCallable(() -> userDetailsService.loadUserByUsername(username))
+                        .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    /**
+     * register the {@link SecurityWebFilterChain}
+     *
+     * @param http                  the server http security
+     * @param authenticationManager the token authentication manager
+     * @param metrics               the metrics
+     * @param failureReporter       reports the refused tokens
+     * @return the security web filter chain bean
+     */
+    @Bean
+    public SecurityWebFilterChain securityWebFilterChain(
+            ServerHttpSecurity http,
+            FjwtReactiveAuthenticationManager authenticationManager,
+            FjwtMetrics metrics,
+            FjwtFailureReporter failureReporter) {
+        log.debug(
+                "configuring [{}]: paths that don't need authentication are [{}]",
+                ServerHttpSecurity.class.getName(),
+                String.join(", ", fjwtConfig.getAllUnsecuredEndpoints()));
+
+        if (!fjwtConfig.getIgnored().isEmpty()) {
+            log.debug(
+                    "configuring [{}]: paths served without security filters are [{}]",
+                    ServerHttpSecurity.class.getName(),
+                    String.join(", ", fjwtConfig.getIgnored()));
+            http.securityMatcher(
+                    new NegatedServerWebExchangeMatcher(
+                            ServerWebExchangeMatchers.pathMatchers(fjwtConfig.getIgnored().toArray(String[]::new))));
+        }
+
+        return http.csrf(ServerHttpSecurity.CsrfSpec::disable)
+                .httpBasic(ServerHttpSecurity.HttpBasicSpec::disable)
+                .formLogin(ServerHttpSecurity.FormLoginSpec::disable)
+                .securityContextRepository(NoOpServerSecurityContextRepository.getInstance())
+                .authorizeExchange(
+                        exchange ->
+                                exchange.pathMatchers(fjwtConfig.getAllUnsecuredEndpoints())
+                                        .permitAll()
+                                        .anyExchange()
+                                        .authenticated())
+                .exceptionHandling(
+                        exceptionHandling ->
+                                exceptionHandling.authenticationEntryPoint(
+                                        new HttpStatusServerEntryPoint(HttpStatus.UNAUTHORIZED)))
+                .addFilterAt(
+                        new FjwtWebFilter(authenticationManager, fjwtConfig, metrics, failureReporter),
+                        SecurityWebFiltersOrder.AUTHENTICATION)
+                .build();
+    }
+}
@@ -0,0 +1,44 @@
+package it.enginious.fjwt.reactive;
+
+import it.enginious.fjwt.core.FjwtTokenInvalidator;
+import it.enginious.fjwt.core.exceptions.FjwtTokenInvalidatorException;
+import org.springframework.security.core.userdetails.UserDetails;
+import reactor.core.publisher.Mono;
+
+/**
+ * The logic for token invalidation on reactive stacks, the non-blocking counterpart of {@link
+ * FjwtTokenInvalidator}. Errors are signalled as {@link FjwtTokenInvalidatorException}.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+public interface FjwtReactiveTokenInvalidator {
+
+    /**
+     * Stores token in external system
+     *
+     * @param source the user
+     * @param token  the token
+     * @return completes when the token is stored
+     */
+    Mono<Void> store(UserDetails source, String token);
+
+    /**
+     * Checks if the token was invalidated
+     *
+     * @param source the user
+     * @param token  the token
+     * @return true if the token was invalidated otherwise false, completing empty means the token was
+     * not invalidated
+     */
+    Mono<Boolean> wasInvalidated(UserDetails source, String token);
+
+    /**
+     * Check if this invalidator does nothing, so that callers can skip it entirely
+     *
+     * @return true if this invalidator does nothing
+     */
+    default boolean isNoop() {
+        return false;
+    }
+}
@@ -0,0 +1,170 @@
+package it.enginious.fjwt.reactive;
+
+import it.enginious.fjwt.core.FjwtAuthentication;
+import it.enginious.fjwt.core.FjwtBearerTokenExtractor;
+import it.enginious.fjwt.core.FjwtConfig;
+import it.enginious.fjwt.core.FjwtFailureReason;
+import it.enginious.fjwt.core.FjwtFailureReporter;
+import it.enginious.fjwt.core.FjwtNegativeTokenCache;
+import it.enginious.fjwt.core.FjwtRequestFilter;
+import it.enginious.fjwt.core.exceptions.FjwtAuthenticationException;
+import it.enginious.fjwt.core.exceptions.FjwtInvalidTokenException;
+import it.enginious.fjwt.core.metrics.FjwtMetrics;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.security.authentication.ReactiveAuthenticationManager;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextImpl;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatcher;
+import org.springframework.security.web.server.util.matcher.ServerWebExchangeMatchers;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.WebFilter;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.util.Objects;
+import java.util.function.Function;
+
+/**
+ * Check if a token is supplied in request and its validity, the reactive counterpart of {@link
+ * FjwtRequestFilter}. If a valid token is found the authentication is added to the reactive {@link
+ * org.springframework.security.core.context.SecurityContext} of the rest of the chain and its claims
+ * are published as the {@link FjwtRequestFilter#CLAIMS_ATTRIBUTE} exchange attribute. Requests that
+ * are already authenticated are left as they are.
+ *
+ * @author Giuseppe Milazzo
+ * @since 3.2.0
+ */
+@Slf4j
+public class FjwtWebFilter implements WebFilter {
+
+    private final ReactiveAuthenticationManager authenticationManager;
+    private final FjwtMetrics metrics;
+    private final FjwtFailureReporter failureReporter;
+    private final ServerWebExchangeMatcher unsecuredEndpointsMatcher;
+    private final FjwtBearerTokenExtractor bearerTokenExtractor;
+    private final FjwtNegativeTokenCache negativeTokenCache;
+
+    /**
+     * Creates a new filter
+     *
+     * @param authenticationManager authenticates the tokens
+     * @param fjwtConfig            the configuration
+     * @param metrics               the metrics
+     * @param failureReporter       reports the refused tokens
+     */
+    public FjwtWebFilter(
+            ReactiveAuthenticationManager authenticationManager,
+            FjwtConfig fjwtConfig,
+            FjwtMetrics metrics,
+            FjwtFailureReporter failureReporter) {
+        this.authenticationManager = authenticationManager;
+        this.metrics = metrics;
+        this.failureReporter = failureReporter;
+        this.unsecuredEndpointsMatcher = ServerWebExchangeMatchers.pathMatchers(fjwtConfig.getAllUnsecuredEndpoints());
+        this.bearerTokenExtractor = new FjwtBearerTokenExtractor(fjwtConfig.getToken().getMaxLength());
+        int negativeCacheSize = fjwtConfig.getToken().getNegativeCacheSize();
+        this.negativeTokenCache =
+                negativeCacheSize > 0
+                        ? new FjwtNegativeTokenCache(negativeCacheSize, fjwtConfig.getToken().getNegativeCacheTtl())
+                        : null;
+    }
+
+    @Override
+    public Mono<Void> filter(ServerWebExchange exchange, WebFilterChain chain) {
+        return unsecuredEndpointsMatcher
+                .matches(exchange)
+                .flatMap(
+                        match -> {
+                            if (match.isMatch()) {
+                                log.debug(
+                                        "request is for [{}] which is an unsecured endpoint, bypassing chain",
+                                        exchange.getRequest().getPath());
+                                return chain.filter(exchange);
+                            }
+                            return authenticateUnlessAuthenticated(exchange, chain);
+                        });
+    }
+
+    private Mono<Void> authenticateUnlessAuthenticated(ServerWebExchange exchange, WebFilterChain chain) {
+        return ReactiveSecurityContextHolder.getContext()
+                .mapNotNull(SecurityContext::getAuthentication)
+                .hasElement()
+                .flatMap(
+                        authenticated -> {
+                            if (authenticated) {
+                                log.debug("request is already authenticated");
+                                return chain.filter(exchange);
+                            }
+                            return authenticate(exchange, chain);
+                        });
+    }
+
+    private Mono<Void> authenticate(ServerWebExchange exchange, WebFilterChain chain) {
+        String token;
+        long start = System.nanoTime();
+        try {
+            token =
+                    bearerTokenExtractor.extract(
+                            exchange.getRequest().getHeaders().getFirst(FjwtBearerTokenExtractor.AUTHORIZATION_HEADER));
+        } catch (FjwtInvalidTokenException e) {
+            refuse(exchange, null, e.getReason(), e);
+            return chain.filter(exchange);
+        } finally {
+            metrics.recordTokenExtraction(System.nanoTime() - start);
+        }
+        if (Objects.isNull(token)) {
+            log.debug("token not found with prefix [{}]", FjwtBearerTokenExtractor.BEARER_PREFIX);
+            return chain.filter(exchange);
+        }
+        metrics.recordTokenSize(FjwtMetrics.RECEIVED, token.length());
+
+        if (Objects.nonNull(negativeTokenCache)) {
+            FjwtFailureReason reason = negativeTokenCache.get(token);
+            if (Objects.nonNull(reason)) {
+                log.debug("token was recently refused with reason [{}]", reason.getValue());
+                refuse(exchange, null, reason, null);
+                return chain.filter(exchange);
+            }
+        }
+
+        return authenticationManager
+                .authenticate(new FjwtBearerTokenAuthentication(token))
+                .onErrorResume(
+                        FjwtAuthenticationException.class,
+                        e -> {
+                            refuse(exchange, token, e.getReason(), e);
+                            return Mono.empty();
+                        })
+                .map(
+                        authentication -> {
+                            log.debug("adding authentication for user [{}] to security context", authentication.getName());
+                            if (authentication instanceof FjwtAuthentication fjwtAuthentication) {
+                                exchange.getAttributes()
+                                        .put(FjwtRequestFilter.CLAIMS_ATTRIBUTE, fjwtAuthentication.getClaims());
+                            }
+                            return chain.filter(exchange)
+                                    .contextWrite(
+                                            ReactiveSecurityContextHolder.withSecurityContext(
+                                                    Mono.just(new SecurityContextImpl(authentication))));
+                        })
+                // the chain must be invoked exactly once, whether the token was accepted or not
+                .defaultIfEmpty(Mono.defer(() -> chain.filter(exchange)))
+                .flatMap(Function.identity());
+    }
+
+    private void refuse(ServerWebExchange exchange, String token, FjwtFailureReason reason, Exception e) {
+        if (Objects.nonNull(negativeTokenCache) && Objects.nonNull(token)) {
+            negativeTokenCache.put(token, reason);
+        }
+        metrics.recordFailure(reason);
+        InetSocketAddress remoteAddress = exchange.getRequest().getRemoteAddress();
+        failureReporter.report(
+                reason,
+                Objects.nonNull(remoteAddress) && Objects.nonNull(remoteAddress.getAddress())
+                        ? remoteAddress.getAddress().getHostAddress()
+                        : null,
+                e);
+    }
+}
@@ -0,0 +1,80 @@
+package it.enginious.fjwt;
+
+import jakarta.servlet.Filter;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a request on a {@code fjwt.unsecured} path, which goes through the whole security filter
+ * chain, with a request on a {@code fjwt.ignored} path, which bypasses it.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FjwtSecurityFilterChainBenchmark {
+
+    private static final FilterChain CHAIN = (req, res) -> {
+    };
+
+    private ConfigurableApplicationContext context;
+
+    private Filter springSecurityFilterChain;
+
+    private MockHttpServletRequest unsecured;
+
+    private MockHttpServletRequest ignored;
+
+    @Setup
+    public void setup() {
+        context =
+                new SpringApplicationBuilder(Application.class)
+                        .properties(
+                                "server.port=0",
+                                "logging.level.it.enginious.fjwt=warn",
+                                "fjwt.unsecured[0]=/unsecured/health",
+                                "fjwt.ignored[0]=/ignored/health")
+                        .run();
+        springSecurityFilterChain = context.getBean("springSecurityFilterChain", Filter.class);
+        unsecured = request("/unsecured/health");
+        ignored = request("/ignored/health");
+    }
+
+    @TearDown
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public MockHttpServletResponse unsecured() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        springSecurityFilterChain.doFilter(unsecured, response, CHAIN);
+        return response;
+    }
+
+    @Benchmark
+    public MockHttpServletResponse ignored() throws Exception {
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        springSecurityFilterChain.doFilter(ignored, response, CHAIN);
+        return response;
+    }
+
+    private static MockHttpServletRequest request(String path) {
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", path);
+        request.setServletPath(path);
+        return request;
+    }
+
+    @EnableAutoConfiguration
+    static class Application {
+    }
+}
@@ -0,0 +1,47 @@
+package it.enginious.fjwt.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.enginious.fjwt.core.metrics.FjwtMetrics;
+import it.enginious.fjwt.core.metrics.FjwtMicrometerMetrics;
+import it.enginious.fjwt.core.metrics.NoopFjwtMetrics;
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FjwtMetricsAutoconfigurationTest {
+
+    private final ApplicationContextRunner runner =
+            new ApplicationContextRunner()
+                    .withConfiguration(AutoConfigurations.of(FjwtMetricsAutoconfiguration.class));
+
+    @Test
+    void whenMeterRegistryIsPresentShouldRegisterMicrometerMetrics() {
+        runner
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .run(
+                        context ->
+                                assertThat(context)
+                                        .getBean(FjwtMetrics.class)
+                                        .isInstanceOf(FjwtMicrometerMetrics.class));
+    }
+
+    @Test
+    void whenMeterRegistryIsMissingShouldNotRegisterMetrics() {
+        runner.run(context -> assertThat(context).doesNotHaveBean(FjwtMetrics.class));
+    }
+
+    @Test
+    void whenMetricsAreAlreadyDefinedShouldBackOff() {
+        runner
+                .withBean(MeterRegistry.class, SimpleMeterRegistry::new)
+                .withBean(FjwtMetrics.class, NoopFjwtMetrics::new)
+                .run(
+                        context ->
+                                assertThat(context)
+                                        .getBean(FjwtMetrics.class)
+                                        .isInstanceOf(NoopFjwtMetrics.class));
+    }
+}
@@ -0,0 +1,25 @@
+package it.enginious.fjwt.config;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.boot.test.context.runner.WebApplicationContextRunner;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FjwtWebMvcAutoconfigurationTest {
+
+    @Test
+    void whenServletWebApplicationShouldRegisterTheConfigurer() {
+        new WebApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(FjwtWebMvcAutoconfiguration.class))
+                .run(context -> assertThat(context).hasSingleBean(FjwtWebMvcAutoconfiguration.class));
+    }
+
+    @Test
+    void whenNotWebApplicationShouldNotRegisterTheConfigurer() {
+        new ApplicationContextRunner()
+                .withConfiguration(AutoConfigurations.of(FjwtWebMvcAutoconfiguration.class))
+                .run(context -> assertThat(context).doesNotHaveBean(FjwtWebMvcAutoconfiguration.class));
+    }
+}
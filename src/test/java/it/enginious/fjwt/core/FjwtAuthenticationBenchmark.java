@@ -0,0 +1,68 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.Claims;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the cost of the {@link Authentication} created by {@link FjwtRequestFilter} for each
+ * request, run it with the {@code -prof gc} option to see the allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FjwtAuthenticationBenchmark {
+
+    private MockHttpServletRequest request;
+
+    private Claims claims;
+
+    private UserDetails user;
+
+    @Setup
+    public void setup() {
+        FjwtTokenUtil tokenUtil = FjwtBenchmarkFixture.tokenUtil(FjwtBenchmarkFixture.config());
+        user = FjwtBenchmarkFixture.user();
+        claims = tokenUtil.getClaimsFromToken(tokenUtil.generateToken(user));
+        request = new MockHttpServletRequest("GET", FjwtBenchmarkFixture.SECURED_PATH);
+    }
+
+    /**
+     * What the filter used to create, with the user already built
+     */
+    @Benchmark
+    public Authentication usernamePasswordAuthenticationToken() {
+        UsernamePasswordAuthenticationToken authentication =
+                UsernamePasswordAuthenticationToken.authenticated(user, null, user.getAuthorities());
+        authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+        return authentication;
+    }
+
+    /**
+     * What the filter creates, nothing is read
+     */
+    @Benchmark
+    public Authentication fjwtAuthentication() {
+        return new FjwtAuthentication(claims, c -> user, request);
+    }
+
+    /**
+     * What the filter creates, with the principal, the authorities and the details read
+     */
+    @Benchmark
+    public Authentication fjwtAuthenticationFullyRead() {
+        FjwtAuthentication authentication = new FjwtAuthentication(claims, c -> user, request);
+        authentication.getAuthorities();
+        authentication.getDetails();
+        return authentication;
+    }
+}
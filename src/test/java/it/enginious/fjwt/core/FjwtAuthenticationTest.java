@@ -0,0 +1,183 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpSession;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.web.authentication.WebAuthenticationDetails;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FjwtAuthenticationTest {
+
+    private static final Claims CLAIMS = Jwts.claims().subject("username").build();
+
+    private static final UserDetails USER =
+            User.withUsername("username")
+                    .password("password")
+                    .authorities(new SimpleGrantedAuthority("ROLE_USER"))
+                    .build();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private FjwtAuthentication target;
+
+    @BeforeEach
+    void setUp() {
+        target =
+                new FjwtAuthentication(
+                        CLAIMS,
+                        claims -> {
+                            loads.incrementAndGet();
+                            return USER;
+                        });
+    }
+
+    @Test
+    void whenCreatedShouldNotLoadThePrincipal() {
+        assertThat(target.isAuthenticated()).isTrue();
+        assertThat(target.getName()).isEqualTo("username");
+        assertThat(target.getClaims()).isEqualTo(CLAIMS);
+        assertThat(target.getCredentials()).isNull();
+        assertThat(target.toString()).contains("username");
+        assertThat(target.isPrincipalLoaded()).isFalse();
+        assertThat(loads).hasValue(0);
+    }
+
+    @Test
+    void whenGetPrincipalShouldLoadItOnlyOnce() {
+        assertThat(target.getPrincipal()).isEqualTo(USER);
+        assertThat(target.getPrincipal()).isEqualTo(USER);
+        assertThat(target.getAuthorities()).isSameAs(USER.getAuthorities());
+        assertThat(target.isPrincipalLoaded()).isTrue();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void whenGetDetailsShouldBuildThemFromTheValuesReadOnCreation() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        MockHttpSession session = new MockHttpSession(null, "session");
+        request.setSession(session);
+        target = new FjwtAuthentication(CLAIMS, claims -> USER, request);
+
+        // the container recycles the request once it is completed
+        request.setRemoteAddr("10.0.0.2");
+        session.invalidate();
+
+        assertThat(target.getDetails())
+                .isEqualTo(new WebAuthenticationDetails("10.0.0.1", "session"))
+                .isSameAs(target.getDetails());
+    }
+
+    @Test
+    void whenRequestHasNoSessionShouldHaveNoSessionIdInDetails() {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        target = new FjwtAuthentication(CLAIMS, claims -> USER, request);
+
+        assertThat(target.getDetails()).isEqualTo(new WebAuthenticationDetails("10.0.0.1", null));
+        assertThat(request.getSession(false)).isNull();
+    }
+
+    @Test
+    void whenSerializedShouldBeReplacedByAStandardAuthentication() throws Exception {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr("10.0.0.1");
+        target = new FjwtAuthentication(CLAIMS, claims -> USER, request);
+
+        assertThat(roundTrip(target))
+                .isInstanceOfSatisfying(
+                        UsernamePasswordAuthenticationToken.class,
+                        authentication -> {
+                            assertThat(authentication.isAuthenticated()).isTrue();
+                            assertThat(authentication.getPrincipal()).isEqualTo(USER);
+                            assertThat(authentication.getAuthorities()).containsExactlyElementsOf(USER.getAuthorities());
+                            assertThat(authentication.getDetails())
+                                    .isEqualTo(new WebAuthenticationDetails("10.0.0.1", null));
+                        });
+    }
+
+    @Test
+    void whenSerializedAfterBeingUntrustedShouldBeReplacedByAnUnauthenticatedAuthentication()
+            throws Exception {
+        target.setAuthenticated(false);
+
+        assertThat(roundTrip(target))
+                .isInstanceOfSatisfying(
+                        UsernamePasswordAuthenticationToken.class,
+                        authentication -> {
+                            assertThat(authentication.isAuthenticated()).isFalse();
+                            assertThat(authentication.getPrincipal()).isEqualTo(USER);
+                            assertThat(authentication.getDetails()).isNull();
+                        });
+    }
+
+    @Test
+    void whenNoRequestIsGivenShouldHaveNoDetails() {
+        assertThat(target.getDetails()).isNull();
+    }
+
+    @Test
+    void whenPrincipalIsNullShouldHaveNoAuthorities() {
+        target = new FjwtAuthentication(CLAIMS, claims -> null);
+        assertThat(target.getAuthorities()).isEmpty();
+    }
+
+    @Test
+    void whenPrincipalCantBeRebuiltShouldNotBeAuthenticated() {
+        target =
+                new FjwtAuthentication(
+                        CLAIMS,
+                        claims -> {
+                            loads.incrementAndGet();
+                            throw new IllegalStateException("extractor failed");
+                        });
+
+        assertThat(target.isAuthenticated()).isTrue();
+        assertThat(target.getAuthorities()).isEmpty();
+        assertThat(target.getPrincipal()).isNull();
+        assertThat(target.isAuthenticated()).isFalse();
+        assertThat(loads).hasValue(1);
+    }
+
+    @Test
+    void whenPrincipalIsNullShouldNotBeAuthenticated() {
+        target = new FjwtAuthentication(CLAIMS, claims -> null);
+
+        assertThat(target.getPrincipal()).isNull();
+        assertThat(target.isAuthenticated()).isFalse();
+    }
+
+    @Test
+    void whenSetAuthenticatedShouldOnlyAllowUntrusting() {
+        assertThatThrownBy(() -> target.setAuthenticated(true))
+                .isInstanceOf(IllegalArgumentException.class);
+        target.setAuthenticated(false);
+        assertThat(target.isAuthenticated()).isFalse();
+    }
+
+    private static Object roundTrip(Object object) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return in.readObject();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthorityAuthorizationDecision;
+import org.springframework.security.authorization.AuthorizationDecision;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class FjwtAuthoritiesAuthorizationManagerTest {
+
+    private final FjwtAuthoritiesAuthorizationManager target = new FjwtAuthoritiesAuthorizationManager();
+
+    @Test
+    void whenAuthoritiesAreAnAuthoritySetShouldCheckTheBits() {
+
+        UserDetails user = mock(UserDetails.class);
+        FjwtAuthoritySet authorities =
+                FjwtAuthoritySet.of(List.of("ROLE_USER", "READ"), new FjwtGrantedAuthorityPool());
+        given(user.getAuthorities()).willAnswer(invocation -> authorities);
+        FjwtAuthentication authentication =
+                new FjwtAuthentication(Jwts.claims().subject("username").build(), claims -> user);
+
+        assertThat(target.check(() -> authentication, Set.of("ROLE_ADMIN", "READ")).isGranted()).isTrue();
+        assertThat(target.check(() -> authentication, Set.of("ROLE_ADMIN")).isGranted()).isFalse();
+    }
+
+    @Test
+    void whenAuthoritiesAreNotAnAuthoritySetShouldCompareThem() {
+
+        UsernamePasswordAuthenticationToken authentication =
+                UsernamePasswordAuthenticationToken.authenticated(
+                        "username", null, AuthorityUtils.createAuthorityList("ROLE_USER"));
+
+        assertThat(target.check(() -> authentication, Set.of("ROLE_USER")).isGranted()).isTrue();
+        assertThat(target.check(() -> authentication, Set.of("ROLE_ADMIN")).isGranted()).isFalse();
+    }
+
+    @Test
+    void whenAuthoritiesAreAnAuthoritySetShouldReportTheRequiredAuthorities() {
+
+        UserDetails user = mock(UserDetails.class);
+        FjwtAuthoritySet authorities = FjwtAuthoritySet.of(List.of("ROLE_USER"), new FjwtGrantedAuthorityPool());
+        given(user.getAuthorities()).willAnswer(invocation -> authorities);
+        FjwtAuthentication authentication =
+                new FjwtAuthentication(Jwts.claims().subject("username").build(), claims -> user);
+
+        AuthorizationDecision decision = target.check(() -> authentication, List.of("ROLE_ADMIN"));
+
+        assertThat(decision).isInstanceOf(AuthorityAuthorizationDecision.class);
+        assertThat(((AuthorityAuthorizationDecision) decision).getAuthorities())
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactly("ROLE_ADMIN");
+        assertThat(decision).isNotSameAs(target.check(() -> authentication, List.of("ROLE_ADMIN")));
+    }
+
+    @Test
+    void whenThereIsNoAuthenticationShouldDeny() {
+
+        assertThat(target.check(() -> null, Set.of("ROLE_USER")).isGranted()).isFalse();
+    }
+}
@@ -0,0 +1,69 @@
+package it.enginious.fjwt.core;
+
+import it.enginious.fjwt.core.extractors.FjwtAuthoritiesExtractor;
+import it.enginious.fjwt.core.extractors.FjwtUserDetailsFlagsExtractor;
+import it.enginious.fjwt.core.metrics.NoopFjwtMetrics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares parsing and verifying a token of a user holding {@value #HELD} of {@value #DICTIONARY}
+ * authorities, when they are written by name and when they are encoded with a {@link
+ * FjwtAuthorityDictionary}. The token sizes are printed on setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FjwtAuthorityDictionaryBenchmark {
+
+    static final int DICTIONARY = 300;
+
+    static final int HELD = 60;
+
+    @Param({"false", "true"})
+    public boolean encoded;
+
+    private FjwtTokenUtil tokenUtil;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        FjwtConfig config = FjwtBenchmarkFixture.config();
+        List<String> authorities = IntStream.range(0, DICTIONARY).mapToObj(i -> "ROLE_AUTHORITY_" + i).toList();
+        FjwtGrantedAuthorityPool pool = new FjwtGrantedAuthorityPool();
+        FjwtAuthoritiesExtractor extractor =
+                new FjwtAuthoritiesExtractor(
+                        pool, encoded ? new FjwtAuthorityDictionary(1, Map.of(1, authorities), pool, 1024) : null);
+        tokenUtil =
+                new FjwtTokenUtil(
+                        Clock.systemDefaultZone(),
+                        config,
+                        new FjwtClaimsExtractorChain(List.of(extractor, new FjwtUserDetailsFlagsExtractor())),
+                        FjwtSimpleUserDetailsBuilder::new,
+                        new NoopFjwtMetrics());
+        tokenUtil.init();
+        UserDetails user =
+                User.withUsername("username")
+                        .password("password")
+                        .authorities(authorities.subList(100, 100 + HELD).toArray(String[]::new))
+                        .build();
+        token = tokenUtil.generateToken(user);
+        System.out.printf("%ntoken length with encoded=%s: %d%n", encoded, token.length());
+    }
+
+    @Benchmark
+    public UserDetails getUserFromToken() {
+        return tokenUtil.getUserFromToken(token);
+    }
+}
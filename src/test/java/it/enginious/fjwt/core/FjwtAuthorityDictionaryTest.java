@@ -0,0 +1,100 @@
+package it.enginious.fjwt.core;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+
+import java.util.List;
+import java.util.Map;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FjwtAuthorityDictionaryTest {
+
+    private static final Map<Integer, List<String>> DICTIONARIES =
+            Map.of(
+                    1, List.of("ROLE_USER", "ROLE_ADMIN"),
+                    2, List.of("ROLE_USER", "ROLE_ADMIN", "READ", "WRITE", "DELETE", "AUDIT", "EXPORT", "IMPORT", "ROLE_GUEST"));
+
+    private final FjwtGrantedAuthorityPool pool = new FjwtGrantedAuthorityPool();
+
+    private final FjwtAuthorityDictionary target = new FjwtAuthorityDictionary(2, DICTIONARIES, pool, 16);
+
+    @Test
+    void whenEncodingShouldWriteTheVersionAndTheBitsOfTheAuthoritiesInTheDictionary() {
+
+        FjwtAuthorityDictionary.Encoded encoded = target.encode(List.of("ROLE_USER", "WRITE", "OTHER", "ROLE_GUEST"));
+
+        // bits 0, 3 and 8
+        assertThat(encoded.value()).isEqualTo("2.CQE");
+        assertThat(encoded.others()).containsExactly("OTHER");
+        assertThat(target.decodeValues(encoded.value())).containsExactly("ROLE_USER", "WRITE", "ROLE_GUEST");
+    }
+
+    @Test
+    void whenNoAuthorityIsInTheDictionaryShouldEncodeNothing() {
+
+        FjwtAuthorityDictionary.Encoded encoded = target.encode(List.of("OTHER"));
+
+        assertThat(encoded.value()).isNull();
+        assertThat(encoded.others()).containsExactly("OTHER");
+    }
+
+    @Test
+    void whenDecodingShouldShareTheDecodedSet() {
+
+        FjwtAuthoritySet decoded = target.decode("2.CQ");
+
+        assertThat(decoded.stream().map(GrantedAuthority::getAuthority)).containsExactlyInAnyOrder("ROLE_USER", "WRITE");
+        assertThat(target.decode("2.CQ")).isSameAs(decoded);
+    }
+
+    @Test
+    void whenDecodingAPreviousVersionShouldUseItsDictionary() {
+
+        assertThat(target.decodeValues("1.Ag")).containsExactly("ROLE_ADMIN");
+        assertThat(target.decodeValues("1.BA")).isEmpty();
+    }
+
+    @Test
+    void whenValueCantBeDecodedShouldGrantNothing() {
+
+        assertThat(target.decodeValues("3.AQ")).isEmpty();
+        assertThat(target.decodeValues("x.AQ")).isEmpty();
+        assertThat(target.decodeValues("AQ")).isEmpty();
+        assertThat(target.decodeValues("2.*")).isEmpty();
+        assertThat(target.decode("3.AQ")).isEmpty();
+    }
+
+    @Test
+    void whenCacheIsFullShouldDecodeAgain() {
+
+        FjwtAuthorityDictionary small = new FjwtAuthorityDictionary(2, DICTIONARIES, pool, 1);
+        small.decode("2.AQ");
+
+        assertThat(small.decode("2.Ag")).isNotSameAs(small.decode("2.Ag")).hasSize(1);
+    }
+
+    @Test
+    void whenEncodingManyAuthoritiesShouldBeShorterThanTheirNames() {
+
+        List<String> authorities = IntStream.range(0, 300).mapToObj(i -> "ROLE_" + i).toList();
+        FjwtAuthorityDictionary large = new FjwtAuthorityDictionary(1, Map.of(1, authorities), pool, 16);
+        List<String> held = authorities.subList(100, 160);
+
+        String encoded = large.encode(held).value();
+
+        assertThat(encoded).hasSizeLessThan(60);
+        assertThat(large.decodeValues(encoded)).containsExactlyElementsOf(held);
+    }
+
+    @Test
+    void whenDictionaryIsMisconfiguredShouldThrow() {
+
+        assertThatThrownBy(() -> new FjwtAuthorityDictionary(3, DICTIONARIES, pool, 16))
+                .isInstanceOf(IllegalStateException.class);
+        assertThatThrownBy(() -> new FjwtAuthorityDictionary(1, Map.of(1, List.of("A", "A")), pool, 16))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
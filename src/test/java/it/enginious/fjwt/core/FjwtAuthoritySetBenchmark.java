@@ -0,0 +1,63 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.authorization.AuthoritiesAuthorizationManager;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares a {@code @Secured} check of a user with {@value #AUTHORITIES} authorities, the required
+ * authority being the last one, when the authorities are a list and when they are a {@link
+ * FjwtAuthoritySet}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FjwtAuthoritySetBenchmark {
+
+    static final int AUTHORITIES = 60;
+
+    private final AuthoritiesAuthorizationManager listManager = new AuthoritiesAuthorizationManager();
+
+    private final FjwtAuthoritiesAuthorizationManager setManager = new FjwtAuthoritiesAuthorizationManager();
+
+    private final Set<String> required = Set.of("ROLE_" + (AUTHORITIES - 1), "ROLE_MISSING");
+
+    private Authentication listAuthentication;
+
+    private Authentication setAuthentication;
+
+    @Setup
+    public void setup() {
+        FjwtBenchmarkFixture.config();
+        List<String> authorities = IntStream.range(0, AUTHORITIES).mapToObj(i -> "ROLE_" + i).toList();
+        listAuthentication =
+                UsernamePasswordAuthenticationToken.authenticated(
+                        "username", null, AuthorityUtils.createAuthorityList(authorities));
+        FjwtSimpleUserDetailsBuilder builder = new FjwtSimpleUserDetailsBuilder("username");
+        builder.authorities(FjwtAuthoritySet.of(authorities, new FjwtGrantedAuthorityPool()));
+        setAuthentication =
+                new FjwtAuthentication(Jwts.claims().subject("username").build(), claims -> builder.build());
+        setAuthentication.getPrincipal();
+    }
+
+    @Benchmark
+    public boolean listCheck() {
+        return listManager.check(() -> listAuthentication, required).isGranted();
+    }
+
+    @Benchmark
+    public boolean authoritySetCheck() {
+        return setManager.check(() -> setAuthentication, required).isGranted();
+    }
+}
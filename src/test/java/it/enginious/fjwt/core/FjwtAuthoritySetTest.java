@@ -0,0 +1,136 @@
+package it.enginious.fjwt.core;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FjwtAuthoritySetTest {
+
+    private final FjwtGrantedAuthorityPool pool = new FjwtGrantedAuthorityPool();
+
+    @Test
+    void whenCreatedShouldHoldEachAuthorityOnceInPoolOrder() {
+
+        pool.intern("ROLE_ADMIN");
+
+        FjwtAuthoritySet target = FjwtAuthoritySet.of(List.of("ROLE_USER", "ROLE_ADMIN", "ROLE_USER"), pool);
+
+        assertThat(target).hasSize(2);
+        assertThat(target.stream().map(GrantedAuthority::getAuthority)).containsExactly("ROLE_ADMIN", "ROLE_USER");
+        assertThat(target.iterator().next()).isSameAs(pool.intern("ROLE_ADMIN"));
+    }
+
+    @Test
+    void whenCheckingAuthoritiesShouldAnswerForHeldOnesOnly() {
+
+        pool.intern("ROLE_GUEST");
+        FjwtAuthoritySet target = FjwtAuthoritySet.of(List.of("ROLE_USER", "ROLE_ADMIN"), pool);
+
+        assertThat(target.hasAuthority("ROLE_USER")).isTrue();
+        assertThat(target.hasAuthority("ROLE_GUEST")).isFalse();
+        assertThat(target.hasAuthority("ROLE_UNKNOWN")).isFalse();
+        assertThat(target.hasAnyAuthority(List.of("ROLE_GUEST", "ROLE_ADMIN"))).isTrue();
+        assertThat(target.hasAnyAuthority(List.of("ROLE_GUEST"))).isFalse();
+        assertThat(target.contains(new SimpleGrantedAuthority("ROLE_ADMIN"))).isTrue();
+        assertThat(target.contains(new SimpleGrantedAuthority("ROLE_GUEST"))).isFalse();
+        assertThat(target.contains((GrantedAuthority) () -> "ROLE_ADMIN")).isFalse();
+        assertThat(target.contains("ROLE_ADMIN")).isFalse();
+    }
+
+    @Test
+    void whenPoolIsFullShouldHoldTheOtherAuthoritiesAsTheyAre() {
+
+        FjwtGrantedAuthorityPool small = new FjwtGrantedAuthorityPool(1);
+
+        FjwtAuthoritySet target = FjwtAuthoritySet.of(List.of("ROLE_USER", "ROLE_ADMIN", "ROLE_ADMIN"), small);
+
+        assertThat(target).hasSize(2);
+        assertThat(target.stream().map(GrantedAuthority::getAuthority)).containsExactly("ROLE_USER", "ROLE_ADMIN");
+        assertThat(target.hasAuthority("ROLE_ADMIN")).isTrue();
+        assertThat(target.contains(new SimpleGrantedAuthority("ROLE_ADMIN"))).isTrue();
+    }
+
+    @Test
+    void whenAuthoritiesSpanSeveralWordsShouldIterateAllOfThem() {
+
+        List<String> authorities = IntStream.range(0, 200).filter(i -> i % 3 == 0).mapToObj(i -> "ROLE_" + i).toList();
+        IntStream.range(0, 200).forEach(i -> pool.intern("ROLE_" + i));
+
+        FjwtAuthoritySet target = FjwtAuthoritySet.of(authorities, pool);
+
+        assertThat(target).hasSize(authorities.size());
+        assertThat(target.stream().map(GrantedAuthority::getAuthority)).containsExactlyElementsOf(authorities);
+        assertThat(target.hasAuthority("ROLE_198")).isTrue();
+        assertThat(target.hasAuthority("ROLE_199")).isFalse();
+    }
+
+    @Test
+    void whenModifiedShouldThrow() {
+
+        FjwtAuthoritySet target = FjwtAuthoritySet.of(List.of("ROLE_USER"), pool);
+        Iterator<GrantedAuthority> iterator = target.iterator();
+        iterator.next();
+
+        assertThatThrownBy(() -> target.add(new SimpleGrantedAuthority("ROLE_ADMIN")))
+                .isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(iterator::remove).isInstanceOf(UnsupportedOperationException.class);
+        assertThatThrownBy(iterator::next).isInstanceOf(NoSuchElementException.class);
+    }
+
+    @Test
+    void whenEmptyShouldHoldNothing() {
+
+        FjwtAuthoritySet target = FjwtAuthoritySet.of(List.of(), pool);
+
+        assertThat(target).isEmpty();
+        assertThat(target.hasAuthority("ROLE_USER")).isFalse();
+    }
+
+    @Test
+    void whenSerializedShouldBeReadBackAsTheListOfItsAuthorities() throws Exception {
+
+        FjwtGrantedAuthorityPool small = new FjwtGrantedAuthorityPool(1);
+        FjwtAuthoritySet target = FjwtAuthoritySet.of(List.of("ROLE_USER", "ROLE_ADMIN"), small);
+
+        Object read = roundTrip(target);
+
+        assertThat(read).isInstanceOf(List.class);
+        assertThat(read).asList().containsExactly(target.toArray());
+    }
+
+    @Test
+    void whenUserHoldingTheSetIsSerializedShouldBeReadBackWithItsAuthorities() throws Exception {
+
+        FjwtUserDetails user =
+                new FjwtUserDetails(
+                        "username", FjwtAuthoritySet.of(List.of("ROLE_USER"), pool), true, true, true, true);
+
+        FjwtUserDetails read = (FjwtUserDetails) roundTrip(user);
+
+        assertThat(read.getUsername()).isEqualTo("username");
+        assertThat(read.getAuthorities()).extracting(GrantedAuthority::getAuthority).containsExactly("ROLE_USER");
+    }
+
+    private static Object roundTrip(Object object) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ObjectOutputStream(bytes)) {
+            out.writeObject(object);
+        }
+        try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            return in.readObject();
+        }
+    }
+}
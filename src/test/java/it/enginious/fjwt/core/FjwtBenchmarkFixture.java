@@ -0,0 +1,66 @@
+package it.enginious.fjwt.core;
+
+import ch.qos.logback.classic.Level;
+import ch.qos.logback.classic.Logger;
+import it.enginious.fjwt.core.extractors.FjwtAuthoritiesExtractor;
+import it.enginious.fjwt.core.extractors.FjwtUserDetailsFlagsExtractor;
+import it.enginious.fjwt.core.metrics.NoopFjwtMetrics;
+import org.slf4j.LoggerFactory;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Clock;
+import java.util.List;
+
+/**
+ * Builds the fjwt components used by the benchmarks, wired as the autoconfiguration does but
+ * without a Spring context.
+ */
+final class FjwtBenchmarkFixture {
+
+    static final String SECRET = "mZq4t7w!z%C*F)J@NcRfUjXn2r5u8x/A";
+
+    static final String SECURED_PATH = "/securedEndpoint";
+
+    private FjwtBenchmarkFixture() {
+    }
+
+    static FjwtConfig config() {
+        // test logback configuration logs at trace, which would be all we measure
+        ((Logger) LoggerFactory.getLogger("it.enginious.fjwt")).setLevel(Level.WARN);
+        FjwtConfig config = new FjwtConfig();
+        config.setAlgorithm("HS256");
+        config.setSecret(SECRET);
+        config.getFailures().setInterval(0);
+        return config;
+    }
+
+    static FjwtTokenUtil tokenUtil(FjwtConfig config) {
+        FjwtTokenUtil tokenUtil =
+                new FjwtTokenUtil(
+                        Clock.systemDefaultZone(),
+                        config,
+                        new FjwtClaimsExtractorChain(
+                                List.of(new FjwtAuthoritiesExtractor(), new FjwtUserDetailsFlagsExtractor())),
+                        FjwtSimpleUserDetailsBuilder::new,
+                        new NoopFjwtMetrics());
+        tokenUtil.init();
+        return tokenUtil;
+    }
+
+    static FjwtRequestFilter requestFilter(
+            FjwtConfig config, FjwtTokenUtil tokenUtil, FjwtTokenInvalidator tokenInvalidator) {
+        FjwtRequestFilter filter =
+                new FjwtRequestFilter(
+                        tokenUtil, tokenInvalidator, config, new NoopFjwtMetrics(), new FjwtFailureReporter(config));
+        filter.init();
+        return filter;
+    }
+
+    static UserDetails user() {
+        return User.withUsername("username")
+                .password("password")
+                .authorities("ROLE_USER", "ROLE_ADMIN", "READ", "WRITE")
+                .build();
+    }
+}
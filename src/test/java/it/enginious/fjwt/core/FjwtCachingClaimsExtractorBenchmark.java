@@ -0,0 +1,71 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ClaimsBuilder;
+import it.enginious.fjwt.core.extractors.FjwtAuthoritiesExtractor;
+import it.enginious.fjwt.core.extractors.FjwtCachingClaimsExtractor;
+import it.enginious.fjwt.core.extractors.FjwtUserDetailsFlagsExtractor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures the claims extraction of a token when an extractor calls a service taking {@code
+ * latencyMicros}, with and without a {@link FjwtCachingClaimsExtractor}, for a user logging in again.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FjwtCachingClaimsExtractorBenchmark {
+
+    @Param({"1000"})
+    public long latencyMicros;
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private FjwtClaimsExtractorChain chain;
+
+    private UserDetails user;
+
+    @Setup
+    public void setup() {
+        FjwtBenchmarkFixture.config();
+        FjwtClaimsExtractor service =
+                new FjwtClaimsExtractor() {
+
+                    @Override
+                    public void getClaims(UserDetails source, ClaimsBuilder dest) {
+                        LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+                        dest.add("tenant", source.getUsername());
+                    }
+
+                    @Override
+                    public void addData(Claims source, FjwtAbstractUserDetailsBuilder dest) {
+                        // nothing to bind
+                    }
+                };
+        chain =
+                new FjwtClaimsExtractorChain(
+                        List.of(
+                                new FjwtAuthoritiesExtractor(),
+                                new FjwtUserDetailsFlagsExtractor(),
+                                cached
+                                        ? new FjwtCachingClaimsExtractor(
+                                        service, 1024, Duration.ofMinutes(10), Duration.ofMinutes(1))
+                                        : service));
+        user = FjwtBenchmarkFixture.user();
+    }
+
+    @Benchmark
+    public Claims getClaims() {
+        return chain.getClaims(user);
+    }
+}
@@ -0,0 +1,177 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ClaimsBuilder;
+import io.jsonwebtoken.impl.DefaultClaimsBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collections;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FjwtClaimSchemaTest {
+
+    private final FjwtClaimSchema<CustomUser, CustomUserBuilder> target =
+            FjwtClaimSchema.builder(CustomUser.class, CustomUserBuilder.class)
+                    .string("dep", CustomUser::getDepartment, CustomUserBuilder::department)
+                    .strings("grp", CustomUser::getGroups, CustomUserBuilder::groups)
+                    .bool("mfa", CustomUser::isMfa, CustomUserBuilder::mfa)
+                    .integer("lvl", CustomUser::getLevel, CustomUserBuilder::level)
+                    .number("org", CustomUser::getOrganization, CustomUserBuilder::organization)
+                    .build();
+
+    @Test
+    void whenWritingAndReadingShouldBindTheClaimsToTheBuilder() {
+
+        ClaimsBuilder claimsBuilder = new DefaultClaimsBuilder();
+        target.write(new CustomUser("sales", List.of("g1", "g2"), true, 3, 5_000_000_000L), claimsBuilder);
+        Claims claims = claimsBuilder.build();
+
+        assertThat(claims).containsOnlyKeys("dep", "grp", "mfa", "lvl", "org");
+
+        CustomUser user = read(claims);
+        assertThat(user.getDepartment()).isEqualTo("sales");
+        assertThat(user.getGroups()).containsExactly("g1", "g2");
+        assertThat(user.isMfa()).isTrue();
+        assertThat(user.getLevel()).isEqualTo(3);
+        assertThat(user.getOrganization()).isEqualTo(5_000_000_000L);
+    }
+
+    @Test
+    void whenNullValuesAreWrittenShouldLeaveThemOut() {
+
+        ClaimsBuilder claimsBuilder = new DefaultClaimsBuilder();
+        target.write(new CustomUser(null, null, false, 0, 0), claimsBuilder);
+
+        assertThat(claimsBuilder.build()).containsOnlyKeys("mfa", "lvl", "org");
+    }
+
+    @Test
+    void whenClaimsAreMissingOrOfTheWrongTypeShouldLeaveTheBuilderUntouched() {
+
+        CustomUser user =
+                read(
+                        new DefaultClaimsBuilder()
+                                .add("dep", 1)
+                                .add("grp", List.of(1))
+                                .add("mfa", "true")
+                                .add("org", 1.5)
+                                .build());
+
+        assertThat(user.getDepartment()).isEqualTo("none");
+        assertThat(user.getGroups()).isEmpty();
+        assertThat(user.isMfa()).isFalse();
+        assertThat(user.getLevel()).isEqualTo(-1);
+        assertThat(user.getOrganization()).isEqualTo(-1);
+    }
+
+    @Test
+    void whenUserOrBuilderAreOfAnotherTypeShouldDoNothing() {
+
+        ClaimsBuilder claimsBuilder = new DefaultClaimsBuilder();
+        target.write(User.withUsername("username").password("password").build(), claimsBuilder);
+        FjwtSimpleUserDetailsBuilder builder = new FjwtSimpleUserDetailsBuilder("username");
+        target.read(new DefaultClaimsBuilder().add("dep", "sales").build(), builder);
+
+        assertThat(claimsBuilder.build()).isEmpty();
+        assertThat(builder.build().getUsername()).isEqualTo("username");
+    }
+
+    @Test
+    void whenKeyIsDeclaredTwiceShouldThrow() {
+
+        FjwtClaimSchema.Builder<CustomUser, CustomUserBuilder> builder =
+                FjwtClaimSchema.builder(CustomUser.class, CustomUserBuilder.class)
+                        .string("dep", CustomUser::getDepartment, CustomUserBuilder::department)
+                        .bool("dep", CustomUser::isMfa, CustomUserBuilder::mfa);
+
+        assertThatThrownBy(builder::build).isInstanceOf(IllegalStateException.class).hasMessageContaining("[dep]");
+        assertThat(target.getKeys()).containsExactly("dep", "grp", "mfa", "lvl", "org");
+    }
+
+    private CustomUser read(Claims claims) {
+        CustomUserBuilder builder = new CustomUserBuilder("username");
+        target.read(claims, builder);
+        return (CustomUser) builder.build();
+    }
+
+    static class CustomUser extends User {
+
+        private final String department;
+        private final List<String> groups;
+        private final boolean mfa;
+        private final int level;
+        private final long organization;
+
+        CustomUser(String department, List<String> groups, boolean mfa, int level, long organization) {
+            super("username", "password", Collections.emptyList());
+            this.department = department;
+            this.groups = groups;
+            this.mfa = mfa;
+            this.level = level;
+            this.organization = organization;
+        }
+
+        String getDepartment() {
+            return department;
+        }
+
+        List<String> getGroups() {
+            return groups;
+        }
+
+        boolean isMfa() {
+            return mfa;
+        }
+
+        int getLevel() {
+            return level;
+        }
+
+        long getOrganization() {
+            return organization;
+        }
+    }
+
+    static class CustomUserBuilder extends FjwtAbstractUserDetailsBuilder {
+
+        private String department = "none";
+        private List<String> groups = Collections.emptyList();
+        private boolean mfa;
+        private int level = -1;
+        private long organization = -1;
+
+        CustomUserBuilder(String username) {
+            super(username);
+        }
+
+        void department(String department) {
+            this.department = department;
+        }
+
+        void groups(List<String> groups) {
+            this.groups = groups;
+        }
+
+        void mfa(boolean mfa) {
+            this.mfa = mfa;
+        }
+
+        void level(int level) {
+            this.level = level;
+        }
+
+        void organization(long organization) {
+            this.organization = organization;
+        }
+
+        @Override
+        public UserDetails build() {
+            return new CustomUser(department, groups, mfa, level, organization);
+        }
+    }
+}
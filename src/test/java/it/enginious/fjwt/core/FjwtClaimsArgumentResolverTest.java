@@ -0,0 +1,108 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.bind.ServletRequestBindingException;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.lang.reflect.Method;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FjwtClaimsArgumentResolverTest {
+
+    private static final Claims CLAIMS =
+            Jwts.claims().subject("username").add("tenant", "42").add("enabled", true).build();
+
+    private final FjwtClaimsArgumentResolver target = new FjwtClaimsArgumentResolver();
+
+    private MockHttpServletRequest request;
+
+    private NativeWebRequest webRequest;
+
+    @BeforeEach
+    void setUp() {
+        request = new MockHttpServletRequest();
+        webRequest = new ServletWebRequest(request);
+    }
+
+    @AfterEach
+    void tearDown() {
+        SecurityContextHolder.clearContext();
+    }
+
+    @Test
+    void whenParameterIsAnnotatedShouldBeSupported() throws Exception {
+        assertThat(target.supportsParameter(parameter(0))).isTrue();
+        assertThat(target.supportsParameter(parameter(6))).isFalse();
+    }
+
+    @Test
+    void whenClaimsArePublishedShouldResolveThem() throws Exception {
+        request.setAttribute(FjwtRequestFilter.CLAIMS_ATTRIBUTE, CLAIMS);
+
+        assertThat(resolve(0)).isSameAs(CLAIMS);
+        assertThat(resolve(1)).isSameAs(CLAIMS);
+        assertThat(resolve(2)).isEqualTo("username");
+        assertThat(resolve(3)).isEqualTo(42L);
+        assertThat(resolve(4)).isEqualTo(true);
+    }
+
+    @Test
+    void whenRequestWasAlreadyAuthenticatedShouldResolveClaimsFromTheSecurityContext() throws Exception {
+        SecurityContextHolder.getContext().setAuthentication(new FjwtAuthentication(CLAIMS, claims -> null));
+
+        assertThat(resolve(0)).isSameAs(CLAIMS);
+        assertThat(resolve(2)).isEqualTo("username");
+    }
+
+    @Test
+    void whenClaimsAreMissingShouldFailOnlyIfRequired() throws Exception {
+        assertThatThrownBy(() -> resolve(0)).isInstanceOf(ServletRequestBindingException.class);
+        assertThat(resolve(5)).isNull();
+    }
+
+    @Test
+    void whenClaimIsMissingShouldFailOnlyIfRequired() throws Exception {
+        request.setAttribute(FjwtRequestFilter.CLAIMS_ATTRIBUTE, Jwts.claims().subject("username").build());
+
+        assertThatThrownBy(() -> resolve(3))
+                .isInstanceOf(ServletRequestBindingException.class)
+                .hasMessageContaining("tenant");
+        assertThat(resolve(5)).isNull();
+    }
+
+    private Object resolve(int index) throws Exception {
+        return target.resolveArgument(parameter(index), null, webRequest, null);
+    }
+
+    private static MethodParameter parameter(int index) throws NoSuchMethodException {
+        Method method =
+                Handler.class.getDeclaredMethod(
+                        "handle", Claims.class, Map.class, String.class, long.class, Boolean.class, String.class, String.class);
+        return new MethodParameter(method, index);
+    }
+
+    @SuppressWarnings("unused")
+    private static class Handler {
+
+        void handle(
+                @FjwtClaims Claims claims,
+                @FjwtClaims Map<String, Object> map,
+                @FjwtClaims("sub") String subject,
+                @FjwtClaims("tenant") long tenant,
+                @FjwtClaims("enabled") Boolean enabled,
+                @FjwtClaims(value = "missing", required = false) String missing,
+                String notAnnotated) {
+        }
+    }
+}
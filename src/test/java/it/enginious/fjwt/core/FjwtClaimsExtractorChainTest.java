@@ -2,6 +2,9 @@ package it.enginious.fjwt.core;
 
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ClaimsBuilder;
+import it.enginious.fjwt.core.exceptions.FjwtClaimsExtractionException;
+import it.enginious.fjwt.core.extractors.FjwtAuthoritiesExtractor;
+import it.enginious.fjwt.core.extractors.FjwtUserDetailsFlagsExtractor;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.Mock;
@@ -9,11 +12,21 @@ import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.security.core.userdetails.User;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatCode;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.BDDMockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -104,4 +117,169 @@ class FjwtClaimsExtractorChainTest {
         then(claims).should(times(1)).get("c1");
         then(claims).should(times(1)).get("c2");
     }
+
+    @Test
+    void whenDefaultExtractorsAreChainedShouldNotCollide() {
+        assertThatCode(
+                () ->
+                        new FjwtClaimsExtractorChain(
+                                List.of(new FjwtAuthoritiesExtractor(), new FjwtUserDetailsFlagsExtractor())))
+                .doesNotThrowAnyException();
+    }
+
+    @Test
+    void whenExtractorsDeclareTheSameKeyShouldThrow() {
+        List<FjwtClaimsExtractor> extractors =
+                List.of(new FjwtAuthoritiesExtractor(), declaring(FjwtAuthoritiesExtractor.AUTHORITIES));
+
+        assertThatThrownBy(() -> new FjwtClaimsExtractorChain(extractors))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("[authorities] is declared by both");
+    }
+
+    @Test
+    void whenExtractorDeclaresARegisteredClaimShouldThrow() {
+        List<FjwtClaimsExtractor> extractors = List.of(declaring(Claims.SUBJECT));
+
+        assertThatThrownBy(() -> new FjwtClaimsExtractorChain(extractors))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("registered claim [sub]");
+    }
+
+    private static FjwtClaimsExtractor declaring(String key) {
+        return new FjwtClaimsExtractor() {
+
+            @Override
+            public void getClaims(UserDetails source, ClaimsBuilder dest) {
+                dest.add(key, source.getUsername());
+            }
+
+            @Override
+            public void addData(Claims source, FjwtAbstractUserDetailsBuilder dest) {
+                source.get(key);
+            }
+
+            @Override
+            public Set<String> getClaimKeys() {
+                return Set.of(key);
+            }
+        };
+    }
+
+    @Test
+    void whenExtractorsAreIndependentShouldRunThemConcurrently() {
+        // each extractor waits for the other, they would time out if run one after another
+        CountDownLatch latch = new CountDownLatch(2);
+        FjwtClaimsExtractorChain target =
+                new FjwtClaimsExtractorChain(
+                        List.of(
+                                independent("ce1", latch, Duration.ofSeconds(5)),
+                                declaring("ce2"),
+                                independent("ce3", latch, Duration.ofSeconds(5))),
+                        Duration.ofMillis(100));
+
+        Map<String, Object> claims = target.getClaims(new User("test", "test", Collections.emptyList()));
+        assertThat(claims)
+                .containsExactly(Map.entry("ce1", "test"), Map.entry("ce2", "test"), Map.entry("ce3", "test"));
+    }
+
+    @Test
+    void whenIndependentExtractorTimesOutShouldThrow() {
+        FjwtClaimsExtractorChain target =
+                new FjwtClaimsExtractorChain(
+                        List.of(declaring("ce1"), independent("ce2", new CountDownLatch(2), null)),
+                        Duration.ofMillis(50));
+
+        assertThatThrownBy(() -> target.getClaims(new User("test", "test", Collections.emptyList())))
+                .isInstanceOf(FjwtClaimsExtractionException.class)
+                .hasMessageContaining("timed out after [50] ms");
+    }
+
+    @Test
+    void whenIndependentExtractorFailsShouldThrowItsCause() {
+        FjwtClaimsExtractor failing =
+                new FjwtClaimsExtractor() {
+
+                    @Override
+                    public void getClaims(UserDetails source, ClaimsBuilder dest) {
+                        throw new IllegalStateException("service unavailable");
+                    }
+
+                    @Override
+                    public void addData(Claims source, FjwtAbstractUserDetailsBuilder dest) {
+                        throw new UnsupportedOperationException();
+                    }
+
+                    @Override
+                    public boolean isIndependent() {
+                        return true;
+                    }
+                };
+        FjwtClaimsExtractorChain target = new FjwtClaimsExtractorChain(List.of(failing));
+
+        assertThatThrownBy(() -> target.getClaims(new User("test", "test", Collections.emptyList())))
+                .isInstanceOf(FjwtClaimsExtractionException.class)
+                .hasRootCauseMessage("service unavailable");
+    }
+
+    @Test
+    void whenDestroyedShouldShutDownTheExecutorItCreated() {
+        FjwtClaimsExtractorChain target =
+                new FjwtClaimsExtractorChain(List.of(independent("ce1", new CountDownLatch(1), null)));
+
+        target.destroy();
+
+        assertThatThrownBy(() -> target.getClaims(new User("test", "test", Collections.emptyList())))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    void whenDestroyedShouldLeaveTheGivenExecutorRunning() {
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            FjwtClaimsExtractorChain target =
+                    new FjwtClaimsExtractorChain(
+                            List.of(independent("ce1", new CountDownLatch(1), null)), executor, Duration.ofSeconds(5));
+
+            target.destroy();
+
+            assertThat(executor.isShutdown()).isFalse();
+            assertThat(target.getClaims(new User("test", "test", Collections.emptyList())))
+                    .containsExactly(Map.entry("ce1", "test"));
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static FjwtClaimsExtractor independent(String key, CountDownLatch latch, Duration timeout) {
+        return new FjwtClaimsExtractor() {
+
+            @Override
+            public void getClaims(UserDetails source, ClaimsBuilder dest) {
+                latch.countDown();
+                try {
+                    if (latch.await(10, TimeUnit.SECONDS)) {
+                        dest.add(key, source.getUsername());
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+
+            @Override
+            public void addData(Claims source, FjwtAbstractUserDetailsBuilder dest) {
+                throw new UnsupportedOperationException();
+            }
+
+            @Override
+            public boolean isIndependent() {
+                return true;
+            }
+
+            @Override
+            public Duration getTimeout() {
+                return timeout;
+            }
+        };
+    }
 }
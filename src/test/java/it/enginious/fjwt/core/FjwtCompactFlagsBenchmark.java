@@ -0,0 +1,60 @@
+package it.enginious.fjwt.core;
+
+import it.enginious.fjwt.core.extractors.FjwtAuthoritiesExtractor;
+import it.enginious.fjwt.core.extractors.FjwtUserDetailsFlagsExtractor;
+import it.enginious.fjwt.core.metrics.NoopFjwtMetrics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares generating, parsing and verifying the token of a user whose flags have their default
+ * values, when {@link FjwtUserDetailsFlagsExtractor} writes a claim for each flag and when it uses the
+ * compact profile. The token sizes are printed on setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FjwtCompactFlagsBenchmark {
+
+    @Param({"false", "true"})
+    public boolean compact;
+
+    private FjwtTokenUtil tokenUtil;
+
+    private UserDetails user;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        tokenUtil =
+                new FjwtTokenUtil(
+                        Clock.systemDefaultZone(),
+                        FjwtBenchmarkFixture.config(),
+                        new FjwtClaimsExtractorChain(
+                                List.of(new FjwtAuthoritiesExtractor(), new FjwtUserDetailsFlagsExtractor(compact))),
+                        FjwtSimpleUserDetailsBuilder::new,
+                        new NoopFjwtMetrics());
+        tokenUtil.init();
+        user = FjwtBenchmarkFixture.user();
+        token = tokenUtil.generateToken(user);
+        System.out.printf("%ntoken length with compact=%s: %d%n", compact, token.length());
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public UserDetails getUserFromToken() {
+        return tokenUtil.getUserFromToken(token);
+    }
+}
@@ -1,8 +1,12 @@
 package it.enginious.fjwt.core;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.boot.context.properties.source.MapConfigurationPropertySource;
 
 import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -15,6 +19,7 @@ class FjwtConfigTest {
 
         target.setEndpoint("/endpoint");
         target.setUnsecured(Arrays.asList("/unsecured1", "/unsecured2"));
+        target.setIgnored(Arrays.asList("/ignored1", "/ignored2"));
         target.setTtl(1);
         target.setSecret("secret");
         target.setZoneId("XXX");
@@ -22,9 +27,46 @@ class FjwtConfigTest {
 
         assertThat(target.getEndpoint()).isEqualTo("/endpoint");
         assertThat(target.getUnsecured()).isEqualTo(Arrays.asList("/unsecured1", "/unsecured2"));
+        assertThat(target.getIgnored()).isEqualTo(Arrays.asList("/ignored1", "/ignored2"));
         assertThat(target.getTtl()).isEqualTo(1);
         assertThat(target.getSecret()).isEqualTo("secret");
         assertThat(target.getZoneId()).isEqualTo("XXX");
         assertThat(target.getAlgorithm()).isEqualTo("HS256");
     }
+
+    @Test
+    void whenBindingAuthorityDictionariesShouldSplitTheirValues() {
+
+        FjwtConfig target =
+                new Binder(
+                        new MapConfigurationPropertySource(
+                                Map.of(
+                                        "fjwt.authorities.dictionaryVersion", "2",
+                                        "fjwt.authorities.dictionaries.1", "ROLE_USER,ROLE_ADMIN",
+                                        "fjwt.authorities.dictionaries.2", "ROLE_USER,ROLE_ADMIN,ROLE_AUDITOR")))
+                        .bind("fjwt", FjwtConfig.class)
+                        .get();
+
+        assertThat(target.getAuthorities().getDictionaryVersion()).isEqualTo(2);
+        assertThat(target.getAuthorities().getDictionaries())
+                .containsEntry(1, List.of("ROLE_USER", "ROLE_ADMIN"))
+                .containsEntry(2, List.of("ROLE_USER", "ROLE_ADMIN", "ROLE_AUDITOR"));
+    }
+
+    @Test
+    void whenBindingAuthorityHierarchyShouldKeepTheCaseOfTheAuthorities() {
+
+        FjwtConfig target =
+                new Binder(
+                        new MapConfigurationPropertySource(
+                                Map.of(
+                                        "fjwt.authorities.hierarchy[ROLE_ADMIN]", "ROLE_EDITOR,AUDIT",
+                                        "fjwt.authorities.hierarchy[ROLE_EDITOR]", "ROLE_VIEWER")))
+                        .bind("fjwt", FjwtConfig.class)
+                        .get();
+
+        assertThat(target.getAuthorities().getHierarchy())
+                .containsEntry("ROLE_ADMIN", List.of("ROLE_EDITOR", "AUDIT"))
+                .containsEntry("ROLE_EDITOR", List.of("ROLE_VIEWER"));
+    }
 }
@@ -1,6 +1,8 @@
 package it.enginious.fjwt.core;
 
+import it.enginious.fjwt.core.exceptions.FjwtClaimsExtractionException;
 import it.enginious.fjwt.core.exceptions.FjwtTokenInvalidatorException;
+import it.enginious.fjwt.core.metrics.FjwtMetrics;
 import it.enginious.fjwt.dto.FjwtRequest;
 import it.enginious.fjwt.dto.FjwtResponse;
 import org.apache.commons.lang3.StringUtils;
@@ -25,6 +27,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.BDDMockito.doThrow;
 import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
 
 @ExtendWith(MockitoExtension.class)
 class FjwtControllerTest {
@@ -38,6 +41,8 @@ class FjwtControllerTest {
     private FjwtTokenUtil fjwtTokenUtil;
     @Mock
     private FjwtTokenInvalidator fjwtTokenInvalidator;
+    @Mock
+    private FjwtMetrics fjwtMetrics;
 
     @Test
     void
@@ -127,4 +132,25 @@ class FjwtControllerTest {
         assertThat(authenticationToken.getStatusCode()).isEqualTo(HttpStatus.UNAUTHORIZED);
         assertThat(authenticationToken.getBody()).isNull();
     }
+
+    @Test
+    void whenCreateAuthenticationTokenAndClaimsExtractionFailsShouldReturn503Response() {
+
+        User user = new User("username", "password", Collections.emptyList());
+
+        given(
+                authenticationManager.authenticate(
+                        new UsernamePasswordAuthenticationToken("username", "password")))
+                .willReturn(new UsernamePasswordAuthenticationToken(user, null, Collections.emptyList()));
+        given(fjwtTokenUtil.generateToken(user))
+                .willThrow(new FjwtClaimsExtractionException("extractor failed", null));
+
+        ResponseEntity<FjwtResponse> authenticationToken =
+                target.createAuthenticationToken(
+                        FjwtRequest.builder().username("username").password("password").build());
+
+        assertThat(authenticationToken.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+        assertThat(authenticationToken.getBody()).isNull();
+        then(fjwtMetrics).should().recordExtractionFailure();
+    }
 }
@@ -0,0 +1,29 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.MalformedJwtException;
+import io.jsonwebtoken.UnsupportedJwtException;
+import io.jsonwebtoken.io.DecodingException;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FjwtFailureReasonTest {
+
+    @Test
+    void whenOfShouldReturnTheMatchingReason() {
+        assertThat(FjwtFailureReason.of(new ExpiredJwtException(null, null, null)))
+                .isEqualTo(FjwtFailureReason.EXPIRED);
+        assertThat(FjwtFailureReason.of(new SignatureException("")))
+                .isEqualTo(FjwtFailureReason.BAD_SIGNATURE);
+        assertThat(FjwtFailureReason.of(new MalformedJwtException("")))
+                .isEqualTo(FjwtFailureReason.MALFORMED);
+        assertThat(FjwtFailureReason.of(new DecodingException("")))
+                .isEqualTo(FjwtFailureReason.MALFORMED);
+        assertThat(FjwtFailureReason.of(new IllegalArgumentException()))
+                .isEqualTo(FjwtFailureReason.MALFORMED);
+        assertThat(FjwtFailureReason.of(new UnsupportedJwtException("")))
+                .isEqualTo(FjwtFailureReason.INVALID);
+    }
+}
@@ -0,0 +1,176 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.ExpiredJwtException;
+import nl.altindag.log.LogCaptor;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FjwtFailureReporterTest {
+
+    private static final Pattern SUMMARY = Pattern.compile("refused \\[(\\d+)] tokens");
+
+    private final FjwtConfig fjwtConfig = new FjwtConfig();
+
+    private FjwtFailureReporter target;
+
+    private LogCaptor logCaptor;
+
+    @BeforeEach
+    void setUp() {
+        fjwtConfig.getFailures().setInterval(0);
+        fjwtConfig.getFailures().setTraceSampleRate(3);
+        fjwtConfig.getFailures().setMaxEntries(2);
+        target = new FjwtFailureReporter(fjwtConfig);
+        target.init();
+        logCaptor = LogCaptor.forClass(FjwtFailureReporter.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        logCaptor.close();
+    }
+
+    @Test
+    void whenReportingShouldLogOnlySampledTraces() {
+        for (int i = 0; i < 7; i++) {
+            target.report(FjwtFailureReason.EXPIRED, "10.0.0.1", new ExpiredJwtException(null, null, "expired"));
+        }
+
+        assertThat(logCaptor.getWarnLogs()).hasSize(3);
+        assertThat(logCaptor.getLogEvents())
+                .filteredOn(e -> e.getLevel().equals("WARN"))
+                .allMatch(e -> e.getThrowable().isPresent());
+    }
+
+    @Test
+    void whenFlushingShouldLogAggregatedSummary() {
+        target.report(FjwtFailureReason.EXPIRED, "10.0.0.1", null);
+        target.report(FjwtFailureReason.EXPIRED, "10.0.0.1", null);
+        target.report(FjwtFailureReason.BAD_SIGNATURE, "10.0.0.2", null);
+        target.report(FjwtFailureReason.BAD_SIGNATURE, "10.0.0.3", null);
+
+        target.flush();
+
+        assertThat(logCaptor.getWarnLogs())
+                .containsExactly(
+                        "refused [4] tokens from [3] reason and client pairs: [expired] from [10.0.0.1]: 2, [bad_signature] from [10.0.0.2]: 1, [bad_signature] from [other]: 1");
+    }
+
+    @Test
+    void whenNothingWasReportedSinceLastFlushShouldNotLog() {
+        target.report(FjwtFailureReason.MALFORMED, "10.0.0.1", null);
+        target.flush();
+        logCaptor.clearLogs();
+
+        target.flush();
+
+        assertThat(logCaptor.getWarnLogs()).isEmpty();
+    }
+
+    @Test
+    void whenReportingConcurrentlyWithFlushesShouldNotLoseFailures() throws Exception {
+        logCaptor.setLogLevelToInfo();
+        // pairs are mostly idle so that flushes keep dropping counters the reporters are using
+        fjwtConfig.getFailures().setMaxEntries(10_000);
+        int threads = 4;
+        int reports = 50_000;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        AtomicBoolean reporting = new AtomicBoolean(true);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                int thread = t;
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    for (int i = 0; i < reports; i++) {
+                                        target.report(FjwtFailureReason.EXPIRED, "10.0." + thread + "." + i % 1000, null);
+                                    }
+                                }));
+            }
+            Future<?> flusher =
+                    executor.submit(
+                            () -> {
+                                while (reporting.get()) {
+                                    target.flush();
+                                }
+                            });
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+            reporting.set(false);
+            flusher.get(30, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        target.flush();
+
+        assertThat(logCaptor.getWarnLogs()).isNotEmpty();
+        assertThat(logCaptor.getWarnLogs().stream().mapToLong(FjwtFailureReporterTest::refusedCount).sum())
+                .isEqualTo((long) threads * reports);
+    }
+
+    @Test
+    void whenReportingNewClientsConcurrentlyShouldTrackAtMostMaxEntries() throws Exception {
+        logCaptor.setLogLevelToInfo();
+        int threads = 8;
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                String client = "10.0.0." + t;
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    start.await();
+                                    target.report(FjwtFailureReason.MALFORMED, client, null);
+                                    return null;
+                                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get(30, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        target.flush();
+
+        assertThat(logCaptor.getWarnLogs()).hasSize(1);
+        assertThat(logCaptor.getWarnLogs().get(0))
+                .startsWith("refused [8] tokens from [3] reason and client pairs")
+                .contains("[malformed] from [other]: 6");
+    }
+
+    @Test
+    void whenDestroyingShouldFlush() {
+        target.report(FjwtFailureReason.REVOKED, "10.0.0.1", null);
+
+        target.destroy();
+
+        assertThat(logCaptor.getWarnLogs())
+                .containsExactly("refused [1] tokens from [1] reason and client pairs: [revoked] from [10.0.0.1]: 1");
+    }
+
+    private static long refusedCount(String summary) {
+        Matcher matcher = SUMMARY.matcher(summary);
+        assertThat(matcher.lookingAt()).as("summary [%s]", summary).isTrue();
+        return Long.parseLong(matcher.group(1));
+    }
+}
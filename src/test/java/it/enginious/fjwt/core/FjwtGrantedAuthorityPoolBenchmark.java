@@ -0,0 +1,66 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import it.enginious.fjwt.core.extractors.FjwtAuthoritiesExtractor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares the cost of rebuilding the authorities of a user with {@value #AUTHORITIES} roles with and
+ * without the {@link FjwtGrantedAuthorityPool}, run it with the {@code -prof gc} option to see the
+ * allocations.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FjwtGrantedAuthorityPoolBenchmark {
+
+    static final int AUTHORITIES = 60;
+
+    private final FjwtAuthoritiesExtractor pooled = new FjwtAuthoritiesExtractor();
+
+    private Claims claims;
+
+    @Setup
+    public void setup() {
+        FjwtBenchmarkFixture.config();
+        claims =
+                Jwts.claims()
+                        .subject("username")
+                        .add(
+                                FjwtAuthoritiesExtractor.AUTHORITIES,
+                                IntStream.range(0, AUTHORITIES).mapToObj(i -> "ROLE_" + i).toList())
+                        .build();
+    }
+
+    @Benchmark
+    public UserDetails pooledAuthorities() {
+        FjwtSimpleUserDetailsBuilder builder = new FjwtSimpleUserDetailsBuilder("username");
+        pooled.addData(claims, builder);
+        return builder.build();
+    }
+
+    /**
+     * What the extractor used to build, a new authority for each value
+     */
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public UserDetails unpooledAuthorities() {
+        FjwtSimpleUserDetailsBuilder builder = new FjwtSimpleUserDetailsBuilder("username");
+        builder.authorities(
+                ((Collection<String>) claims.get(FjwtAuthoritiesExtractor.AUTHORITIES, Collection.class))
+                        .stream()
+                        .map(SimpleGrantedAuthority::new)
+                        .toList());
+        return builder.build();
+    }
+}
@@ -0,0 +1,76 @@
+package it.enginious.fjwt.core;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.SimpleGrantedAuthority;
+
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FjwtGrantedAuthorityPoolTest {
+
+    @Test
+    void whenInterningTheSameAuthorityShouldReturnTheSameInstance() {
+
+        FjwtGrantedAuthorityPool target = new FjwtGrantedAuthorityPool();
+
+        GrantedAuthority authority = target.intern("ROLE_USER");
+
+        assertThat(authority).isEqualTo(new SimpleGrantedAuthority("ROLE_USER"));
+        assertThat(target.intern("ROLE_USER")).isSameAs(authority);
+        assertThat(target.intern("ROLE_ADMIN")).isNotSameAs(authority);
+        assertThat(target.size()).isEqualTo(2);
+    }
+
+    @Test
+    void whenPoolIsFullShouldKeepPooledAuthoritiesAndCreateNewOnes() {
+
+        FjwtGrantedAuthorityPool target = new FjwtGrantedAuthorityPool(1);
+        GrantedAuthority pooled = target.intern("ROLE_USER");
+
+        GrantedAuthority first = target.intern("ROLE_ADMIN");
+
+        assertThat(first.getAuthority()).isEqualTo("ROLE_ADMIN");
+        assertThat(target.intern("ROLE_ADMIN")).isNotSameAs(first).isEqualTo(first);
+        assertThat(target.intern("ROLE_USER")).isSameAs(pooled);
+        assertThat(target.size()).isEqualTo(1);
+    }
+
+    @Test
+    void whenPoolSizeIsZeroShouldNotPool() {
+
+        FjwtGrantedAuthorityPool target = new FjwtGrantedAuthorityPool(0);
+
+        assertThat(target.intern("ROLE_USER")).isNotSameAs(target.intern("ROLE_USER"));
+        assertThat(target.size()).isZero();
+    }
+
+    @Test
+    void whenInterningConcurrentlyShouldReturnASingleInstance() {
+
+        FjwtGrantedAuthorityPool target = new FjwtGrantedAuthorityPool();
+        ConcurrentLinkedQueue<GrantedAuthority> interned = new ConcurrentLinkedQueue<>();
+
+        IntStream.range(0, 1000).parallel().forEach(i -> interned.add(target.intern("ROLE_" + (i % 10))));
+
+        List<GrantedAuthority> users = interned.stream().filter(a -> a.getAuthority().equals("ROLE_0")).toList();
+        assertThat(users).hasSize(100).allSatisfy(a -> assertThat(a).isSameAs(users.get(0)));
+        assertThat(target.size()).isEqualTo(10);
+    }
+
+    @Test
+    void whenInterningShouldGiveEachAuthorityAStableIndex() {
+
+        FjwtGrantedAuthorityPool target = new FjwtGrantedAuthorityPool(2);
+
+        assertThat(target.indexOf("ROLE_USER")).isEqualTo(-1);
+        assertThat(target.internIndex("ROLE_USER")).isZero();
+        assertThat(target.internIndex("ROLE_ADMIN")).isEqualTo(1);
+        assertThat(target.internIndex("ROLE_GUEST")).isEqualTo(-1);
+        assertThat(target.indexOf("ROLE_USER")).isZero();
+        assertThat(target.get(1)).isSameAs(target.intern("ROLE_ADMIN"));
+    }
+}
@@ -0,0 +1,71 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ClaimsBuilder;
+import it.enginious.fjwt.core.extractors.FjwtAuthoritiesExtractor;
+import it.enginious.fjwt.core.extractors.FjwtUserDetailsFlagsExtractor;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Measures the claims extraction of a token when {@value #SERVICES} extractors each call a service
+ * taking {@code latencyMicros}, when they run one after another and when they are independent.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FjwtIndependentExtractorsBenchmark {
+
+    static final int SERVICES = 3;
+
+    @Param({"1000"})
+    public long latencyMicros;
+
+    @Param({"false", "true"})
+    public boolean independent;
+
+    private FjwtClaimsExtractorChain chain;
+
+    private UserDetails user;
+
+    @Setup
+    public void setup() {
+        FjwtBenchmarkFixture.config();
+        List<FjwtClaimsExtractor> extractors = new ArrayList<>();
+        extractors.add(new FjwtAuthoritiesExtractor());
+        extractors.add(new FjwtUserDetailsFlagsExtractor());
+        for (int i = 0; i < SERVICES; i++) {
+            extractors.add(new ServiceExtractor("service" + i, latencyMicros, independent));
+        }
+        chain = new FjwtClaimsExtractorChain(extractors);
+        user = FjwtBenchmarkFixture.user();
+    }
+
+    @Benchmark
+    public Claims getClaims() {
+        return chain.getClaims(user);
+    }
+
+    private record ServiceExtractor(String key, long latencyMicros, boolean isIndependent)
+            implements FjwtClaimsExtractor {
+
+        @Override
+        public void getClaims(UserDetails source, ClaimsBuilder dest) {
+            LockSupport.parkNanos(TimeUnit.MICROSECONDS.toNanos(latencyMicros));
+            dest.add(key, source.getUsername());
+        }
+
+        @Override
+        public void addData(Claims source, FjwtAbstractUserDetailsBuilder dest) {
+            // nothing to bind
+        }
+    }
+}
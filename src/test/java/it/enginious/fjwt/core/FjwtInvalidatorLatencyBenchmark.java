@@ -0,0 +1,179 @@
+package it.enginious.fjwt.core;
+
+import it.enginious.fjwt.core.metrics.NoopFjwtMetrics;
+import it.enginious.fjwt.dto.FjwtRequest;
+import it.enginious.fjwt.dto.FjwtResponse;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how {@link FjwtRequestFilter} and {@link FjwtController} degrade as the latency of the
+ * {@link FjwtTokenInvalidator} grows, using a {@link SimulatedLatencyTokenInvalidator}.
+ *
+ * <p>Run {@link #main(String[])} from the test classpath, JMH command line options are accepted
+ * (for example {@code -p latencyMicros=0,1000 -p errorRate=0.05 -t 32}). A degradation table relative
+ * to the zero latency run is printed at the end.
+ */
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(8)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+public class FjwtInvalidatorLatencyBenchmark {
+
+    private static final FilterChain CHAIN = (req, res) -> SecurityContextHolder.clearContext();
+
+    @State(Scope.Benchmark)
+    public static class Invalidator {
+
+        @Param({"0", "50", "500", "5000"})
+        public long latencyMicros;
+
+        @Param({"FIXED", "EXPONENTIAL"})
+        public SimulatedLatencyTokenInvalidator.Distribution distribution;
+
+        @Param({"0.1"})
+        public double jitter;
+
+        @Param({"0"})
+        public double errorRate;
+
+        FjwtRequestFilter filter;
+
+        FjwtController controller;
+
+        String token;
+
+        @Setup
+        public void setup() {
+            FjwtConfig config = FjwtBenchmarkFixture.config();
+            FjwtTokenUtil tokenUtil = FjwtBenchmarkFixture.tokenUtil(config);
+            SimulatedLatencyTokenInvalidator invalidator =
+                    SimulatedLatencyTokenInvalidator.builder()
+                            .distribution(distribution)
+                            .meanLatencyMicros(latencyMicros)
+                            .jitter(jitter)
+                            .errorRate(errorRate)
+                            .build();
+            UserDetails user = FjwtBenchmarkFixture.user();
+            filter = FjwtBenchmarkFixture.requestFilter(config, tokenUtil, invalidator);
+            controller =
+                    new FjwtController(
+                            authentication ->
+                                    UsernamePasswordAuthenticationToken.authenticated(
+                                            user, null, user.getAuthorities()),
+                            tokenUtil,
+                            invalidator,
+                            new NoopFjwtMetrics());
+            token = tokenUtil.generateToken(user);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Request {
+
+        MockHttpServletRequest request;
+
+        MockHttpServletResponse response;
+
+        FjwtRequest authenticationRequest;
+
+        @Setup
+        public void setup(Invalidator invalidator) {
+            request = new MockHttpServletRequest("GET", FjwtBenchmarkFixture.SECURED_PATH);
+            request.setServletPath(FjwtBenchmarkFixture.SECURED_PATH);
+            request.addHeader("Authorization", "Bearer " + invalidator.token);
+            response = new MockHttpServletResponse();
+            authenticationRequest =
+                    FjwtRequest.builder().username("username").password("password").build();
+        }
+    }
+
+    @Benchmark
+    public void filter(Invalidator invalidator, Request request) throws Exception {
+        invalidator.filter.doFilter(request.request, request.response, CHAIN);
+    }
+
+    @Benchmark
+    public ResponseEntity<FjwtResponse> controller(Invalidator invalidator, Request request) {
+        return invalidator.controller.createAuthenticationToken(request.authenticationRequest);
+    }
+
+    public static void main(String[] args) throws Exception {
+        Collection<RunResult> results =
+                new Runner(
+                        new CommandLineOptions(
+                                args.length == 0
+                                        ? new String[]{FjwtInvalidatorLatencyBenchmark.class.getSimpleName()}
+                                        : args))
+                        .run();
+
+        Map<String, Double> zeroLatency = new HashMap<>();
+        results.stream()
+                .filter(r -> r.getParams().getMode() == Mode.Throughput)
+                .filter(r -> Long.parseLong(r.getParams().getParam("latencyMicros")) == 0)
+                .forEach(r -> zeroLatency.put(key(r), r.getPrimaryResult().getScore()));
+
+        System.out.printf(
+                "%n%-12s %-12s %10s %10s %14s %9s %10s %10s%n",
+                "benchmark", "distribution", "errorRate", "latency us", "throughput/ms", "vs 0us", "p50 us", "p99 us");
+        results.stream()
+                .filter(r -> r.getParams().getMode() == Mode.Throughput)
+                .sorted(
+                        Comparator.comparing(FjwtInvalidatorLatencyBenchmark::key)
+                                .thenComparing(r -> Long.parseLong(r.getParams().getParam("latencyMicros"))))
+                .forEach(
+                        r -> {
+                            RunResult sample = sampleOf(results, r);
+                            double throughput = r.getPrimaryResult().getScore();
+                            Double reference = zeroLatency.get(key(r));
+                            System.out.printf(
+                                    "%-12s %-12s %10s %10s %14.3f %8s %10.1f %10.1f%n",
+                                    r.getParams().getBenchmark().substring(r.getParams().getBenchmark().lastIndexOf('.') + 1),
+                                    r.getParams().getParam("distribution"),
+                                    r.getParams().getParam("errorRate"),
+                                    r.getParams().getParam("latencyMicros"),
+                                    throughput,
+                                    reference != null ? String.format("%.1f%%", 100 * throughput / reference) : "-",
+                                    sample != null ? sample.getPrimaryResult().getStatistics().getPercentile(50) * 1000 : Double.NaN,
+                                    sample != null ? sample.getPrimaryResult().getStatistics().getPercentile(99) * 1000 : Double.NaN);
+                        });
+    }
+
+    /**
+     * Identifies a run regardless of its latency and mode
+     */
+    private static String key(RunResult result) {
+        return String.join(
+                "|",
+                result.getParams().getBenchmark(),
+                result.getParams().getParam("distribution"),
+                result.getParams().getParam("jitter"),
+                result.getParams().getParam("errorRate"));
+    }
+
+    private static RunResult sampleOf(Collection<RunResult> results, RunResult throughput) {
+        return results.stream()
+                .filter(r -> r.getParams().getMode() == Mode.SampleTime)
+                .filter(r -> key(r).equals(key(throughput)))
+                .filter(r -> r.getParams().getParam("latencyMicros").equals(throughput.getParams().getParam("latencyMicros")))
+                .findFirst()
+                .orElse(null);
+    }
+}
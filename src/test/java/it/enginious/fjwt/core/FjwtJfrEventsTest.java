@@ -0,0 +1,154 @@
+package it.enginious.fjwt.core;
+
+import it.enginious.fjwt.core.jfr.FjwtEvent;
+import it.enginious.fjwt.core.jfr.FjwtRequestAuthenticationEvent;
+import it.enginious.fjwt.core.jfr.FjwtTokenIssuanceEvent;
+import it.enginious.fjwt.core.jfr.FjwtTokenVerificationEvent;
+import it.enginious.fjwt.core.metrics.NoopFjwtMetrics;
+import jdk.jfr.Configuration;
+import jdk.jfr.EventType;
+import jdk.jfr.FlightRecorder;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockFilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.userdetails.User;
+
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FjwtJfrEventsTest {
+
+    @Test
+    void whenNoRecordingEnablesThemEventsShouldBeDisabled() {
+        FlightRecorder.register(FjwtTokenVerificationEvent.class);
+        FlightRecorder.register(FjwtTokenIssuanceEvent.class);
+        FlightRecorder.register(FjwtRequestAuthenticationEvent.class);
+
+        assertThat(FlightRecorder.getFlightRecorder().getEventTypes())
+                .filteredOn(et -> et.getName().startsWith("it.enginious.fjwt."))
+                .hasSize(3)
+                .noneMatch(EventType::isEnabled);
+    }
+
+    @Test
+    void whenUsingBundledSettingsAllEventsShouldBeEnabled() throws Exception {
+        try (Reader reader =
+                     new InputStreamReader(
+                             Objects.requireNonNull(
+                                     getClass().getResourceAsStream("/it/enginious/fjwt/jfr/fjwt.jfc")),
+                             StandardCharsets.UTF_8)) {
+
+            Configuration configuration = Configuration.create(reader);
+
+            assertThat(configuration.getSettings())
+                    .containsEntry(FjwtTokenVerificationEvent.NAME + "#enabled", "true")
+                    .containsEntry(FjwtTokenIssuanceEvent.NAME + "#enabled", "true")
+                    .containsEntry(FjwtRequestAuthenticationEvent.NAME + "#enabled", "true");
+        }
+    }
+
+    @Test
+    void whenRecordingIsEnabledTokenVerificationShouldEmitEvents(@TempDir Path dir) throws Exception {
+        FjwtConfig config = new FjwtConfig();
+        config.setAlgorithm("HS256");
+        config.setSecret("8x/A?D(G+KbPeShVmYq3t6w9y$B&E)H@");
+        FjwtTokenUtil tokenUtil =
+                new FjwtTokenUtil(
+                        Clock.fixed(Instant.ofEpochMilli(1635339600000L), ZoneId.systemDefault()),
+                        config,
+                        new FjwtClaimsExtractorChain(Collections.emptyList()),
+                        FjwtSimpleUserDetailsBuilder::new,
+                        new NoopFjwtMetrics());
+        tokenUtil.init();
+        String token = tokenUtil.generateToken(new User("username", "password", Collections.emptyList()));
+
+        Path file = dir.resolve("fjwt.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(FjwtTokenVerificationEvent.class).withoutThreshold();
+            recording.start();
+
+            tokenUtil.getUsernameFromToken(token);
+            assertThatThrownBy(() -> tokenUtil.getUsernameFromToken(token + "x"));
+
+            recording.stop();
+            recording.dump(file);
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertThat(events).hasSize(2);
+        assertThat(events)
+                .allMatch(e -> e.getEventType().getName().equals(FjwtTokenVerificationEvent.NAME))
+                .allMatch(e -> "HS256".equals(e.getString("algorithm")));
+        assertThat(events)
+                .extracting(e -> e.getString("outcome"))
+                .containsExactlyInAnyOrder(FjwtEvent.SUCCESS, "bad_signature");
+        assertThat(events)
+                .extracting(e -> e.getInt("tokenSize"))
+                .containsExactlyInAnyOrder(token.length(), token.length() + 1);
+    }
+
+    @Test
+    void whenRecordingIsEnabledRequestAuthenticationShouldEmitEventsWithTheAlgorithm(@TempDir Path dir)
+            throws Exception {
+        FjwtConfig config = new FjwtConfig();
+        config.setAlgorithm("HS256");
+        config.setSecret("8x/A?D(G+KbPeShVmYq3t6w9y$B&E)H@");
+        FjwtTokenUtil tokenUtil =
+                new FjwtTokenUtil(
+                        Clock.systemDefaultZone(),
+                        config,
+                        new FjwtClaimsExtractorChain(Collections.emptyList()),
+                        FjwtSimpleUserDetailsBuilder::new,
+                        new NoopFjwtMetrics());
+        tokenUtil.init();
+        FjwtRequestFilter filter =
+                new FjwtRequestFilter(
+                        tokenUtil,
+                        new NoopTokenInvalidator(),
+                        config,
+                        new NoopFjwtMetrics(),
+                        new FjwtFailureReporter(config));
+        filter.init();
+        MockHttpServletRequest request = new MockHttpServletRequest("GET", "/securedEndpoint");
+        request.addHeader(
+                HttpHeaders.AUTHORIZATION,
+                "Bearer " + tokenUtil.generateToken(new User("username", "password", Collections.emptyList())));
+
+        Path file = dir.resolve("fjwt.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(FjwtRequestAuthenticationEvent.class).withoutThreshold();
+            recording.start();
+
+            filter.doFilter(request, new MockHttpServletResponse(), new MockFilterChain());
+
+            recording.stop();
+            recording.dump(file);
+        } finally {
+            SecurityContextHolder.clearContext();
+        }
+
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertThat(events).hasSize(1);
+        assertThat(events.get(0).getEventType().getName()).isEqualTo(FjwtRequestAuthenticationEvent.NAME);
+        assertThat(events.get(0).getString("algorithm")).isEqualTo("HS256");
+        assertThat(events.get(0).getString("outcome")).isEqualTo(FjwtEvent.SUCCESS);
+    }
+}
@@ -0,0 +1,58 @@
+package it.enginious.fjwt.core;
+
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the request filter refusing the same forged token over and over, with and without the
+ * {@link FjwtNegativeTokenCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FjwtNegativeTokenCacheBenchmark {
+
+    private static final FilterChain CHAIN = (req, res) -> {
+    };
+
+    @Param({"0", "1024"})
+    public int negativeCacheSize;
+
+    private FjwtRequestFilter filter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setup() {
+        FjwtConfig forgerConfig = FjwtBenchmarkFixture.config();
+        forgerConfig.setSecret(new StringBuilder(FjwtBenchmarkFixture.SECRET).reverse().toString());
+        String forgedToken =
+                FjwtBenchmarkFixture.tokenUtil(forgerConfig).generateToken(FjwtBenchmarkFixture.user());
+
+        FjwtConfig config = FjwtBenchmarkFixture.config();
+        // refusals are logged at warn with their stack trace otherwise
+        config.getFailures().setTraceSampleRate(0);
+        config.getToken().setNegativeCacheSize(negativeCacheSize);
+        filter =
+                FjwtBenchmarkFixture.requestFilter(
+                        config, FjwtBenchmarkFixture.tokenUtil(config), new NoopTokenInvalidator());
+        request = new MockHttpServletRequest("GET", FjwtBenchmarkFixture.SECURED_PATH);
+        request.setServletPath(FjwtBenchmarkFixture.SECURED_PATH);
+        request.addHeader("Authorization", "Bearer " + forgedToken);
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void forgedTokenRequest() throws Exception {
+        filter.doFilter(request, response, CHAIN);
+    }
+}
@@ -0,0 +1,68 @@
+package it.enginious.fjwt.core;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FjwtNegativeTokenCacheTest {
+
+    private static final long TTL = 1_000L;
+
+    private final AtomicLong now = new AtomicLong();
+
+    private FjwtNegativeTokenCache target;
+
+    @BeforeEach
+    void setUp() {
+        target = new FjwtNegativeTokenCache(2, TTL, now::get);
+    }
+
+    @Test
+    void whenTokenIsUnknownShouldReturnNull() {
+        assertThat(target.get("token")).isNull();
+    }
+
+    @Test
+    void whenTokenWasRefusedShouldReturnTheReason() {
+        target.put("expired", FjwtFailureReason.EXPIRED);
+        target.put("forged", FjwtFailureReason.BAD_SIGNATURE);
+
+        assertThat(target.get("expired")).isEqualTo(FjwtFailureReason.EXPIRED);
+        assertThat(target.get("forged")).isEqualTo(FjwtFailureReason.BAD_SIGNATURE);
+        assertThat(target.get("other")).isNull();
+    }
+
+    @Test
+    void whenReasonCanChangeOverTimeShouldNotCacheIt() {
+        target.put("revoked", FjwtFailureReason.REVOKED);
+        target.put("error", FjwtFailureReason.INVALIDATOR_ERROR);
+        target.put("invalid", FjwtFailureReason.INVALID);
+
+        assertThat(target.size()).isZero();
+    }
+
+    @Test
+    void whenEntryAgesOutShouldForgetTheToken() {
+        target.put("malformed", FjwtFailureReason.MALFORMED);
+
+        now.set(TTL - 1);
+        assertThat(target.get("malformed")).isEqualTo(FjwtFailureReason.MALFORMED);
+
+        now.set(TTL);
+        assertThat(target.get("malformed")).isNull();
+        assertThat(target.size()).isZero();
+    }
+
+    @Test
+    void whenMaxSizeIsReachedShouldEvictAnEntry() {
+        target.put("first", FjwtFailureReason.MALFORMED);
+        target.put("second", FjwtFailureReason.MALFORMED);
+        target.put("third", FjwtFailureReason.MALFORMED);
+
+        assertThat(target.size()).isEqualTo(2);
+        assertThat(target.get("third")).isEqualTo(FjwtFailureReason.MALFORMED);
+    }
+}
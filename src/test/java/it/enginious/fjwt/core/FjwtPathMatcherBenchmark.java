@@ -0,0 +1,52 @@
+package it.enginious.fjwt.core;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FjwtPathMatcherBenchmark {
+
+    @Param({"5", "50"})
+    public int unsecured;
+
+    private FjwtPathMatcher compiled;
+
+    private List<AntPathRequestMatcher> antMatchers;
+
+    private MockHttpServletRequest request;
+
+    @Setup
+    public void setup() {
+        String[] patterns =
+                Stream.concat(
+                                Stream.of("/authenticate"),
+                                IntStream.range(0, unsecured).mapToObj(i -> "/public" + i + "/*/resources/**"))
+                        .toArray(String[]::new);
+        compiled = new FjwtPathMatcher(patterns);
+        antMatchers = Arrays.stream(patterns).map(AntPathRequestMatcher::new).toList();
+        request = new MockHttpServletRequest("GET", FjwtBenchmarkFixture.SECURED_PATH);
+        request.setServletPath("/api/v1/orders/42");
+    }
+
+    @Benchmark
+    public boolean compiled() {
+        return compiled.matches(request);
+    }
+
+    @Benchmark
+    public boolean antPathRequestMatchers() {
+        return antMatchers.stream().anyMatch(m -> m.matches(request));
+    }
+}
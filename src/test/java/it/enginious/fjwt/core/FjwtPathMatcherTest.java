@@ -0,0 +1,139 @@
+package it.enginious.fjwt.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.security.web.util.matcher.AntPathRequestMatcher;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FjwtPathMatcherTest {
+
+    private static final List<String> PATTERNS =
+            List.of(
+                    "/",
+                    "/authenticate",
+                    "/actuator/**",
+                    "/actuator/health/",
+                    "/public/*",
+                    "/public/*/",
+                    "/static/*/**",
+                    "/api/*/docs",
+                    "/api/v1/users",
+                    "/*.html",
+                    "/files/**/*.png",
+                    "/items/{id}",
+                    "/item?",
+                    "relative/**",
+                    "/double//slash",
+                    "/api/",
+                    "**");
+
+    private static final List<String> PATHS =
+            List.of(
+                    "",
+                    "/",
+                    "//",
+                    "/authenticate",
+                    "/authenticate/",
+                    "/authenticatex",
+                    "/actuator",
+                    "/actuator/",
+                    "/actuator/health",
+                    "/actuator/health/",
+                    "/actuatorx",
+                    "/actuator.json",
+                    "//actuator/health",
+                    "/actuator//health",
+                    "/public",
+                    "/public/",
+                    "/public/a",
+                    "/public/a/",
+                    "/public/a/b",
+                    "/static",
+                    "/static/",
+                    "/static/a",
+                    "/static/a/b/c",
+                    "/api/v1/docs",
+                    "/api/v1/docs/",
+                    "/api/v1/users",
+                    "/api/v2/users",
+                    "/api/",
+                    "/api",
+                    "/index.html",
+                    "/files/a/b.png",
+                    "/items/1",
+                    "/item1",
+                    "relative/a",
+                    "/double//slash",
+                    "/double/slash");
+
+    static Stream<String> patterns() {
+        return PATTERNS.stream().filter(p -> !"**".equals(p));
+    }
+
+    @ParameterizedTest
+    @MethodSource("patterns")
+    void whenMatchingSinglePatternShouldBehaveAsAntPathRequestMatcher(String pattern) {
+        FjwtPathMatcher target = new FjwtPathMatcher(pattern);
+        AntPathRequestMatcher expected = new AntPathRequestMatcher(pattern);
+
+        for (String path : PATHS) {
+            for (MockHttpServletRequest request : requests(path)) {
+                assertThat(target.matches(request))
+                        .as("pattern [%s] path [%s] path info [%s]", pattern, request.getServletPath(), request.getPathInfo())
+                        .isEqualTo(expected.matches(request));
+            }
+        }
+    }
+
+    @Test
+    void whenMatchingManyPatternsShouldBehaveAsAnyAntPathRequestMatcher() {
+        String[] patterns = patterns().toArray(String[]::new);
+        FjwtPathMatcher target = new FjwtPathMatcher(patterns);
+        List<AntPathRequestMatcher> expected = Arrays.stream(patterns).map(AntPathRequestMatcher::new).toList();
+
+        for (String path : PATHS) {
+            for (MockHttpServletRequest request : requests(path)) {
+                assertThat(target.matches(request))
+                        .as("path [%s] path info [%s]", request.getServletPath(), request.getPathInfo())
+                        .isEqualTo(expected.stream().anyMatch(m -> m.matches(request)));
+            }
+        }
+    }
+
+    @Test
+    void whenMatchAllPatternIsPresentShouldMatchEverything() {
+        FjwtPathMatcher target = new FjwtPathMatcher("/authenticate", "**");
+
+        assertThat(PATHS.stream().flatMap(p -> requests(p).stream())).allMatch(target::matches);
+    }
+
+    @Test
+    void whenNoPatternIsPresentShouldMatchNothing() {
+        FjwtPathMatcher target = new FjwtPathMatcher();
+
+        assertThat(PATHS.stream().flatMap(p -> requests(p).stream())).noneMatch(target::matches);
+    }
+
+    /**
+     * The path as servlet path only and split between servlet path and path info
+     */
+    private static List<MockHttpServletRequest> requests(String path) {
+        MockHttpServletRequest servletPathOnly = new MockHttpServletRequest();
+        servletPathOnly.setServletPath(path);
+        int split = path.indexOf('/', 1);
+        if (split == -1) {
+            return List.of(servletPathOnly);
+        }
+        MockHttpServletRequest withPathInfo = new MockHttpServletRequest();
+        withPathInfo.setServletPath(path.substring(0, split));
+        withPathInfo.setPathInfo(path.substring(split));
+        return List.of(servletPathOnly, withPathInfo);
+    }
+}
@@ -0,0 +1,219 @@
+package it.enginious.fjwt.core;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.TimeValue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.regex.Pattern;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Runs a short profile of the benchmarks listed in the baseline and fails when throughput drops or
+ * allocations rise beyond the configured tolerances. Excluded from the default build, run it with
+ * {@code mvn test -Pperformance}.
+ *
+ * <p>Throughputs depend on the machine, so they are not compared as they are: each one is divided by
+ * the throughput of {@link FjwtReferenceBenchmark}, run in the same session before and after the other
+ * benchmarks to average out the drift of the machine, and the ratios are compared. Allocations per
+ * operation are compared as they are.
+ *
+ * <p>Supported system properties:
+ *
+ * <ul>
+ *   <li>{@code fjwt.benchmark.baseline}: baseline file, default {@code src/test/resources/benchmark/baseline.json}
+ *   <li>{@code fjwt.benchmark.report}: report file, default {@code target/benchmark/report.txt}
+ *   <li>{@code fjwt.benchmark.throughputTolerance}: allowed throughput drop, default {@code 0.15}
+ *   <li>{@code fjwt.benchmark.allocationTolerance}: allowed allocation rise, default {@code 0.10}
+ *   <li>{@code fjwt.benchmark.iterations}: warmup and measurement iterations, default {@code 3}
+ *   <li>{@code fjwt.benchmark.iterationTime}: iteration time in seconds, default {@code 1}
+ *   <li>{@code fjwt.benchmark.updateBaseline}: when {@code true} the baseline is rewritten with the
+ *       current results instead of being checked
+ * </ul>
+ */
+@Slf4j
+@Tag("performance")
+class FjwtPerformanceRegressionTest {
+
+    private static final String GC_ALLOCATION = "gc.alloc.rate.norm";
+
+    private static final String REFERENCE = "FjwtReferenceBenchmark.reference";
+
+    private static final ObjectMapper MAPPER =
+            new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private final Path baselineFile =
+            Path.of(System.getProperty("fjwt.benchmark.baseline", "src/test/resources/benchmark/baseline.json"));
+
+    private final Path reportFile =
+            Path.of(System.getProperty("fjwt.benchmark.report", "target/benchmark/report.txt"));
+
+    private final double throughputTolerance =
+            Double.parseDouble(System.getProperty("fjwt.benchmark.throughputTolerance", "0.15"));
+
+    private final double allocationTolerance =
+            Double.parseDouble(System.getProperty("fjwt.benchmark.allocationTolerance", "0.10"));
+
+    private final int iterations = Integer.getInteger("fjwt.benchmark.iterations", 3);
+
+    private final int iterationTime = Integer.getInteger("fjwt.benchmark.iterationTime", 1);
+
+    private final boolean updateBaseline = Boolean.getBoolean("fjwt.benchmark.updateBaseline");
+
+    @Test
+    void whenRunningBenchmarksShouldNotRegressAgainstBaseline() throws Exception {
+
+        Map<String, Score> baseline = readBaseline();
+        assertThat(baseline).as("baseline [%s]", baselineFile).isNotEmpty();
+
+        Set<String> names = new TreeSet<>(baseline.keySet());
+        names.remove(REFERENCE);
+        Score referenceBefore = run(Set.of(REFERENCE)).get(REFERENCE);
+        Map<String, Score> current = run(names);
+        Score referenceAfter = run(Set.of(REFERENCE)).get(REFERENCE);
+        assertThat(referenceBefore).as("reference benchmark [%s] result", REFERENCE).isNotNull();
+        assertThat(referenceAfter).as("reference benchmark [%s] result", REFERENCE).isNotNull();
+        current.put(
+                REFERENCE,
+                new Score(
+                        (referenceBefore.throughput() + referenceAfter.throughput()) / 2,
+                        (referenceBefore.allocation() + referenceAfter.allocation()) / 2));
+
+        if (updateBaseline) {
+            MAPPER.writeValue(baselineFile.toFile(), current);
+            log.warn("baseline [{}] updated with the current results", baselineFile);
+            return;
+        }
+
+        assertThat(baseline)
+                .as("baseline [%s] must be regenerated with the reference benchmark", baselineFile)
+                .containsKey(REFERENCE);
+        double baselineReference = baseline.get(REFERENCE).throughput();
+        double currentReference = current.get(REFERENCE).throughput();
+
+        List<String> regressions = new ArrayList<>();
+        StringBuilder report = new StringBuilder();
+        report.append(
+                String.format(
+                        "%-45s %-11s %12s %12s %9s %10s  %s%n",
+                        "benchmark", "metric", "baseline", "current", "change", "tolerance", "status"));
+        baseline.forEach(
+                (name, expected) -> {
+                    if (REFERENCE.equals(name)) {
+                        return;
+                    }
+                    Score actual = current.get(name);
+                    if (actual == null) {
+                        report.append(String.format("%-45s %s%n", name, "NOT RUN"));
+                        regressions.add(name + " was not run");
+                        return;
+                    }
+                    compare(
+                            name,
+                            "throughput",
+                            expected.throughput() / baselineReference,
+                            actual.throughput() / currentReference,
+                            -throughputTolerance,
+                            report,
+                            regressions);
+                    compare(name, "allocation", expected.allocation(), actual.allocation(), allocationTolerance, report, regressions);
+                });
+        report.append(
+                String.format(
+                        "%nthroughput relative to [%s] (%.3f ops/ms in the baseline, %.3f ops/ms now), "
+                                + "allocation in bytes/op, %d regression(s)%n",
+                        REFERENCE,
+                        baselineReference,
+                        currentReference,
+                        regressions.size()));
+
+        Files.createDirectories(reportFile.toAbsolutePath().getParent());
+        Files.writeString(reportFile, report);
+        log.info("benchmark report written to [{}]:{}{}", reportFile, System.lineSeparator(), report);
+
+        assertThat(regressions).as("regressions, see [%s]", reportFile).isEmpty();
+    }
+
+    private Map<String, Score> readBaseline() throws IOException {
+        return MAPPER.readValue(
+                baselineFile.toFile(),
+                MAPPER.getTypeFactory().constructMapType(TreeMap.class, String.class, Score.class));
+    }
+
+    private Map<String, Score> run(Collection<String> names) throws Exception {
+        ChainedOptionsBuilder options =
+                new OptionsBuilder()
+                        .forks(1)
+                        .warmupIterations(iterations)
+                        .warmupTime(TimeValue.seconds(iterationTime))
+                        .measurementIterations(iterations)
+                        .measurementTime(TimeValue.seconds(iterationTime))
+                        .addProfiler(GCProfiler.class);
+        names.forEach(name -> options.include("\\." + Pattern.quote(name) + "$"));
+
+        Map<String, Score> scores = new TreeMap<>();
+        for (RunResult result : new Runner(options.build()).run()) {
+            String benchmark = result.getParams().getBenchmark();
+            String name = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+            Result<?> allocation = result.getSecondaryResults().get(GC_ALLOCATION);
+            scores.put(
+                    name,
+                    new Score(
+                            result.getPrimaryResult().getScore(),
+                            allocation != null ? allocation.getScore() : Double.NaN));
+        }
+        return scores;
+    }
+
+    /**
+     * Appends a row to the report, the change is a regression when it goes beyond the tolerance in
+     * the direction given by its sign.
+     */
+    private static void compare(
+            String name,
+            String metric,
+            double expected,
+            double actual,
+            double tolerance,
+            StringBuilder report,
+            List<String> regressions) {
+
+        double change = expected == 0 ? 0 : (actual - expected) / expected;
+        boolean regressed = tolerance < 0 ? change < tolerance : change > tolerance;
+        if (regressed) {
+            regressions.add(String.format("%s %s changed by %+.2f%%", name, metric, change * 100));
+        }
+        report.append(
+                String.format(
+                        "%-45s %-11s %12.6f %12.6f %+8.2f%% %+9.2f%%  %s%n",
+                        name, metric, expected, actual, change * 100, tolerance * 100, regressed ? "REGRESSED" : "OK"));
+    }
+
+    /**
+     * A benchmark score.
+     *
+     * @param throughput operations per millisecond
+     * @param allocation bytes allocated per operation
+     */
+    record Score(double throughput, double allocation) {
+    }
+}
@@ -0,0 +1,58 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.Claims;
+import it.enginious.fjwt.core.extractors.FjwtAuthoritiesExtractor;
+import it.enginious.fjwt.core.extractors.FjwtUserDetailsFlagsExtractor;
+import it.enginious.fjwt.core.metrics.NoopFjwtMetrics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Clock;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures rebuilding the user from the verified claims of a token sent again, when a new user is
+ * built on every request and when users are shared through a {@link FjwtPrincipalCache}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FjwtPrincipalCacheBenchmark {
+
+    @Param({"false", "true"})
+    public boolean cached;
+
+    private FjwtTokenUtil tokenUtil;
+
+    private Claims claims;
+
+    private Claims cachedClaims;
+
+    @Setup
+    public void setup() {
+        FjwtUserDetailsBuilderFactory factory = FjwtSimpleUserDetailsBuilder::new;
+        tokenUtil =
+                new FjwtTokenUtil(
+                        Clock.systemDefaultZone(),
+                        FjwtBenchmarkFixture.config(),
+                        new FjwtClaimsExtractorChain(
+                                List.of(new FjwtAuthoritiesExtractor(), new FjwtUserDetailsFlagsExtractor())),
+                        cached ? FjwtUserDetailsBuilderFactory.cached(factory, new FjwtPrincipalCache(1 << 20)) : factory,
+                        new NoopFjwtMetrics());
+        tokenUtil.init();
+        String token = tokenUtil.generateToken(FjwtBenchmarkFixture.user());
+        // a token sent again is parsed into new claims, equal to the cached ones
+        cachedClaims = tokenUtil.getClaimsFromToken(token);
+        tokenUtil.getUserFromClaims(cachedClaims);
+        claims = tokenUtil.getClaimsFromToken(token);
+    }
+
+    @Benchmark
+    public UserDetails getUserFromClaims() {
+        return tokenUtil.getUserFromClaims(claims);
+    }
+}
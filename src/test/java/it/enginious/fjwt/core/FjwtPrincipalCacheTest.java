@@ -0,0 +1,96 @@
+package it.enginious.fjwt.core;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.authority.AuthorityUtils;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.Date;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FjwtPrincipalCacheTest {
+
+    private final AtomicInteger built = new AtomicInteger();
+
+    private final Function<Claims, UserDetails> builder =
+            claims -> {
+                built.incrementAndGet();
+                return new FjwtUserDetails(
+                        claims.getSubject(), AuthorityUtils.createAuthorityList("ROLE_USER"), true, true, true, true);
+            };
+
+    private final FjwtPrincipalCache target = new FjwtPrincipalCache(1024);
+
+    @Test
+    void whenClaimsAreTheSameShouldShareTheUser() {
+
+        Claims claims = claims("username", 1000L, List.of("a"));
+        UserDetails user = target.get(claims, builder);
+
+        assertThat(target.get(claims("username", 1000L, List.of("a")), builder)).isSameAs(user);
+        assertThat(built).hasValue(1);
+        assertThat(target.size()).isEqualTo(1);
+        assertThat(target.bytes()).isEqualTo(FjwtPrincipalCache.estimateBytes(claims, user));
+    }
+
+    @Test
+    void whenClaimsDifferShouldBuildAnotherUser() {
+
+        UserDetails user = target.get(claims("username", 1000L, List.of("a")), builder);
+
+        assertThat(target.get(claims("username", 1000L, List.of("b")), builder)).isNotSameAs(user);
+        assertThat(target.get(claims("username", 2000L, List.of("a")), builder)).isNotSameAs(user);
+        assertThat(target.get(claims("other", 1000L, List.of("a")), builder)).isNotSameAs(user);
+        assertThat(built).hasValue(4);
+    }
+
+    @Test
+    void whenEstimatedBytesExceedTheMaximumShouldEvict() {
+
+        Claims claims = claims("user0", 1000L, List.of());
+        long entryBytes = FjwtPrincipalCache.estimateBytes(claims, builder.apply(claims));
+        FjwtPrincipalCache small = new FjwtPrincipalCache(entryBytes * 2);
+
+        for (int i = 0; i < 10; i++) {
+            small.get(claims("user" + i, 1000L, List.of()), builder);
+        }
+
+        assertThat(small.size()).isEqualTo(2);
+        assertThat(small.bytes()).isEqualTo(entryBytes * 2);
+    }
+
+    @Test
+    void whenUserIsLargerThanTheMaximumShouldNotCacheIt() {
+
+        FjwtPrincipalCache tiny = new FjwtPrincipalCache(FjwtPrincipalCache.ENTRY_BYTES);
+        Claims claims = claims("username", 1000L, List.of());
+
+        assertThat(tiny.get(claims, builder)).isNotSameAs(tiny.get(claims, builder));
+        assertThat(tiny.size()).isZero();
+        assertThat(tiny.bytes()).isZero();
+    }
+
+    @Test
+    void whenInvalidatingAllShouldBuildTheUsersAgain() {
+
+        UserDetails user = target.get(claims("username", 1000L, List.of("a")), builder);
+        target.invalidateAll();
+
+        assertThat(target.size()).isZero();
+        assertThat(target.bytes()).isZero();
+        assertThat(target.get(claims("username", 1000L, List.of("a")), builder)).isNotSameAs(user);
+    }
+
+    private static Claims claims(String subject, long issuedAt, List<String> authorities) {
+        return Jwts.claims()
+                .subject(subject)
+                .issuedAt(new Date(issuedAt))
+                .add("authorities", authorities)
+                .build();
+    }
+}
@@ -0,0 +1,43 @@
+package it.enginious.fjwt.core;
+
+import org.openjdk.jmh.annotations.*;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Signs a fixed payload with HMAC-SHA512 through the JDK only. It doesn't depend on the library, so
+ * its score measures the speed of the machine and the JVM running the benchmarks: {@link
+ * FjwtPerformanceRegressionTest} divides the throughput of the other benchmarks by it to compare runs
+ * made on different machines.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FjwtReferenceBenchmark {
+
+    static final int PAYLOAD_BYTES = 512;
+
+    private final byte[] payload = new byte[PAYLOAD_BYTES];
+
+    private Mac mac;
+
+    @Setup
+    public void setup() throws GeneralSecurityException {
+        Arrays.fill(payload, (byte) 'a');
+        mac = Mac.getInstance("HmacSHA512");
+        mac.init(new SecretKeySpec(FjwtBenchmarkFixture.SECRET.getBytes(StandardCharsets.UTF_8), "HmacSHA512"));
+    }
+
+    @Benchmark
+    public byte[] reference() {
+        return mac.doFinal(payload);
+    }
+}
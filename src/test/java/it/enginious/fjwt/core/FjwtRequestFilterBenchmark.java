@@ -0,0 +1,43 @@
+package it.enginious.fjwt.core;
+
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FjwtRequestFilterBenchmark {
+
+    // the authentication set by the filter must not short-circuit the next invocation
+    private static final FilterChain CHAIN = (req, res) -> SecurityContextHolder.clearContext();
+
+    private FjwtRequestFilter filter;
+
+    private MockHttpServletRequest request;
+
+    private MockHttpServletResponse response;
+
+    @Setup
+    public void setup() {
+        FjwtConfig config = FjwtBenchmarkFixture.config();
+        FjwtTokenUtil tokenUtil = FjwtBenchmarkFixture.tokenUtil(config);
+        filter = FjwtBenchmarkFixture.requestFilter(config, tokenUtil, new NoopTokenInvalidator());
+        request = new MockHttpServletRequest("GET", FjwtBenchmarkFixture.SECURED_PATH);
+        request.setServletPath(FjwtBenchmarkFixture.SECURED_PATH);
+        request.addHeader("Authorization", "Bearer " + tokenUtil.generateToken(FjwtBenchmarkFixture.user()));
+        response = new MockHttpServletResponse();
+    }
+
+    @Benchmark
+    public void authenticatedRequest() throws Exception {
+        filter.doFilter(request, response, CHAIN);
+    }
+}
@@ -1,7 +1,11 @@
 package it.enginious.fjwt.core;
 
+import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import it.enginious.fjwt.core.exceptions.FjwtInvalidTokenException;
 import it.enginious.fjwt.core.exceptions.FjwtTokenInvalidatorException;
+import it.enginious.fjwt.core.metrics.FjwtMetrics;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -14,6 +18,7 @@ import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.DirectFieldAccessor;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.context.SecurityContextImpl;
@@ -30,6 +35,8 @@ import static org.mockito.BDDMockito.*;
 @ExtendWith(MockitoExtension.class)
 class FjwtRequestFilterTest {
 
+    private static final Claims CLAIMS = Jwts.claims().subject("username").build();
+
     @InjectMocks
     private FjwtRequestFilter target;
 
@@ -42,6 +49,12 @@ class FjwtRequestFilterTest {
     @Mock
     private FjwtConfig fjwtConfig;
 
+    @Mock
+    private FjwtMetrics fjwtMetrics;
+
+    @Mock
+    private FjwtFailureReporter failureReporter;
+
     @Mock
     private FilterChain filterChain;
 
@@ -60,9 +73,29 @@ class FjwtRequestFilterTest {
     @BeforeEach
     void setUp() {
         doReturn(new String[]{"/authenticate"}).when(fjwtConfig).getAllUnsecuredEndpoints();
+        doReturn(Collections.singletonList("/health/**")).when(fjwtConfig).getIgnored();
+        FjwtConfig.Token tokenConfig = new FjwtConfig.Token();
+        tokenConfig.setMaxLength(16);
+        doReturn(tokenConfig).when(fjwtConfig).getToken();
         target.init();
     }
 
+    @Test
+    void whenRequestIsForIgnoredEndpointShouldNotFilter() {
+
+        given(httpServletRequest.getServletPath()).willReturn("/health/liveness");
+
+        assertThat(target.shouldNotFilter(httpServletRequest)).isTrue();
+    }
+
+    @Test
+    void whenRequestIsNotForIgnoredEndpointShouldFilter() {
+
+        given(httpServletRequest.getServletPath()).willReturn("/securedEndpoint");
+
+        assertThat(target.shouldNotFilter(httpServletRequest)).isFalse();
+    }
+
     @Test
     void
     whenDoFilterInternalAndRequestDoesNotContainsAuthorizationHeaderTokenShouldSkipAuthentication()
@@ -70,13 +103,15 @@ class FjwtRequestFilterTest {
 
         try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
 
+            mocked.when(SecurityContextHolder::getContext).thenReturn(new SecurityContextImpl(null));
+
             given(httpServletRequest.getHeader("Authorization")).willReturn(null);
 
             target.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
 
-            then(fjwtTokenUtil).should(never()).getUsernameFromToken(anyString());
+            then(fjwtTokenUtil).shouldHaveNoInteractions();
 
-            mocked.verify(SecurityContextHolder::getContext, never());
+            mocked.verify(SecurityContextHolder::getContext, times(1));
 
             then(filterChain)
                     .should(times(1))
@@ -94,13 +129,15 @@ class FjwtRequestFilterTest {
 
         try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
 
+            mocked.when(SecurityContextHolder::getContext).thenReturn(new SecurityContextImpl(null));
+
             given(httpServletRequest.getHeader("Authorization")).willReturn(StringUtils.EMPTY);
 
             target.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
 
-            then(fjwtTokenUtil).should(never()).getUsernameFromToken(anyString());
+            then(fjwtTokenUtil).shouldHaveNoInteractions();
 
-            mocked.verify(SecurityContextHolder::getContext, never());
+            mocked.verify(SecurityContextHolder::getContext, times(1));
 
             then(filterChain)
                     .should(times(1))
@@ -120,13 +157,19 @@ class FjwtRequestFilterTest {
 
             given(httpServletRequest.getHeader("Authorization")).willReturn("Bearer token");
 
-            given(fjwtTokenUtil.getUserFromToken("token")).willThrow(new IllegalArgumentException());
+            mocked.when(SecurityContextHolder::getContext).thenReturn(new SecurityContextImpl(null));
+
+            given(fjwtTokenUtil.getClaimsFromToken("token")).willThrow(new IllegalArgumentException());
 
             target.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
 
-            then(fjwtTokenUtil).should(times(1)).getUserFromToken("token");
+            then(fjwtTokenUtil).should(times(1)).getClaimsFromToken("token");
+
+            then(fjwtTokenUtil).should(never()).getUserFromClaims(any());
 
-            mocked.verify(SecurityContextHolder::getContext, never());
+            then(fjwtMetrics).should(times(1)).recordFailure(FjwtFailureReason.MALFORMED);
+
+            mocked.verify(SecurityContextHolder::getContext, times(1));
 
             then(filterChain)
                     .should(times(1))
@@ -146,14 +189,20 @@ class FjwtRequestFilterTest {
 
             given(httpServletRequest.getHeader("Authorization")).willReturn("Bearer token");
 
-            given(fjwtTokenUtil.getUserFromToken("token"))
+            mocked.when(SecurityContextHolder::getContext).thenReturn(new SecurityContextImpl(null));
+
+            given(fjwtTokenUtil.getClaimsFromToken("token"))
                     .willThrow(new ExpiredJwtException(null, null, null));
 
             target.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
 
-            then(fjwtTokenUtil).should(times(1)).getUserFromToken("token");
+            then(fjwtTokenUtil).should(times(1)).getClaimsFromToken("token");
 
-            mocked.verify(SecurityContextHolder::getContext, never());
+            then(fjwtTokenUtil).should(never()).getUserFromClaims(any());
+
+            then(fjwtMetrics).should(times(1)).recordFailure(FjwtFailureReason.EXPIRED);
+
+            mocked.verify(SecurityContextHolder::getContext, times(1));
 
             then(filterChain)
                     .should(times(1))
@@ -173,13 +222,17 @@ class FjwtRequestFilterTest {
 
             given(httpServletRequest.getHeader("Authorization")).willReturn("Bearer token");
 
-            given(fjwtTokenUtil.getUserFromToken("token")).willReturn(null);
+            mocked.when(SecurityContextHolder::getContext).thenReturn(new SecurityContextImpl(null));
+
+            given(fjwtTokenUtil.getClaimsFromToken("token")).willReturn(CLAIMS);
+
+            given(fjwtTokenUtil.getUserFromClaims(CLAIMS)).willReturn(null);
 
             target.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
 
-            then(fjwtTokenUtil).should(times(1)).getUserFromToken("token");
+            then(fjwtTokenUtil).should(times(1)).getUserFromClaims(CLAIMS);
 
-            mocked.verify(SecurityContextHolder::getContext, never());
+            mocked.verify(SecurityContextHolder::getContext, times(1));
 
             then(filterChain)
                     .should(times(1))
@@ -200,16 +253,13 @@ class FjwtRequestFilterTest {
             SecurityContext securityContext =
                     new SecurityContextImpl(new UsernamePasswordAuthenticationToken(null, null, null));
 
-            given(httpServletRequest.getHeader("Authorization")).willReturn("Bearer token");
-
-            given(fjwtTokenUtil.getUserFromToken("token"))
-                    .willReturn(new FjwtSimpleUserDetailsBuilder("username").build());
-
             mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
 
             target.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
 
-            then(fjwtTokenUtil).should(times(1)).getUserFromToken("token");
+            then(httpServletRequest).should(never()).getHeader("Authorization");
+
+            then(fjwtTokenUtil).shouldHaveNoInteractions();
 
             mocked.verify(SecurityContextHolder::getContext, times(1));
 
@@ -238,7 +288,9 @@ class FjwtRequestFilterTest {
 
             given(httpServletRequest.getHeader("Authorization")).willReturn("Bearer token");
 
-            given(fjwtTokenUtil.getUserFromToken("token")).willReturn(user);
+            given(fjwtTokenUtil.getClaimsFromToken("token")).willReturn(CLAIMS);
+
+            given(fjwtTokenUtil.getUserFromClaims(CLAIMS)).willReturn(user);
 
             given(fjwtTokenInvalidator.wasInvalidated(user, "token")).willReturn(true);
 
@@ -246,7 +298,7 @@ class FjwtRequestFilterTest {
 
             target.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
 
-            then(fjwtTokenUtil).should(times(1)).getUserFromToken("token");
+            then(fjwtTokenUtil).should(times(1)).getUserFromClaims(CLAIMS);
 
             mocked.verify(SecurityContextHolder::getContext, times(1));
 
@@ -281,22 +333,30 @@ class FjwtRequestFilterTest {
 
             given(httpServletRequest.getHeader("Authorization")).willReturn("Bearer token");
 
-            given(fjwtTokenUtil.getUserFromToken("token")).willReturn(user);
+            given(fjwtTokenUtil.getClaimsFromToken("token")).willReturn(CLAIMS);
+
+            given(fjwtTokenUtil.getUserFromClaims(CLAIMS)).willReturn(user);
 
             mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
 
             target.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
 
-            then(fjwtTokenUtil).should(times(1)).getUserFromToken("token");
+            then(fjwtTokenUtil).should(never()).getUserFromClaims(any());
 
             mocked.verify(SecurityContextHolder::getContext, times(2));
 
             assertThat(securityContext.getAuthentication()).isNotNull();
+            assertThat(securityContext.getAuthentication().getName()).isEqualTo("username");
+
+            then(httpServletRequest).should(times(1)).setAttribute(FjwtRequestFilter.CLAIMS_ATTRIBUTE, CLAIMS);
+
             assertThat(((UserDetails) securityContext.getAuthentication().getPrincipal()).getUsername())
                     .isEqualTo("username");
             assertThat(((UserDetails) securityContext.getAuthentication().getPrincipal()).getPassword())
                     .isEqualTo("$2a$10$mHxPfPszH48Q/31BIK8LIeBAm.s6FWTlhtWHb9.Dy56ujc6mfNIbS");
 
+            then(fjwtTokenUtil).should(times(1)).getUserFromClaims(CLAIMS);
+
             then(noopTokenInvalidator).should(never()).wasInvalidated(any(), anyString());
 
             then(filterChain)
@@ -326,7 +386,9 @@ class FjwtRequestFilterTest {
 
             given(httpServletRequest.getHeader("Authorization")).willReturn("Bearer token");
 
-            given(fjwtTokenUtil.getUserFromToken("token")).willReturn(user);
+            given(fjwtTokenUtil.getClaimsFromToken("token")).willReturn(CLAIMS);
+
+            given(fjwtTokenUtil.getUserFromClaims(CLAIMS)).willReturn(user);
 
             given(fjwtTokenInvalidator.wasInvalidated(user, "token")).willReturn(false);
 
@@ -334,7 +396,7 @@ class FjwtRequestFilterTest {
 
             target.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
 
-            then(fjwtTokenUtil).should(times(1)).getUserFromToken("token");
+            then(fjwtTokenUtil).should(times(1)).getUserFromClaims(CLAIMS);
 
             mocked.verify(SecurityContextHolder::getContext, times(2));
 
@@ -369,7 +431,9 @@ class FjwtRequestFilterTest {
 
             given(httpServletRequest.getHeader("Authorization")).willReturn("Bearer token");
 
-            given(fjwtTokenUtil.getUserFromToken("token")).willReturn(user);
+            given(fjwtTokenUtil.getClaimsFromToken("token")).willReturn(CLAIMS);
+
+            given(fjwtTokenUtil.getUserFromClaims(CLAIMS)).willReturn(user);
 
             given(fjwtTokenInvalidator.wasInvalidated(user, "token"))
                     .willThrow(new FjwtTokenInvalidatorException());
@@ -378,7 +442,7 @@ class FjwtRequestFilterTest {
 
             target.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
 
-            then(fjwtTokenUtil).should(times(1)).getUserFromToken("token");
+            then(fjwtTokenUtil).should(times(1)).getUserFromClaims(CLAIMS);
 
             mocked.verify(SecurityContextHolder::getContext, times(1));
 
@@ -390,4 +454,183 @@ class FjwtRequestFilterTest {
             assertThat(httpServletResponseCaptor.getValue()).isEqualTo(httpServletResponse);
         }
     }
+
+    @Test
+    void whenDoFilterInternalAndExtractorThrowsWithNoopTokenInvalidatorShouldNotBeAuthenticated()
+            throws ServletException, IOException {
+
+        try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
+
+            DirectFieldAccessor dfa = new DirectFieldAccessor(target);
+            dfa.setPropertyValue("fjwtTokenInvalidator", Mockito.mock(NoopTokenInvalidator.class));
+
+            SecurityContextImpl securityContext = new SecurityContextImpl(null);
+
+            given(httpServletRequest.getHeader("Authorization")).willReturn("Bearer token");
+
+            given(fjwtTokenUtil.getClaimsFromToken("token")).willReturn(CLAIMS);
+
+            given(fjwtTokenUtil.getUserFromClaims(CLAIMS)).willThrow(new IllegalStateException("extractor failed"));
+
+            mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+
+            target.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
+
+            Authentication authentication = securityContext.getAuthentication();
+            assertThat(authentication.getAuthorities()).isEmpty();
+            assertThat(authentication.getPrincipal()).isNull();
+            assertThat(authentication.isAuthenticated()).isFalse();
+
+            then(filterChain).should(times(1)).doFilter(httpServletRequest, httpServletResponse);
+
+            dfa.setPropertyValue("fjwtTokenInvalidator", fjwtTokenInvalidator);
+        }
+    }
+
+    @Test
+    void whenDoFilterInternalAndExtractorThrowsShouldAbortAuthentication()
+            throws ServletException, IOException {
+
+        try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
+
+            SecurityContextImpl securityContext = new SecurityContextImpl(null);
+
+            given(httpServletRequest.getHeader("Authorization")).willReturn("Bearer token");
+
+            given(fjwtTokenUtil.getClaimsFromToken("token")).willReturn(CLAIMS);
+
+            given(fjwtTokenUtil.getUserFromClaims(CLAIMS)).willThrow(new IllegalStateException("extractor failed"));
+
+            mocked.when(SecurityContextHolder::getContext).thenReturn(securityContext);
+
+            target.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
+
+            assertThat(securityContext.getAuthentication()).isNull();
+
+            then(fjwtTokenInvalidator).shouldHaveNoInteractions();
+
+            then(fjwtMetrics).should(times(1)).recordFailure(FjwtFailureReason.INVALID);
+
+            then(failureReporter).should(times(1)).report(eq(FjwtFailureReason.INVALID), any(), any());
+
+            then(filterChain).should(times(1)).doFilter(httpServletRequest, httpServletResponse);
+        }
+    }
+
+    @Test
+    void whenDoFilterInternalAndRequestContainsAuthorizationHeaderWithPaddedTokenShouldTrimIt()
+            throws ServletException, IOException {
+
+        try (MockedStatic<SecurityContextHolder> mocked = mockStatic(SecurityContextHolder.class)) {
+
+            mocked.when(SecurityContextHolder::getContext).thenReturn(new SecurityContextImpl(null));
+
+            given(httpServletRequest.getHeader("Authorization")).willReturn("Bearer   token \t");
+
+            given(fjwtTokenUtil.getClaimsFromToken("token")).willReturn(CLAIMS);
+
+            target.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
+
+            then(fjwtTokenUtil).should(times(1)).checkExpiration("token");
+
+            then(fjwtTokenUtil).should(times(1)).getClaimsFromToken("token");
+
+            then(filterChain).should(times(1)).doFilter(httpServletRequest, httpServletResponse);
+        }
+    }
+
+    @Test
+    void whenDoFilterInternalAndRequestContainsAuthorizationHeaderWithoutBearerPrefixShouldSkipAuthentication()
+            throws ServletException, IOException {
+
+        given(httpServletRequest.getHeader("Authorization")).willReturn("Basic dXNlcjpwYXNz");
+
+        target.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
+
+        then(fjwtTokenUtil).shouldHaveNoInteractions();
+
+        then(failureReporter).shouldHaveNoInteractions();
+
+        then(filterChain).should(times(1)).doFilter(httpServletRequest, httpServletResponse);
+    }
+
+    @Test
+    void whenDoFilterInternalAndRequestContainsOversizedTokenShouldRefuseItWithoutParsing()
+            throws ServletException, IOException {
+
+        given(httpServletRequest.getHeader("Authorization")).willReturn("Bearer " + "a".repeat(17));
+
+        given(httpServletRequest.getRemoteAddr()).willReturn("10.0.0.1");
+
+        target.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
+
+        then(fjwtTokenUtil).shouldHaveNoInteractions();
+
+        then(fjwtMetrics).should(times(1)).recordFailure(FjwtFailureReason.OVERSIZED);
+
+        then(failureReporter).should(times(1)).report(eq(FjwtFailureReason.OVERSIZED), eq("10.0.0.1"), any());
+
+        then(filterChain).should(times(1)).doFilter(httpServletRequest, httpServletResponse);
+    }
+
+    @Test
+    void whenDoFilterInternalAndTokenIsExpiredShouldStopBeforeVerification()
+            throws ServletException, IOException {
+
+        given(httpServletRequest.getHeader("Authorization")).willReturn("Bearer token");
+
+        willThrow(new FjwtInvalidTokenException(FjwtFailureReason.EXPIRED, "token is expired"))
+                .given(fjwtTokenUtil)
+                .checkExpiration("token");
+
+        target.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
+
+        then(fjwtTokenUtil).should(never()).getClaimsFromToken(anyString());
+
+        then(httpServletRequest).should(never()).setAttribute(eq(FjwtRequestFilter.CLAIMS_ATTRIBUTE), any());
+
+        then(fjwtMetrics).should(times(1)).recordFailure(FjwtFailureReason.EXPIRED);
+
+        then(fjwtMetrics).should(times(1)).recordFilterStage(eq(FjwtMetrics.STAGE_CONTEXT), anyLong());
+        then(fjwtMetrics).should(times(1)).recordFilterStage(eq(FjwtMetrics.STAGE_EXTRACTION), anyLong());
+        then(fjwtMetrics).should(times(1)).recordFilterStage(eq(FjwtMetrics.STAGE_EXPIRATION), anyLong());
+        then(fjwtMetrics).should(never()).recordFilterStage(eq(FjwtMetrics.STAGE_VERIFICATION), anyLong());
+
+        then(filterChain).should(times(1)).doFilter(httpServletRequest, httpServletResponse);
+    }
+
+    @Test
+    void whenDoFilterInternalAndNegativeCacheIsEnabledShouldRefuseARefusedTokenWithoutParsingIt()
+            throws ServletException, IOException {
+
+        FjwtConfig.Token tokenConfig = new FjwtConfig.Token();
+        tokenConfig.setMaxLength(16);
+        tokenConfig.setNegativeCacheSize(10);
+        doReturn(tokenConfig).when(fjwtConfig).getToken();
+        target.init();
+
+        given(httpServletRequest.getHeader("Authorization")).willReturn("Bearer token");
+
+        given(httpServletRequest.getRemoteAddr()).willReturn("10.0.0.1");
+
+        willThrow(new FjwtInvalidTokenException(FjwtFailureReason.EXPIRED, "token is expired"))
+                .given(fjwtTokenUtil)
+                .checkExpiration("token");
+
+        target.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
+        target.doFilterInternal(httpServletRequest, httpServletResponse, filterChain);
+
+        then(fjwtTokenUtil).should(times(1)).checkExpiration("token");
+
+        then(fjwtMetrics).should(times(2)).recordFailure(FjwtFailureReason.EXPIRED);
+        then(fjwtMetrics).should(times(2)).recordFilterStage(eq(FjwtMetrics.STAGE_NEGATIVE_CACHE), anyLong());
+        then(fjwtMetrics).should(times(1)).recordFilterStage(eq(FjwtMetrics.STAGE_EXPIRATION), anyLong());
+
+        then(failureReporter)
+                .should(times(1))
+                .report(eq(FjwtFailureReason.EXPIRED), eq("10.0.0.1"), any(FjwtInvalidTokenException.class));
+        then(failureReporter).should(times(1)).report(FjwtFailureReason.EXPIRED, "10.0.0.1", null);
+
+        then(filterChain).should(times(2)).doFilter(httpServletRequest, httpServletResponse);
+    }
 }
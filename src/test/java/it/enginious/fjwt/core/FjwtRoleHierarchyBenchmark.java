@@ -0,0 +1,82 @@
+package it.enginious.fjwt.core;
+
+import it.enginious.fjwt.core.extractors.FjwtAuthoritiesExtractor;
+import it.enginious.fjwt.core.extractors.FjwtUserDetailsFlagsExtractor;
+import it.enginious.fjwt.core.metrics.NoopFjwtMetrics;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.IntStream;
+
+/**
+ * Compares parsing and verifying the token of an admin, who implies an editor, who implies a viewer,
+ * each role implying {@value #PERMISSIONS} permissions, when all the authorities are written in the
+ * token and when only the top-level role is written and expanded by a {@link FjwtRoleHierarchy}. The
+ * token sizes are printed on setup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FjwtRoleHierarchyBenchmark {
+
+    static final int PERMISSIONS = 20;
+
+    @Param({"false", "true"})
+    public boolean hierarchy;
+
+    private FjwtTokenUtil tokenUtil;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        FjwtConfig config = FjwtBenchmarkFixture.config();
+        Map<String, List<String>> roles =
+                Map.of(
+                        "ROLE_ADMIN", implying("ROLE_EDITOR", "ADMIN"),
+                        "ROLE_EDITOR", implying("ROLE_VIEWER", "EDIT"),
+                        "ROLE_VIEWER", implying(null, "VIEW"));
+        FjwtGrantedAuthorityPool pool = new FjwtGrantedAuthorityPool();
+        FjwtRoleHierarchy roleHierarchy = new FjwtRoleHierarchy(roles, pool, 1024);
+        FjwtAuthoritiesExtractor extractor =
+                new FjwtAuthoritiesExtractor(pool, null, hierarchy ? roleHierarchy : null);
+        tokenUtil =
+                new FjwtTokenUtil(
+                        Clock.systemDefaultZone(),
+                        config,
+                        new FjwtClaimsExtractorChain(List.of(extractor, new FjwtUserDetailsFlagsExtractor())),
+                        FjwtSimpleUserDetailsBuilder::new,
+                        new NoopFjwtMetrics());
+        tokenUtil.init();
+        UserDetails user =
+                User.withUsername("username")
+                        .password("password")
+                        .authorities(roleHierarchy.expand(List.of("ROLE_ADMIN")))
+                        .build();
+        token = tokenUtil.generateToken(user);
+        System.out.printf("%ntoken length with hierarchy=%s: %d%n", hierarchy, token.length());
+    }
+
+    private static List<String> implying(String role, String prefix) {
+        List<String> implied = new ArrayList<>();
+        if (role != null) {
+            implied.add(role);
+        }
+        IntStream.range(0, PERMISSIONS).mapToObj(i -> prefix + "_PERMISSION_" + i).forEach(implied::add);
+        return implied;
+    }
+
+    @Benchmark
+    public UserDetails getUserFromToken() {
+        return tokenUtil.getUserFromToken(token);
+    }
+}
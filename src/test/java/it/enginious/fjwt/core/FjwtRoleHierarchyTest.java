@@ -0,0 +1,83 @@
+package it.enginious.fjwt.core;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FjwtRoleHierarchyTest {
+
+    private static final Map<String, List<String>> HIERARCHY =
+            Map.of(
+                    "ROLE_ADMIN", List.of("ROLE_EDITOR", "AUDIT"),
+                    "ROLE_EDITOR", List.of("ROLE_VIEWER", "WRITE"),
+                    "ROLE_VIEWER", List.of("READ"));
+
+    private final FjwtGrantedAuthorityPool pool = new FjwtGrantedAuthorityPool();
+
+    private final FjwtRoleHierarchy target = new FjwtRoleHierarchy(HIERARCHY, pool, 16);
+
+    @Test
+    void whenCompressingShouldKeepOnlyTheAuthoritiesNotImpliedByOthers() {
+
+        assertThat(target.compress(List.of("READ", "ROLE_ADMIN", "ROLE_EDITOR", "OTHER", "WRITE", "OTHER")))
+                .containsExactly("ROLE_ADMIN", "OTHER");
+        assertThat(target.compress(List.of("ROLE_VIEWER", "WRITE"))).containsExactly("ROLE_VIEWER", "WRITE");
+        assertThat(target.compress(List.of())).isEmpty();
+    }
+
+    @Test
+    void whenExpandingShouldAddTheImpliedAuthorities() {
+
+        assertThat(target.expand(List.of("ROLE_EDITOR", "OTHER")).stream().map(GrantedAuthority::getAuthority))
+                .containsExactlyInAnyOrder("ROLE_EDITOR", "OTHER", "ROLE_VIEWER", "WRITE", "READ");
+        assertThat(target.expand(List.of("ROLE_ADMIN"))).hasSize(6);
+    }
+
+    @Test
+    void whenExpandingTheSameCombinationShouldShareTheExpandedSet() {
+
+        FjwtAuthoritySet expanded = target.expand(List.of("ROLE_EDITOR", "OTHER"));
+
+        assertThat(target.expand(List.of("OTHER", "ROLE_EDITOR", "OTHER"))).isSameAs(expanded);
+        assertThat(target.expand(List.of("ROLE_EDITOR"))).isNotSameAs(expanded);
+    }
+
+    @Test
+    void whenCacheIsFullShouldExpandAgain() {
+
+        FjwtRoleHierarchy small = new FjwtRoleHierarchy(HIERARCHY, pool, 1);
+        small.expand(List.of("ROLE_ADMIN"));
+
+        assertThat(small.expand(List.of("ROLE_VIEWER")))
+                .isNotSameAs(small.expand(List.of("ROLE_VIEWER")))
+                .hasSize(2);
+    }
+
+    @Test
+    void whenGettingReachableAuthoritiesShouldExpandThem() {
+
+        assertThat(target.getReachableGrantedAuthorities(AuthorityUtils.createAuthorityList("ROLE_VIEWER")))
+                .extracting(GrantedAuthority::getAuthority)
+                .containsExactlyInAnyOrder("ROLE_VIEWER", "READ");
+        assertThat(target.getReachableGrantedAuthorities(List.of())).isEmpty();
+    }
+
+    @Test
+    void whenHierarchyContainsACycleShouldThrow() {
+
+        Map<String, List<String>> cyclic =
+                Map.of("ROLE_A", List.of("ROLE_B"), "ROLE_B", List.of("ROLE_C"), "ROLE_C", List.of("ROLE_A"));
+
+        assertThatThrownBy(() -> new FjwtRoleHierarchy(cyclic, pool, 16))
+                .isInstanceOf(IllegalStateException.class)
+                .hasMessageContaining("cycle");
+        assertThatThrownBy(() -> new FjwtRoleHierarchy(Map.of("ROLE_A", List.of("ROLE_A")), pool, 16))
+                .isInstanceOf(IllegalStateException.class);
+    }
+}
@@ -0,0 +1,127 @@
+package it.enginious.fjwt.core;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assumptions.assumeThat;
+
+class FjwtScopedSecurityContextFilterTest {
+
+    private final FjwtScopedSecurityContextFilter target =
+            new FjwtScopedSecurityContextFilter(
+                    new FjwtScopedValueSecurityContextHolderStrategy(SecurityContextHolder.getContextHolderStrategy()));
+
+    private final MockHttpServletRequest request = new MockHttpServletRequest();
+
+    private final MockHttpServletResponse response = new MockHttpServletResponse();
+
+    @Test
+    void whenDoFilterShouldInvokeTheChain() throws Exception {
+
+        AtomicBoolean invoked = new AtomicBoolean();
+
+        target.doFilter(request, response, (req, res) -> invoked.set(true));
+
+        assertThat(invoked).isTrue();
+    }
+
+    @Test
+    void whenChainThrowsCheckedExceptionsShouldRethrowThem() {
+
+        FilterChain io =
+                (req, res) -> {
+                    throw new IOException("io");
+                };
+        FilterChain servlet =
+                (req, res) -> {
+                    throw new ServletException("servlet");
+                };
+
+        assertThatThrownBy(() -> target.doFilter(request, new MockHttpServletResponse(), io))
+                .isInstanceOf(IOException.class)
+                .hasMessage("io");
+        assertThatThrownBy(() -> target.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), servlet))
+                .isInstanceOf(ServletException.class)
+                .hasMessage("servlet");
+    }
+
+    @Test
+    void whenManyRequestsRunOnVirtualThreadsShouldAuthenticateEachOneInItsOwnScope() throws Exception {
+
+        assumeThat(FjwtScopedValueSecurityContextHolderStrategy.isSupported()).isTrue();
+
+        int requests = 10_000;
+        FjwtConfig config = FjwtBenchmarkFixture.config();
+        FjwtTokenUtil tokenUtil = FjwtBenchmarkFixture.tokenUtil(config);
+        FjwtRequestFilter filter = FjwtBenchmarkFixture.requestFilter(config, tokenUtil, new NoopTokenInvalidator());
+        String authorization = "Bearer " + tokenUtil.generateToken(FjwtBenchmarkFixture.user());
+        SecurityContextHolderStrategy threadLocal = SecurityContextHolder.getContextHolderStrategy();
+        FjwtScopedValueSecurityContextHolderStrategy strategy =
+                new FjwtScopedValueSecurityContextHolderStrategy(threadLocal);
+        FjwtScopedSecurityContextFilter scopedFilter = new FjwtScopedSecurityContextFilter(strategy);
+        CountDownLatch authenticated = new CountDownLatch(requests);
+        LongAdder failures = new LongAdder();
+        // every request is held until all of them are authenticated, so that they are concurrent
+        FilterChain chain =
+                (req, res) -> {
+                    if (Objects.isNull(SecurityContextHolder.getContext().getAuthentication())) {
+                        failures.increment();
+                    }
+                    authenticated.countDown();
+                    try {
+                        authenticated.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                };
+
+        strategy.afterSingletonsInstantiated();
+        ExecutorService executor = FjwtClaimsExtractorChain.newDefaultExecutor();
+        try {
+            List<Future<?>> futures = new ArrayList<>(requests);
+            for (int i = 0; i < requests; i++) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    MockHttpServletRequest securedRequest =
+                                            new MockHttpServletRequest("GET", FjwtBenchmarkFixture.SECURED_PATH);
+                                    securedRequest.setServletPath(FjwtBenchmarkFixture.SECURED_PATH);
+                                    securedRequest.addHeader("Authorization", authorization);
+                                    scopedFilter.doFilter(
+                                            securedRequest,
+                                            new MockHttpServletResponse(),
+                                            (rq, rs) -> filter.doFilter(rq, rs, chain));
+                                    return null;
+                                }));
+            }
+            for (Future<?> future : futures) {
+                future.get(1, TimeUnit.MINUTES);
+            }
+        } finally {
+            executor.shutdown();
+            strategy.destroy();
+        }
+
+        assertThat(failures.sum()).isZero();
+        assertThat(threadLocal.getContext().getAuthentication()).isNull();
+        assertThat(SecurityContextHolder.getContextHolderStrategy()).isSameAs(threadLocal);
+    }
+}
@@ -0,0 +1,190 @@
+package it.enginious.fjwt.core;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.lang.reflect.Constructor;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assumptions.assumeThat;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class FjwtScopedValueSecurityContextHolderStrategyTest {
+
+    private static final SecurityContext CONTEXT =
+            new SecurityContextImpl(new TestingAuthenticationToken("username", null));
+
+    @Mock
+    private SecurityContextHolderStrategy fallback;
+
+    @Test
+    void whenOutsideAScopeShouldDelegateToTheFallback() {
+
+        FjwtScopedValueSecurityContextHolderStrategy target =
+                new FjwtScopedValueSecurityContextHolderStrategy(fallback);
+        Supplier<SecurityContext> deferred = () -> CONTEXT;
+        given(fallback.getContext()).willReturn(CONTEXT);
+
+        target.setContext(CONTEXT);
+        target.setDeferredContext(deferred);
+        assertThat(target.getContext()).isSameAs(CONTEXT);
+        target.clearContext();
+
+        then(fallback).should(times(1)).setContext(CONTEXT);
+        then(fallback).should(times(1)).setDeferredContext(deferred);
+        then(fallback).should(times(1)).clearContext();
+    }
+
+    @Test
+    void whenScopedValueIsNotSupportedShouldJustRunTheAction() {
+
+        assumeThat(FjwtScopedValueSecurityContextHolderStrategy.isSupported()).isFalse();
+
+        FjwtScopedValueSecurityContextHolderStrategy target =
+                new FjwtScopedValueSecurityContextHolderStrategy(fallback);
+        AtomicBoolean run = new AtomicBoolean();
+
+        target.runInNewScope(
+                () -> {
+                    target.setContext(CONTEXT);
+                    run.set(true);
+                });
+
+        assertThat(run).isTrue();
+        then(fallback).should(times(1)).setContext(CONTEXT);
+    }
+
+    @Test
+    void whenInsideAScopeShouldKeepTheContextInTheScope() {
+
+        assumeThat(FjwtScopedValueSecurityContextHolderStrategy.isSupported()).isTrue();
+
+        FjwtScopedValueSecurityContextHolderStrategy target =
+                new FjwtScopedValueSecurityContextHolderStrategy(fallback);
+
+        target.runInNewScope(
+                () -> {
+                    assertThat(target.getContext().getAuthentication()).isNull();
+                    target.setContext(CONTEXT);
+                    assertThat(target.getContext()).isSameAs(CONTEXT);
+                    target.runInNewScope(() -> assertThat(target.getContext().getAuthentication()).isNull());
+                    assertThat(target.getContext()).isSameAs(CONTEXT);
+                    target.clearContext();
+                    assertThat(target.getContext()).isNotSameAs(CONTEXT);
+                    target.setDeferredContext(() -> CONTEXT);
+                    assertThat(target.getDeferredContext().get()).isSameAs(CONTEXT);
+                });
+
+        then(fallback).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void whenSubtaskWritesTheContextShouldNotChangeTheOneOfTheRequest() throws Exception {
+
+        assumeThat(FjwtScopedValueSecurityContextHolderStrategy.isSupported()).isTrue();
+
+        FjwtScopedValueSecurityContextHolderStrategy target =
+                new FjwtScopedValueSecurityContextHolderStrategy(fallback);
+        SecurityContext other = new SecurityContextImpl(new TestingAuthenticationToken("other", null));
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        target.runInNewScope(
+                () -> {
+                    target.setContext(CONTEXT);
+                    runInSubtask(
+                            () -> {
+                                assertThat(target.getContext()).isSameAs(CONTEXT);
+                                target.setContext(other);
+                                assertThat(target.getContext()).isSameAs(other);
+                                target.clearContext();
+                                assertThat(target.getContext().getAuthentication()).isNull();
+                            },
+                            failure);
+                    assertThat(target.getContext()).isSameAs(CONTEXT);
+                });
+
+        assertThat(failure.get()).isNull();
+        then(fallback).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void whenSubtaskReadsADeferredContextShouldNotStoreItInTheRequest() throws Exception {
+
+        assumeThat(FjwtScopedValueSecurityContextHolderStrategy.isSupported()).isTrue();
+
+        FjwtScopedValueSecurityContextHolderStrategy target =
+                new FjwtScopedValueSecurityContextHolderStrategy(fallback);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        target.runInNewScope(
+                () -> {
+                    target.setDeferredContext(() -> null);
+                    runInSubtask(() -> assertThat(target.getContext().getAuthentication()).isNull(), failure);
+                    target.setDeferredContext(() -> CONTEXT);
+                    runInSubtask(() -> assertThat(target.getContext()).isSameAs(CONTEXT), failure);
+                    assertThat(target.getContext()).isSameAs(CONTEXT);
+                });
+
+        assertThat(failure.get()).isNull();
+    }
+
+    @Test
+    void whenInstalledShouldReplaceTheGlobalStrategyUntilDestroyed() {
+
+        SecurityContextHolderStrategy previous = SecurityContextHolder.getContextHolderStrategy();
+        FjwtScopedValueSecurityContextHolderStrategy target =
+                new FjwtScopedValueSecurityContextHolderStrategy(previous);
+
+        try {
+            target.afterSingletonsInstantiated();
+
+            assertThat(SecurityContextHolder.getContextHolderStrategy())
+                    .isSameAs(FjwtScopedValueSecurityContextHolderStrategy.isSupported() ? target : previous);
+        } finally {
+            target.destroy();
+        }
+
+        assertThat(SecurityContextHolder.getContextHolderStrategy()).isSameAs(previous);
+    }
+
+    /**
+     * Run the action in a subtask of a {@code StructuredTaskScope}, which inherits the scoped values of
+     * the caller. The API is called reflectively since the tests are compiled for Java 17, and only its
+     * Java 21 to 24 shape is supported
+     */
+    private static void runInSubtask(Runnable action, AtomicReference<Throwable> failure) {
+        try {
+            Class<?> type = Class.forName("java.util.concurrent.StructuredTaskScope");
+            Constructor<?> constructor = type.getConstructor();
+            try (AutoCloseable scope = (AutoCloseable) constructor.newInstance()) {
+                Callable<Object> subtask =
+                        () -> {
+                            try {
+                                action.run();
+                            } catch (Throwable e) {
+                                failure.compareAndSet(null, e);
+                            }
+                            return null;
+                        };
+                type.getMethod("fork", Callable.class).invoke(scope, subtask);
+                type.getMethod("join").invoke(scope);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("StructuredTaskScope can't be used", e);
+        }
+    }
+}
@@ -1,12 +1,17 @@
 package it.enginious.fjwt.core;
 
 import org.junit.jupiter.api.Test;
+import org.springframework.security.core.GrantedAuthority;
+import org.springframework.security.core.authority.AuthorityUtils;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
 
+import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 class FjwtSimpleUserDetailsBuilderTest {
 
@@ -30,4 +35,31 @@ class FjwtSimpleUserDetailsBuilderTest {
         assertThat(userDetails.getAuthorities()).hasSize(1);
         assertThat(userDetails.getAuthorities().iterator().next().getAuthority()).isEqualTo("auth1");
     }
+
+    @Test
+    void whenBuildingShouldReturnAnImmutableUser() {
+
+        List<GrantedAuthority> authorities = new ArrayList<>(AuthorityUtils.createAuthorityList("auth1"));
+        FjwtSimpleUserDetailsBuilder builder = new FjwtSimpleUserDetailsBuilder("username");
+        builder.authorities(authorities);
+        builder.accountLocked(true);
+        UserDetails userDetails = builder.build();
+        authorities.add(new SimpleGrantedAuthority("auth2"));
+
+        assertThat(userDetails)
+                .isEqualTo(new FjwtUserDetails("username", List.of(authorities.get(0)), true, false, true, true));
+        assertThat(userDetails.getAuthorities()).hasSize(1);
+        assertThatThrownBy(() -> userDetails.getAuthorities().clear())
+                .isInstanceOf(UnsupportedOperationException.class);
+    }
+
+    @Test
+    void whenAuthoritiesAreAnAuthoritySetShouldKeepThem() {
+
+        FjwtAuthoritySet authorities = FjwtAuthoritySet.of(List.of("auth1"), new FjwtGrantedAuthorityPool());
+        FjwtSimpleUserDetailsBuilder builder = new FjwtSimpleUserDetailsBuilder("username");
+        builder.authorities(authorities);
+
+        assertThat(builder.build().getAuthorities()).isSameAs(authorities);
+    }
 }
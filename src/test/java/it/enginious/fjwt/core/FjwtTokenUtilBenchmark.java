@@ -0,0 +1,38 @@
+package it.enginious.fjwt.core;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FjwtTokenUtilBenchmark {
+
+    private FjwtTokenUtil tokenUtil;
+
+    private UserDetails user;
+
+    private String token;
+
+    @Setup
+    public void setup() {
+        tokenUtil = FjwtBenchmarkFixture.tokenUtil(FjwtBenchmarkFixture.config());
+        user = FjwtBenchmarkFixture.user();
+        token = tokenUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenUtil.generateToken(user);
+    }
+
+    @Benchmark
+    public UserDetails getUserFromToken() {
+        return tokenUtil.getUserFromToken(token);
+    }
+}
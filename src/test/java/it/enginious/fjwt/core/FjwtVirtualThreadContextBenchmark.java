@@ -0,0 +1,146 @@
+package it.enginious.fjwt.core;
+
+import jakarta.servlet.FilterChain;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryMXBean;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs a million concurrent requests, one virtual thread each, through {@link FjwtRequestFilter}
+ * with the security context kept in a {@link ThreadLocal} and then in a {@code ScopedValue}, see
+ * {@link FjwtScopedValueSecurityContextHolderStrategy}. All the requests are held in the chain until
+ * the last one has been authenticated, so that they are really concurrent, then wall time and heap
+ * in use at that moment are printed for both runs.
+ *
+ * <p>Run {@link #main(String[])} from the test classpath on Java 21 or later, with {@code
+ * --enable-preview} up to Java 24 and a heap large enough for the requests (about {@code
+ * -Xmx16g} for a million). The number of requests can be passed as the first argument.
+ */
+public class FjwtVirtualThreadContextBenchmark {
+
+    private static final int DEFAULT_REQUESTS = 1_000_000;
+
+    public static void main(String[] args) throws Exception {
+
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_REQUESTS;
+        if (Runtime.version().feature() < 21) {
+            System.out.printf("virtual threads need Java 21 or later, running on Java [%s]%n", Runtime.version());
+            return;
+        }
+
+        FjwtConfig config = FjwtBenchmarkFixture.config();
+        FjwtTokenUtil tokenUtil = FjwtBenchmarkFixture.tokenUtil(config);
+        FjwtRequestFilter filter = FjwtBenchmarkFixture.requestFilter(config, tokenUtil, new NoopTokenInvalidator());
+        String authorization = "Bearer " + tokenUtil.generateToken(FjwtBenchmarkFixture.user());
+        SecurityContextHolderStrategy threadLocal = SecurityContextHolder.getContextHolderStrategy();
+
+        System.out.printf("%-12s %10s %12s %14s %12s%n", "context", "requests", "wall ms", "requests/s", "heap MB");
+        run("ThreadLocal", requests, filter, authorization, null);
+        if (!FjwtScopedValueSecurityContextHolderStrategy.isSupported()) {
+            System.out.println("ScopedValue is not available, run with --enable-preview up to Java 24");
+            return;
+        }
+        FjwtScopedValueSecurityContextHolderStrategy scopedValue =
+                new FjwtScopedValueSecurityContextHolderStrategy(threadLocal);
+        SecurityContextHolder.setContextHolderStrategy(scopedValue);
+        try {
+            run("ScopedValue", requests, filter, authorization, new FjwtScopedSecurityContextFilter(scopedValue));
+        } finally {
+            SecurityContextHolder.setContextHolderStrategy(threadLocal);
+        }
+    }
+
+    private static void run(
+            String name,
+            int requests,
+            FjwtRequestFilter filter,
+            String authorization,
+            FjwtScopedSecurityContextFilter scopedFilter)
+            throws Exception {
+
+        MemoryMXBean memory = ManagementFactory.getMemoryMXBean();
+        System.gc();
+        long heapBefore = memory.getHeapMemoryUsage().getUsed();
+        CountDownLatch authenticated = new CountDownLatch(requests);
+        CountDownLatch release = new CountDownLatch(1);
+        LongAdder failures = new LongAdder();
+        long heapUnderLoad;
+
+        // holds every request, authenticated, until all of them are in flight
+        FilterChain chain =
+                (req, res) -> {
+                    if (SecurityContextHolder.getContext().getAuthentication() == null) {
+                        failures.increment();
+                    }
+                    authenticated.countDown();
+                    try {
+                        release.await();
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                    SecurityContextHolder.clearContext();
+                };
+
+        long start = System.nanoTime();
+        List<Future<?>> futures = new ArrayList<>(requests);
+        ExecutorService executor = newVirtualThreadPerTaskExecutor();
+        try {
+            for (int i = 0; i < requests; i++) {
+                futures.add(
+                        executor.submit(
+                                () -> {
+                                    MockHttpServletRequest request =
+                                            new MockHttpServletRequest("GET", FjwtBenchmarkFixture.SECURED_PATH);
+                                    request.setServletPath(FjwtBenchmarkFixture.SECURED_PATH);
+                                    request.addHeader("Authorization", authorization);
+                                    MockHttpServletResponse response = new MockHttpServletResponse();
+                                    if (scopedFilter != null) {
+                                        scopedFilter.doFilter(request, response, (rq, rs) -> filter.doFilter(rq, rs, chain));
+                                    } else {
+                                        filter.doFilter(request, response, chain);
+                                    }
+                                    return null;
+                                }));
+            }
+            authenticated.await(10, TimeUnit.MINUTES);
+            System.gc();
+            heapUnderLoad = memory.getHeapMemoryUsage().getUsed();
+            release.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        long elapsed = System.nanoTime() - start;
+
+        System.out.printf(
+                "%-12s %10d %12d %14.0f %12.1f%s%n",
+                name,
+                requests,
+                TimeUnit.NANOSECONDS.toMillis(elapsed),
+                requests / (elapsed / 1e9),
+                (heapUnderLoad - heapBefore) / (1024.0 * 1024.0),
+                failures.sum() > 0 ? String.format(" (%d not authenticated)", failures.sum()) : "");
+    }
+
+    /**
+     * {@code Executors.newVirtualThreadPerTaskExecutor()}, called reflectively since the tests are
+     * compiled for Java 17
+     */
+    private static ExecutorService newVirtualThreadPerTaskExecutor() throws ReflectiveOperationException {
+        return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+    }
+}
@@ -0,0 +1,125 @@
+package it.enginious.fjwt.core;
+
+import it.enginious.fjwt.core.metrics.NoopFjwtMetrics;
+import it.enginious.fjwt.reactive.FjwtBlockingTokenInvalidatorAdapter;
+import it.enginious.fjwt.reactive.FjwtReactiveAuthenticationManager;
+import it.enginious.fjwt.reactive.FjwtWebFilter;
+import jakarta.servlet.FilterChain;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Flux;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the throughput of {@link FjwtRequestFilter} with the one of {@link FjwtWebFilter} for an
+ * authenticated request, with a {@link SimulatedLatencyTokenInvalidator} checking revocation. A
+ * negative latency stands for no revocation check at all.
+ *
+ * <p>{@code webFilter} awaits each exchange on the benchmark thread, like {@code servletFilter} does,
+ * while {@code webFilterInFlight} keeps {@value #IN_FLIGHT} exchanges in flight per thread, as an
+ * event loop does while revocation checks are pending.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(1)
+@Threads(4)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+public class FjwtWebFilterBenchmark {
+
+    private static final FilterChain CHAIN = (req, res) -> SecurityContextHolder.clearContext();
+
+    // the chain reads the context, as a secured handler would
+    private static final WebFilterChain WEB_CHAIN = exchange -> ReactiveSecurityContextHolder.getContext().then();
+
+    static final int IN_FLIGHT = 16;
+
+    @Param({"-1", "0", "500"})
+    public long latencyMicros;
+
+    private FjwtRequestFilter filter;
+
+    private FjwtWebFilter webFilter;
+
+    private String authorization;
+
+    @Setup
+    public void setup() {
+        FjwtConfig config = FjwtBenchmarkFixture.config();
+        FjwtTokenUtil tokenUtil = FjwtBenchmarkFixture.tokenUtil(config);
+        FjwtTokenInvalidator invalidator =
+                latencyMicros < 0
+                        ? new NoopTokenInvalidator()
+                        : SimulatedLatencyTokenInvalidator.builder().meanLatencyMicros(latencyMicros).build();
+        filter = FjwtBenchmarkFixture.requestFilter(config, tokenUtil, invalidator);
+        webFilter =
+                new FjwtWebFilter(
+                        new FjwtReactiveAuthenticationManager(
+                                tokenUtil,
+                                new FjwtBlockingTokenInvalidatorAdapter(invalidator, Schedulers.boundedElastic()),
+                                new NoopFjwtMetrics()),
+                        config,
+                        new NoopFjwtMetrics(),
+                        new FjwtFailureReporter(config));
+        authorization = "Bearer " + tokenUtil.generateToken(FjwtBenchmarkFixture.user());
+    }
+
+    /**
+     * Requests and exchanges carry the filter state in their attributes, each thread needs its own
+     */
+    @State(Scope.Thread)
+    public static class Request {
+
+        MockHttpServletRequest request;
+
+        MockHttpServletResponse response;
+
+        MockServerWebExchange exchange;
+
+        MockServerWebExchange[] exchanges;
+
+        @Setup
+        public void setup(FjwtWebFilterBenchmark benchmark) {
+            request = new MockHttpServletRequest("GET", FjwtBenchmarkFixture.SECURED_PATH);
+            request.setServletPath(FjwtBenchmarkFixture.SECURED_PATH);
+            request.addHeader("Authorization", benchmark.authorization);
+            response = new MockHttpServletResponse();
+            exchange = exchange(benchmark.authorization);
+            exchanges = new MockServerWebExchange[IN_FLIGHT];
+            Arrays.setAll(exchanges, i -> exchange(benchmark.authorization));
+        }
+
+        private static MockServerWebExchange exchange(String authorization) {
+            return MockServerWebExchange.from(
+                    MockServerHttpRequest.get(FjwtBenchmarkFixture.SECURED_PATH).header("Authorization", authorization));
+        }
+    }
+
+    @Benchmark
+    public void servletFilter(Request request) throws Exception {
+        filter.doFilter(request.request, request.response, CHAIN);
+    }
+
+    @Benchmark
+    public void webFilter(Request request) {
+        webFilter.filter(request.exchange, WEB_CHAIN).block();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(IN_FLIGHT)
+    public void webFilterInFlight(Request request) {
+        Flux.fromArray(request.exchanges)
+                .flatMap(exchange -> webFilter.filter(exchange, WEB_CHAIN), IN_FLIGHT)
+                .blockLast();
+    }
+}
@@ -0,0 +1,120 @@
+package it.enginious.fjwt.core;
+
+import io.micrometer.observation.Observation;
+import io.micrometer.observation.ObservationHandler;
+import io.micrometer.observation.ObservationRegistry;
+import org.aopalliance.intercept.MethodInterceptor;
+import org.aopalliance.intercept.MethodInvocation;
+import org.junit.jupiter.api.Test;
+import org.mockito.stubbing.Answer;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.security.access.AccessDeniedException;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.context.SecurityContextHolderStrategy;
+import org.springframework.security.core.context.SecurityContextImpl;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.Mockito.mock;
+
+class FjwtWebSecurityConfigTest {
+
+    private final SecurityContextHolderStrategy strategy = mock(SecurityContextHolderStrategy.class);
+
+    @Test
+    void whenSecuredMethodIsCalledShouldCheckTheAuthenticationOfTheGivenStrategy() throws Throwable {
+
+        MethodInterceptor target = interceptor(provider(strategy), provider(null));
+        given(strategy.getContext()).willReturn(context("ROLE_ADMIN"));
+
+        assertThat(target.invoke(invocation())).isEqualTo("ok");
+
+        given(strategy.getContext()).willReturn(context("ROLE_USER"));
+
+        assertThatThrownBy(() -> target.invoke(invocation())).isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void whenAuthoritySetCheckIsTurnedOffShouldStillEnforceSecuredMethods() throws Throwable {
+
+        MethodInterceptor target =
+                (MethodInterceptor)
+                        FjwtWebSecurityConfig.securedMethodInterceptor(false, provider(strategy), provider(null));
+        given(strategy.getContext()).willReturn(context("ROLE_ADMIN"));
+
+        assertThat(target.invoke(invocation())).isEqualTo("ok");
+
+        given(strategy.getContext()).willReturn(context("ROLE_USER"));
+
+        assertThatThrownBy(() -> target.invoke(invocation())).isInstanceOf(AccessDeniedException.class);
+    }
+
+    @Test
+    void whenObservationRegistryIsGivenShouldObserveTheAuthorization() throws Throwable {
+
+        List<String> observed = new ArrayList<>();
+        ObservationRegistry registry = ObservationRegistry.create();
+        registry.observationConfig()
+                .observationHandler(
+                        new ObservationHandler<>() {
+
+                            @Override
+                            public void onStart(Observation.Context context) {
+                                observed.add(context.getName());
+                            }
+
+                            @Override
+                            public boolean supportsContext(Observation.Context context) {
+                                return true;
+                            }
+                        });
+        given(strategy.getContext()).willReturn(context("ROLE_ADMIN"));
+
+        interceptor(provider(strategy), provider(registry)).invoke(invocation());
+
+        assertThat(observed).containsExactly("spring.security.authorizations");
+    }
+
+    private static MethodInterceptor interceptor(
+            ObjectProvider<SecurityContextHolderStrategy> strategyProvider,
+            ObjectProvider<ObservationRegistry> registryProvider) {
+        return (MethodInterceptor) FjwtWebSecurityConfig.securedMethodInterceptor(true, strategyProvider, registryProvider);
+    }
+
+    private static SecurityContextImpl context(String authority) {
+        return new SecurityContextImpl(new TestingAuthenticationToken("username", null, authority));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> ObjectProvider<T> provider(T bean) {
+        ObjectProvider<T> provider = mock(ObjectProvider.class);
+        Answer<T> answer = invocation -> Objects.nonNull(bean) ? bean : invocation.<Supplier<T>>getArgument(0).get();
+        given(provider.getIfAvailable(any())).willAnswer(answer);
+        given(provider.getIfUnique(any())).willAnswer(answer);
+        return provider;
+    }
+
+    private static MethodInvocation invocation() throws Throwable {
+        MethodInvocation invocation = mock(MethodInvocation.class);
+        given(invocation.getMethod()).willReturn(SecuredEndpoint.class.getMethod("admin"));
+        given(invocation.getThis()).willReturn(new SecuredEndpoint());
+        given(invocation.proceed()).willReturn("ok");
+        return invocation;
+    }
+
+    public static class SecuredEndpoint {
+
+        @Secured("ROLE_ADMIN")
+        public String admin() {
+            return "ok";
+        }
+    }
+}
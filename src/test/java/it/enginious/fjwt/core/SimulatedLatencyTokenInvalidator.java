@@ -0,0 +1,96 @@
+package it.enginious.fjwt.core;
+
+import it.enginious.fjwt.core.exceptions.FjwtTokenInvalidatorException;
+import lombok.Builder;
+import lombok.Getter;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * A {@link FjwtTokenInvalidator} that simulates a remote store: every call waits for a latency drawn
+ * from the configured distribution and fails with the configured error rate. Tokens are never
+ * reported as invalidated, so the full authentication path is always taken.
+ */
+@Getter
+@Builder
+public class SimulatedLatencyTokenInvalidator implements FjwtTokenInvalidator {
+
+    /**
+     * Latency distributions
+     */
+    public enum Distribution {
+        /**
+         * Always the mean latency
+         */
+        FIXED,
+        /**
+         * Uniformly distributed between zero and twice the mean latency
+         */
+        UNIFORM,
+        /**
+         * Exponentially distributed around the mean latency, with a long tail
+         */
+        EXPONENTIAL
+    }
+
+    /**
+     * Latency distribution
+     */
+    @Builder.Default
+    private final Distribution distribution = Distribution.FIXED;
+
+    /**
+     * Mean latency in microseconds
+     */
+    private final long meanLatencyMicros;
+
+    /**
+     * Random variation applied to every drawn latency, as a fraction of it (0.1 means ±10%)
+     */
+    private final double jitter;
+
+    /**
+     * Fraction of calls failing with {@link FjwtTokenInvalidatorException}
+     */
+    private final double errorRate;
+
+    @Override
+    public void store(UserDetails source, String token) throws FjwtTokenInvalidatorException {
+        simulate();
+    }
+
+    @Override
+    public boolean wasInvalidated(UserDetails source, String token)
+            throws FjwtTokenInvalidatorException {
+        simulate();
+        return false;
+    }
+
+    private void simulate() throws FjwtTokenInvalidatorException {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long latency = nextLatencyNanos(random);
+        if (latency > 0) {
+            LockSupport.parkNanos(latency);
+        }
+        if (errorRate > 0 && random.nextDouble() < errorRate) {
+            throw new FjwtTokenInvalidatorException();
+        }
+    }
+
+    long nextLatencyNanos(ThreadLocalRandom random) {
+        double mean = TimeUnit.MICROSECONDS.toNanos(meanLatencyMicros);
+        double latency =
+                switch (distribution) {
+                    case FIXED -> mean;
+                    case UNIFORM -> random.nextDouble(2 * mean + 1);
+                    case EXPONENTIAL -> -mean * Math.log(1 - random.nextDouble());
+                };
+        if (jitter > 0) {
+            latency *= 1 + random.nextDouble(-jitter, jitter);
+        }
+        return Math.max(0, Math.round(latency));
+    }
+}
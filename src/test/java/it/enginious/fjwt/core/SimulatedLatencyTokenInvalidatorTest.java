@@ -0,0 +1,52 @@
+package it.enginious.fjwt.core;
+
+import it.enginious.fjwt.core.exceptions.FjwtTokenInvalidatorException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.EnumSource;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.LongStream;
+
+import static org.assertj.core.api.Assertions.*;
+
+class SimulatedLatencyTokenInvalidatorTest {
+
+    @ParameterizedTest
+    @EnumSource(SimulatedLatencyTokenInvalidator.Distribution.class)
+    void whenDrawingLatenciesShouldAverageToMeanLatency(SimulatedLatencyTokenInvalidator.Distribution distribution) {
+        SimulatedLatencyTokenInvalidator target =
+                SimulatedLatencyTokenInvalidator.builder()
+                        .distribution(distribution)
+                        .meanLatencyMicros(100)
+                        .jitter(0.1)
+                        .build();
+
+        double average =
+                LongStream.range(0, 100_000)
+                        .map(i -> target.nextLatencyNanos(ThreadLocalRandom.current()))
+                        .peek(latency -> assertThat(latency).isNotNegative())
+                        .average()
+                        .orElseThrow();
+
+        assertThat(average).isCloseTo(100_000, withinPercentage(5));
+    }
+
+    @Test
+    void whenErrorRateIsOneShouldAlwaysFail() {
+        SimulatedLatencyTokenInvalidator target =
+                SimulatedLatencyTokenInvalidator.builder().errorRate(1).build();
+
+        assertThatThrownBy(() -> target.wasInvalidated(null, "token"))
+                .isInstanceOf(FjwtTokenInvalidatorException.class);
+        assertThatThrownBy(() -> target.store(null, "token"))
+                .isInstanceOf(FjwtTokenInvalidatorException.class);
+    }
+
+    @Test
+    void whenErrorRateIsZeroShouldNeverReportTokensAsInvalidated() throws FjwtTokenInvalidatorException {
+        SimulatedLatencyTokenInvalidator target = SimulatedLatencyTokenInvalidator.builder().build();
+
+        assertThat(target.wasInvalidated(null, "token")).isFalse();
+    }
+}
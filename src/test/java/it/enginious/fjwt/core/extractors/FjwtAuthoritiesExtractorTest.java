@@ -4,6 +4,9 @@ import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.ClaimsBuilder;
 import io.jsonwebtoken.impl.DefaultClaims;
 import io.jsonwebtoken.impl.DefaultClaimsBuilder;
+import it.enginious.fjwt.core.FjwtAuthorityDictionary;
+import it.enginious.fjwt.core.FjwtGrantedAuthorityPool;
+import it.enginious.fjwt.core.FjwtRoleHierarchy;
 import it.enginious.fjwt.core.FjwtSimpleUserDetailsBuilder;
 import org.junit.jupiter.api.Test;
 import org.springframework.security.core.GrantedAuthority;
@@ -14,6 +17,8 @@ import org.springframework.security.core.userdetails.UserDetails;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 import static org.assertj.core.api.Assertions.assertThat;
 
@@ -88,4 +93,92 @@ class FjwtAuthoritiesExtractorTest {
         assertThat(userDetails.getAuthorities()).hasSize(1);
         assertThat(userDetails.getAuthorities().iterator().next().getAuthority()).isEqualTo("auth1");
     }
+
+    @Test
+    void whenAddDataFromDifferentTokensThenUsersShouldShareAuthorityInstances() {
+        FjwtSimpleUserDetailsBuilder first = new FjwtSimpleUserDetailsBuilder("first");
+        FjwtSimpleUserDetailsBuilder second = new FjwtSimpleUserDetailsBuilder("second");
+        target.addData(
+                new DefaultClaimsBuilder().add(FjwtAuthoritiesExtractor.AUTHORITIES, List.of("auth1")).build(), first);
+        target.addData(
+                new DefaultClaimsBuilder().add(FjwtAuthoritiesExtractor.AUTHORITIES, List.of("auth1")).build(), second);
+        assertThat(second.build().getAuthorities().iterator().next())
+                .isSameAs(first.build().getAuthorities().iterator().next());
+    }
+
+    @Test
+    void whenDictionaryIsConfiguredThenAuthoritiesShouldBeEncodedAndDecoded() {
+        FjwtGrantedAuthorityPool pool = new FjwtGrantedAuthorityPool();
+        FjwtAuthoritiesExtractor dictionaryTarget =
+                new FjwtAuthoritiesExtractor(
+                        pool,
+                        new FjwtAuthorityDictionary(1, Map.of(1, List.of("auth1", "auth2")), pool, 16));
+        ClaimsBuilder claimsBuilder = new DefaultClaimsBuilder();
+        dictionaryTarget.getClaims(
+                User.builder().username("test").password("test").authorities("auth2", "auth3").build(),
+                claimsBuilder);
+        Claims claims = claimsBuilder.build();
+        assertThat(claims.get(FjwtAuthoritiesExtractor.ENCODED_AUTHORITIES)).isEqualTo("1.Ag");
+        assertThat(claims.get(FjwtAuthoritiesExtractor.AUTHORITIES)).isEqualTo(List.of("auth3"));
+
+        FjwtSimpleUserDetailsBuilder builder = new FjwtSimpleUserDetailsBuilder("user");
+        dictionaryTarget.addData(claims, builder);
+        assertThat(builder.build().getAuthorities().stream().map(GrantedAuthority::getAuthority))
+                .containsExactlyInAnyOrder("auth2", "auth3");
+    }
+
+    @Test
+    void whenDictionaryIsNotConfiguredThenEncodedAuthoritiesShouldBeIgnored() {
+        FjwtSimpleUserDetailsBuilder builder = new FjwtSimpleUserDetailsBuilder("user");
+        target.addData(
+                new DefaultClaimsBuilder().add(FjwtAuthoritiesExtractor.ENCODED_AUTHORITIES, "1.Ag").build(), builder);
+        assertThat(builder.build().getAuthorities()).isEmpty();
+    }
+
+    @Test
+    void whenHierarchyIsConfiguredThenOnlyTopLevelAuthoritiesShouldBeInTheToken() {
+        FjwtGrantedAuthorityPool pool = new FjwtGrantedAuthorityPool();
+        FjwtAuthoritiesExtractor hierarchyTarget =
+                new FjwtAuthoritiesExtractor(
+                        pool,
+                        null,
+                        new FjwtRoleHierarchy(
+                                Map.of("admin", List.of("editor"), "editor", List.of("viewer")), pool, 16));
+        ClaimsBuilder claimsBuilder = new DefaultClaimsBuilder();
+        hierarchyTarget.getClaims(
+                User.builder().username("test").password("test").authorities("viewer", "admin", "editor", "other").build(),
+                claimsBuilder);
+        Claims claims = claimsBuilder.build();
+        assertThat(claims.get(FjwtAuthoritiesExtractor.AUTHORITIES)).isEqualTo(List.of("admin", "other"));
+
+        FjwtSimpleUserDetailsBuilder first = new FjwtSimpleUserDetailsBuilder("user");
+        FjwtSimpleUserDetailsBuilder second = new FjwtSimpleUserDetailsBuilder("user");
+        hierarchyTarget.addData(claims, first);
+        hierarchyTarget.addData(claims, second);
+        assertThat(first.build().getAuthorities().stream().map(GrantedAuthority::getAuthority))
+                .containsExactlyInAnyOrder("admin", "editor", "viewer", "other");
+        assertThat(second.build().getAuthorities()).isSameAs(first.build().getAuthorities());
+    }
+
+    @Test
+    void whenHierarchyAndDictionaryAreConfiguredThenEncodedAuthoritiesShouldBeExpanded() {
+        FjwtGrantedAuthorityPool pool = new FjwtGrantedAuthorityPool();
+        FjwtAuthoritiesExtractor hierarchyTarget =
+                new FjwtAuthoritiesExtractor(
+                        pool,
+                        new FjwtAuthorityDictionary(1, Map.of(1, List.of("admin", "editor", "viewer")), pool, 16),
+                        new FjwtRoleHierarchy(Map.of("editor", List.of("viewer")), pool, 16));
+        ClaimsBuilder claimsBuilder = new DefaultClaimsBuilder();
+        hierarchyTarget.getClaims(
+                User.builder().username("test").password("test").authorities("viewer", "editor").build(),
+                claimsBuilder);
+        Claims claims = claimsBuilder.build();
+        assertThat(claims.get(FjwtAuthoritiesExtractor.ENCODED_AUTHORITIES)).isEqualTo("1.Ag");
+        assertThat(claims.get(FjwtAuthoritiesExtractor.AUTHORITIES)).isNull();
+
+        FjwtSimpleUserDetailsBuilder builder = new FjwtSimpleUserDetailsBuilder("user");
+        hierarchyTarget.addData(claims, builder);
+        assertThat(builder.build().getAuthorities().stream().map(GrantedAuthority::getAuthority))
+                .containsExactlyInAnyOrder("editor", "viewer");
+    }
 }
@@ -0,0 +1,229 @@
+package it.enginious.fjwt.core.extractors;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ClaimsBuilder;
+import io.jsonwebtoken.impl.DefaultClaimsBuilder;
+import it.enginious.fjwt.core.FjwtAbstractUserDetailsBuilder;
+import it.enginious.fjwt.core.FjwtClaimsExtractor;
+import it.enginious.fjwt.core.FjwtSimpleUserDetailsBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FjwtCachingClaimsExtractorTest {
+
+    private static final long TTL = 100;
+
+    private static final long REFRESH_AHEAD = 20;
+
+    private final AtomicLong now = new AtomicLong();
+
+    private final CountingExtractor delegate = new CountingExtractor();
+
+    private final List<Runnable> refreshes = new ArrayList<>();
+
+    private final FjwtCachingClaimsExtractor target =
+            new FjwtCachingClaimsExtractor(delegate, 2, TTL, REFRESH_AHEAD, refreshes::add, now::get);
+
+    @Test
+    void whenClaimsAreCachedShouldNotRunTheExtractorAgain() {
+
+        assertThat(claims("user1")).containsEntry("calls", 1);
+        now.set(TTL - REFRESH_AHEAD - 1);
+        assertThat(claims("user1")).containsEntry("calls", 1);
+        assertThat(claims("user2")).containsEntry("calls", 2);
+
+        assertThat(delegate.calls).hasValue(2);
+        assertThat(refreshes).isEmpty();
+    }
+
+    @Test
+    void whenEntryIsExpiredShouldRunTheExtractorAgain() {
+
+        claims("user1");
+        now.set(TTL);
+
+        assertThat(claims("user1")).containsEntry("calls", 2);
+    }
+
+    @Test
+    void whenEntryIsAboutToExpireShouldRefreshItOnceInTheBackground() {
+
+        claims("user1");
+        now.set(TTL - REFRESH_AHEAD);
+
+        assertThat(claims("user1")).containsEntry("calls", 1);
+        assertThat(claims("user1")).containsEntry("calls", 1);
+        assertThat(refreshes).hasSize(1);
+
+        refreshes.get(0).run();
+        now.set(TTL + 1);
+        assertThat(claims("user1")).containsEntry("calls", 2);
+        assertThat(delegate.calls).hasValue(2);
+    }
+
+    @Test
+    void whenEntryIsInvalidatedWhileRefreshingShouldNotBringItBack() {
+
+        claims("user1");
+        now.set(TTL - REFRESH_AHEAD);
+        claims("user1");
+        target.invalidate("user1");
+        refreshes.get(0).run();
+
+        assertThat(target.size()).isZero();
+        assertThat(claims("user1")).containsEntry("calls", 3);
+    }
+
+    @Test
+    void whenEntryIsInvalidatedWhileExtractingShouldIssueTheClaimsWithoutCachingThem() {
+
+        delegate.onExtract = () -> target.invalidate("user1");
+
+        assertThat(claims("user1")).containsEntry("calls", 1);
+        assertThat(target.size()).isZero();
+
+        delegate.onExtract = () -> {
+        };
+        assertThat(claims("user1")).containsEntry("calls", 2);
+        assertThat(claims("user1")).containsEntry("calls", 2);
+    }
+
+    @Test
+    void whenMaxSizeIsNotPositiveShouldNotCache() {
+
+        FjwtCachingClaimsExtractor disabled =
+                new FjwtCachingClaimsExtractor(delegate, 0, TTL, REFRESH_AHEAD, refreshes::add, now::get);
+        ClaimsBuilder claimsBuilder = new DefaultClaimsBuilder();
+
+        disabled.getClaims(new User("user1", "password", Collections.emptyList()), claimsBuilder);
+        disabled.getClaims(new User("user1", "password", Collections.emptyList()), claimsBuilder);
+
+        assertThat(disabled.size()).isZero();
+        assertThat(delegate.calls).hasValue(2);
+    }
+
+    @Test
+    void whenDestroyedShouldShutDownTheExecutorItCreated() {
+
+        FjwtCachingClaimsExtractor owning =
+                new FjwtCachingClaimsExtractor(delegate, 2, Duration.ofSeconds(2), Duration.ofSeconds(1));
+
+        owning.destroy();
+
+        assertThat((ExecutorService) ReflectionTestUtils.getField(owning, "executor"))
+                .satisfies(executor -> assertThat(executor.isShutdown()).isTrue());
+    }
+
+    @Test
+    void whenDestroyedShouldLeaveTheGivenExecutorRunning() {
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            new FjwtCachingClaimsExtractor(delegate, 2, Duration.ofSeconds(2), Duration.ofSeconds(1), executor)
+                    .destroy();
+
+            assertThat(executor.isShutdown()).isFalse();
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void whenRefreshFailsShouldKeepTheEntryAndRetry() {
+
+        claims("user1");
+        now.set(TTL - REFRESH_AHEAD);
+        claims("user1");
+        delegate.failing = true;
+        refreshes.get(0).run();
+
+        assertThat(claims("user1")).containsEntry("calls", 1);
+        assertThat(refreshes).hasSize(2);
+    }
+
+    @Test
+    void whenCacheIsFullShouldEvictAnEntry() {
+
+        claims("user1");
+        claims("user2");
+        claims("user3");
+
+        assertThat(target.size()).isEqualTo(2);
+        target.invalidateAll();
+        assertThat(target.size()).isZero();
+    }
+
+    @Test
+    void whenRefreshAheadIsNotShorterThanTtlShouldThrow() {
+
+        assertThatThrownBy(
+                () -> new FjwtCachingClaimsExtractor(delegate, 2, Duration.ofSeconds(1), Duration.ofSeconds(1)))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    void whenAddingDataOrDeclaringKeysShouldDelegate() {
+
+        FjwtSimpleUserDetailsBuilder builder = new FjwtSimpleUserDetailsBuilder("username");
+        target.addData(new DefaultClaimsBuilder().add("calls", 7).build(), builder);
+
+        assertThat(builder.build().isEnabled()).isFalse();
+        assertThat(target.getClaimKeys()).containsExactly("calls");
+        assertThat(target.isIndependent()).isTrue();
+    }
+
+    private Claims claims(String username) {
+        ClaimsBuilder claimsBuilder = new DefaultClaimsBuilder();
+        target.getClaims(new User(username, "password", Collections.emptyList()), claimsBuilder);
+        return claimsBuilder.build();
+    }
+
+    private static class CountingExtractor implements FjwtClaimsExtractor {
+
+        private final AtomicInteger calls = new AtomicInteger();
+
+        private boolean failing;
+
+        private Runnable onExtract = () -> {
+        };
+
+        @Override
+        public void getClaims(UserDetails source, ClaimsBuilder dest) {
+            if (failing) {
+                throw new IllegalStateException("service unavailable");
+            }
+            dest.add("calls", calls.incrementAndGet());
+            onExtract.run();
+        }
+
+        @Override
+        public void addData(Claims source, FjwtAbstractUserDetailsBuilder dest) {
+            dest.enabled(false);
+        }
+
+        @Override
+        public Set<String> getClaimKeys() {
+            return Set.of("calls");
+        }
+
+        @Override
+        public boolean isIndependent() {
+            return true;
+        }
+    }
+}
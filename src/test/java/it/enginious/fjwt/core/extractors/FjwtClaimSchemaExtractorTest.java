@@ -0,0 +1,54 @@
+package it.enginious.fjwt.core.extractors;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ClaimsBuilder;
+import io.jsonwebtoken.impl.DefaultClaimsBuilder;
+import it.enginious.fjwt.core.FjwtClaimSchema;
+import it.enginious.fjwt.core.FjwtClaimsExtractor;
+import it.enginious.fjwt.core.FjwtClaimsExtractorChain;
+import it.enginious.fjwt.core.FjwtSimpleUserDetailsBuilder;
+import org.junit.jupiter.api.Test;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class FjwtClaimSchemaExtractorTest {
+
+    private final FjwtClaimSchemaExtractor target =
+            new FjwtClaimSchemaExtractor(
+                    FjwtClaimSchema.builder(UserDetails.class, FjwtSimpleUserDetailsBuilder.class)
+                            .bool("lck", u -> !u.isAccountNonLocked(), FjwtSimpleUserDetailsBuilder::accountLocked)
+                            .build());
+
+    @Test
+    void whenGetClaimsAndAddDataUserShouldBeRebuiltFromTheSchema() {
+        ClaimsBuilder claimsBuilder = new DefaultClaimsBuilder();
+        target.getClaims(
+                User.builder().username("test").password("test").authorities(List.of()).accountLocked(true).build(),
+                claimsBuilder);
+        Claims claims = claimsBuilder.build();
+        assertThat(claims).containsEntry("lck", true);
+
+        FjwtSimpleUserDetailsBuilder builder = new FjwtSimpleUserDetailsBuilder("test");
+        target.addData(claims, builder);
+        assertThat(builder.build().isAccountNonLocked()).isFalse();
+    }
+
+    @Test
+    void whenChainedWithAnExtractorDeclaringTheSameKeysShouldThrow() {
+        List<FjwtClaimsExtractor> extractors =
+                List.of(
+                        target,
+                        new FjwtClaimSchemaExtractor(
+                                FjwtClaimSchema.builder(UserDetails.class, FjwtSimpleUserDetailsBuilder.class)
+                                        .bool("lck", UserDetails::isEnabled, FjwtSimpleUserDetailsBuilder::enabled)
+                                        .build()));
+
+        assertThat(target.getClaimKeys()).containsExactly("lck");
+        assertThatThrownBy(() -> new FjwtClaimsExtractorChain(extractors)).isInstanceOf(IllegalStateException.class);
+    }
+}
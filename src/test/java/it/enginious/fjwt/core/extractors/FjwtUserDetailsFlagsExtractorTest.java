@@ -85,4 +85,71 @@ class FjwtUserDetailsFlagsExtractorTest {
         assertThat(userDetails.isAccountNonLocked()).isFalse();
         assertThat(userDetails.isEnabled()).isFalse();
     }
+
+    @Test
+    void whenGetClaimsInCompactProfileAndFlagsAreDefaultMapShouldContainsNoFlag() {
+        ClaimsBuilder claimsBuilder = new DefaultClaimsBuilder();
+        new FjwtUserDetailsFlagsExtractor(true).getClaims(
+                User.builder()
+                        .username("test")
+                        .password("test")
+                        .authorities(new GrantedAuthority[]{})
+                        .build(),
+                claimsBuilder);
+        assertThat(claimsBuilder.build()).isEmpty();
+    }
+
+    @Test
+    void whenGetClaimsInCompactProfileMapShouldContainsPackedFlags() {
+        FjwtUserDetailsFlagsExtractor compact = new FjwtUserDetailsFlagsExtractor(true);
+        ClaimsBuilder claimsBuilder = new DefaultClaimsBuilder();
+        compact.getClaims(
+                User.builder()
+                        .username("test")
+                        .password("test")
+                        .authorities(new GrantedAuthority[]{})
+                        .accountLocked(true)
+                        .disabled(true)
+                        .build(),
+                claimsBuilder);
+        Claims claims = claimsBuilder.build();
+        assertThat(claims).containsOnlyKeys(FjwtUserDetailsFlagsExtractor.FLAGS);
+        assertThat(claims.get(FjwtUserDetailsFlagsExtractor.FLAGS))
+                .isEqualTo(FjwtUserDetailsFlagsExtractor.ACCOUNT_LOCKED_BIT | FjwtUserDetailsFlagsExtractor.DISABLED_BIT);
+
+        FjwtSimpleUserDetailsBuilder builder = new FjwtSimpleUserDetailsBuilder("username");
+        target.addData(claims, builder);
+        UserDetails userDetails = builder.build();
+        assertThat(userDetails.isCredentialsNonExpired()).isTrue();
+        assertThat(userDetails.isAccountNonExpired()).isTrue();
+        assertThat(userDetails.isAccountNonLocked()).isFalse();
+        assertThat(userDetails.isEnabled()).isFalse();
+    }
+
+    @Test
+    void whenAddDataInCompactProfileUserShouldContainsLegacyFlags() {
+        DefaultClaimsBuilder claimsBuilder = new DefaultClaimsBuilder();
+        claimsBuilder.put(FjwtUserDetailsFlagsExtractor.CREDENTIALS_EXPIRED, true);
+        claimsBuilder.put(FjwtUserDetailsFlagsExtractor.ACCOUNT_EXPIRED, false);
+        claimsBuilder.put(FjwtUserDetailsFlagsExtractor.ACCOUNT_LOCKED, false);
+        claimsBuilder.put(FjwtUserDetailsFlagsExtractor.ENABLED, false);
+        FjwtSimpleUserDetailsBuilder builder = new FjwtSimpleUserDetailsBuilder("username");
+        new FjwtUserDetailsFlagsExtractor(true).addData(claimsBuilder.build(), builder);
+        UserDetails userDetails = builder.build();
+        assertThat(userDetails.isCredentialsNonExpired()).isFalse();
+        assertThat(userDetails.isAccountNonExpired()).isTrue();
+        assertThat(userDetails.isAccountNonLocked()).isTrue();
+        assertThat(userDetails.isEnabled()).isFalse();
+    }
+
+    @Test
+    void whenAddDataAndSourceHasNoFlagsUserShouldHaveDefaultFlags() {
+        FjwtSimpleUserDetailsBuilder builder = new FjwtSimpleUserDetailsBuilder("username");
+        target.addData(new DefaultClaimsBuilder().build(), builder);
+        UserDetails userDetails = builder.build();
+        assertThat(userDetails.isCredentialsNonExpired()).isTrue();
+        assertThat(userDetails.isAccountNonExpired()).isTrue();
+        assertThat(userDetails.isAccountNonLocked()).isTrue();
+        assertThat(userDetails.isEnabled()).isTrue();
+    }
 }
@@ -0,0 +1,112 @@
+package it.enginious.fjwt.core.metrics;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import it.enginious.fjwt.core.FjwtFailureReason;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class FjwtMicrometerMetricsTest {
+
+    private final SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+    private final FjwtMicrometerMetrics target = new FjwtMicrometerMetrics(registry);
+
+    @Test
+    void whenCreatedAllMetersShouldBeRegistered() {
+        assertThat(registry.find("fjwt.token.extraction").timer()).isNotNull();
+        assertThat(registry.find("fjwt.token.verification").timer()).isNotNull();
+        assertThat(registry.find("fjwt.token.issuance").timer()).isNotNull();
+        assertThat(registry.find("fjwt.extractors").timers()).hasSize(2);
+        assertThat(registry.find("fjwt.invalidator").timers()).hasSize(2);
+        assertThat(registry.find("fjwt.token.size").summaries()).hasSize(2);
+        assertThat(registry.find("fjwt.filter.stage").timers()).hasSize(8);
+        assertThat(registry.find("fjwt.token.failures").counters())
+                .hasSize(FjwtFailureReason.values().length);
+        assertThat(registry.find("fjwt.extractors.failures").counter()).isNotNull();
+    }
+
+    @Test
+    void whenRecordingExtractionFailureShouldIncrementItsCounter() {
+        target.recordExtractionFailure();
+
+        assertThat(registry.get("fjwt.extractors.failures").counter().count()).isEqualTo(1);
+        assertThat(registry.get("fjwt.token.failures").counters()).allMatch(counter -> counter.count() == 0);
+    }
+
+    @Test
+    void whenRecordingTimesShouldUpdateTheMatchingTimer() {
+        target.recordTokenExtraction(1_000_000L);
+        target.recordTokenVerification(2_000_000L);
+        target.recordExtractorChain(FjwtMetrics.ADD_DATA, 3_000_000L);
+        target.recordInvalidator(FjwtMetrics.WAS_INVALIDATED, 4_000_000L);
+        target.recordTokenIssuance(5_000_000L);
+
+        assertThat(registry.get("fjwt.token.extraction").timer().totalTime(TimeUnit.MILLISECONDS))
+                .isEqualTo(1);
+        assertThat(registry.get("fjwt.token.verification").timer().totalTime(TimeUnit.MILLISECONDS))
+                .isEqualTo(2);
+        assertThat(
+                registry
+                        .get("fjwt.extractors")
+                        .tag("operation", FjwtMetrics.ADD_DATA)
+                        .timer()
+                        .totalTime(TimeUnit.MILLISECONDS))
+                .isEqualTo(3);
+        assertThat(registry.get("fjwt.extractors").tag("operation", FjwtMetrics.GET_CLAIMS).timer().count())
+                .isZero();
+        assertThat(
+                registry
+                        .get("fjwt.invalidator")
+                        .tag("operation", FjwtMetrics.WAS_INVALIDATED)
+                        .timer()
+                        .totalTime(TimeUnit.MILLISECONDS))
+                .isEqualTo(4);
+        assertThat(registry.get("fjwt.token.issuance").timer().totalTime(TimeUnit.MILLISECONDS))
+                .isEqualTo(5);
+    }
+
+    @Test
+    void whenRecordingFilterStageShouldUpdateTheMatchingTimer() {
+        target.recordFilterStage(FjwtMetrics.STAGE_EXPIRATION, 1_000_000L);
+        target.recordFilterStage("unknown", 1_000_000L);
+
+        assertThat(
+                registry
+                        .get("fjwt.filter.stage")
+                        .tag("stage", FjwtMetrics.STAGE_EXPIRATION)
+                        .timer()
+                        .totalTime(TimeUnit.MILLISECONDS))
+                .isEqualTo(1);
+        assertThat(registry.get("fjwt.filter.stage").tag("stage", FjwtMetrics.STAGE_VERIFICATION).timer().count())
+                .isZero();
+    }
+
+    @Test
+    void whenRecordingTokenSizeShouldUpdateTheMatchingSummary() {
+        target.recordTokenSize(FjwtMetrics.ISSUED, 200);
+        target.recordTokenSize(FjwtMetrics.RECEIVED, 100);
+        target.recordTokenSize(FjwtMetrics.RECEIVED, 300);
+
+        assertThat(registry.get("fjwt.token.size").tag("source", "issued").summary().totalAmount())
+                .isEqualTo(200);
+        assertThat(registry.get("fjwt.token.size").tag("source", "received").summary().mean())
+                .isEqualTo(200);
+    }
+
+    @Test
+    void whenRecordingFailureShouldIncrementTheMatchingCounter() {
+        target.recordFailure(FjwtFailureReason.EXPIRED);
+        target.recordFailure(FjwtFailureReason.EXPIRED);
+        target.recordFailure(FjwtFailureReason.REVOKED);
+
+        assertThat(registry.get("fjwt.token.failures").tag("reason", "expired").counter().count())
+                .isEqualTo(2);
+        assertThat(registry.get("fjwt.token.failures").tag("reason", "revoked").counter().count())
+                .isEqualTo(1);
+        assertThat(registry.get("fjwt.token.failures").tag("reason", "bad_signature").counter().count())
+                .isZero();
+    }
+}
@@ -0,0 +1,75 @@
+package it.enginious.fjwt.reactive;
+
+import it.enginious.fjwt.core.FjwtTokenInvalidator;
+import it.enginious.fjwt.core.NoopTokenInvalidator;
+import it.enginious.fjwt.core.exceptions.FjwtTokenInvalidatorException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import reactor.core.scheduler.Scheduler;
+import reactor.core.scheduler.Schedulers;
+import reactor.test.StepVerifier;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willAnswer;
+import static org.mockito.BDDMockito.willThrow;
+
+@ExtendWith(MockitoExtension.class)
+class FjwtBlockingTokenInvalidatorAdapterTest {
+
+    private static final UserDetails USER = new User("username", "", Collections.emptyList());
+
+    @Mock
+    private FjwtTokenInvalidator delegate;
+
+    @Test
+    void whenCheckingRevocationShouldCallTheDelegateOnTheScheduler() throws Exception {
+
+        Scheduler scheduler = Schedulers.newSingle("fjwt-test");
+        try {
+            AtomicReference<String> thread = new AtomicReference<>();
+            willAnswer(
+                    invocation -> {
+                        thread.set(Thread.currentThread().getName());
+                        return true;
+                    })
+                    .given(delegate)
+                    .wasInvalidated(USER, "token");
+
+            StepVerifier.create(new FjwtBlockingTokenInvalidatorAdapter(delegate, scheduler).wasInvalidated(USER, "token"))
+                    .expectNext(true)
+                    .verifyComplete();
+
+            assertThat(thread.get()).startsWith("fjwt-test");
+        } finally {
+            scheduler.dispose();
+        }
+    }
+
+    @Test
+    void whenStoringAndDelegateFailsShouldSignalTheError() throws Exception {
+
+        FjwtBlockingTokenInvalidatorAdapter target =
+                new FjwtBlockingTokenInvalidatorAdapter(delegate, Schedulers.immediate());
+        willThrow(new FjwtTokenInvalidatorException()).given(delegate).store(USER, "token");
+
+        StepVerifier.create(target.store(USER, "token")).verifyError(FjwtTokenInvalidatorException.class);
+
+        then(delegate).should().store(USER, "token");
+    }
+
+    @Test
+    void whenDelegateIsNoopShouldBeNoop() {
+
+        assertThat(new FjwtBlockingTokenInvalidatorAdapter(new NoopTokenInvalidator(), Schedulers.immediate()).isNoop())
+                .isTrue();
+        assertThat(new FjwtBlockingTokenInvalidatorAdapter(delegate, Schedulers.immediate()).isNoop()).isFalse();
+    }
+}
@@ -0,0 +1,181 @@
+package it.enginious.fjwt.reactive;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.ExpiredJwtException;
+import io.jsonwebtoken.Jwts;
+import it.enginious.fjwt.core.FjwtAuthentication;
+import it.enginious.fjwt.core.FjwtFailureReason;
+import it.enginious.fjwt.core.FjwtTokenUtil;
+import it.enginious.fjwt.core.exceptions.FjwtAuthenticationException;
+import it.enginious.fjwt.core.exceptions.FjwtTokenInvalidatorException;
+import it.enginious.fjwt.core.metrics.FjwtMetrics;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.BDDMockito.willThrow;
+import static org.mockito.Mockito.never;
+
+@ExtendWith(MockitoExtension.class)
+class FjwtReactiveAuthenticationManagerTest {
+
+    private static final Claims CLAIMS = Jwts.claims().subject("username").build();
+
+    private static final UserDetails USER = new User("username", "", Collections.emptyList());
+
+    @InjectMocks
+    private FjwtReactiveAuthenticationManager target;
+
+    @Mock
+    private FjwtTokenUtil fjwtTokenUtil;
+
+    @Mock
+    private FjwtReactiveTokenInvalidator fjwtTokenInvalidator;
+
+    @Mock
+    private FjwtMetrics fjwtMetrics;
+
+    @Test
+    void whenAuthenticationIsNotABearerTokenShouldCompleteEmpty() {
+
+        StepVerifier.create(target.authenticate(new UsernamePasswordAuthenticationToken("username", "password")))
+                .verifyComplete();
+
+        then(fjwtTokenUtil).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void whenTokenIsValidAndInvalidatorIsNoopShouldAuthenticateWithoutBuildingThePrincipal() {
+
+        given(fjwtTokenUtil.getClaimsFromToken("token")).willReturn(CLAIMS);
+        given(fjwtTokenInvalidator.isNoop()).willReturn(true);
+
+        StepVerifier.create(target.authenticate(new FjwtBearerTokenAuthentication("token")))
+                .assertNext(
+                        authentication -> {
+                            assertThat(authentication).isInstanceOf(FjwtAuthentication.class);
+                            assertThat(authentication.getName()).isEqualTo("username");
+                            assertThat(((FjwtAuthentication) authentication).isPrincipalLoaded()).isFalse();
+                        })
+                .verifyComplete();
+
+        then(fjwtTokenInvalidator).should(never()).wasInvalidated(USER, "token");
+    }
+
+    @Test
+    void whenTokenIsExpiredShouldSignalExpired() {
+
+        willThrow(new ExpiredJwtException(null, CLAIMS, "expired")).given(fjwtTokenUtil).checkExpiration("token");
+
+        StepVerifier.create(target.authenticate(new FjwtBearerTokenAuthentication("token")))
+                .expectErrorSatisfies(
+                        e -> assertThat(e)
+                                .isInstanceOf(FjwtAuthenticationException.class)
+                                .extracting("reason")
+                                .isEqualTo(FjwtFailureReason.EXPIRED))
+                .verify();
+    }
+
+    @Test
+    void whenTokenWasNotInvalidatedShouldAuthenticateAndTimeTheCheck() {
+
+        given(fjwtTokenUtil.getClaimsFromToken("token")).willReturn(CLAIMS);
+        given(fjwtTokenUtil.getUserFromClaims(CLAIMS)).willReturn(USER);
+        given(fjwtTokenInvalidator.wasInvalidated(USER, "token")).willReturn(Mono.just(false));
+
+        StepVerifier.create(target.authenticate(new FjwtBearerTokenAuthentication("token")))
+                .assertNext(authentication -> assertThat(authentication.getPrincipal()).isSameAs(USER))
+                .verifyComplete();
+
+        then(fjwtMetrics).should().recordInvalidator(eq(FjwtMetrics.WAS_INVALIDATED), anyLong());
+    }
+
+    @Test
+    void whenTokenWasInvalidatedShouldSignalRevoked() {
+
+        given(fjwtTokenUtil.getClaimsFromToken("token")).willReturn(CLAIMS);
+        given(fjwtTokenUtil.getUserFromClaims(CLAIMS)).willReturn(USER);
+        given(fjwtTokenInvalidator.wasInvalidated(USER, "token")).willReturn(Mono.just(true));
+
+        StepVerifier.create(target.authenticate(new FjwtBearerTokenAuthentication("token")))
+                .expectErrorSatisfies(
+                        e -> assertThat(e).extracting("reason").isEqualTo(FjwtFailureReason.REVOKED))
+                .verify();
+    }
+
+    @Test
+    void whenInvalidatorFailsShouldFailClosed() {
+
+        given(fjwtTokenUtil.getClaimsFromToken("token")).willReturn(CLAIMS);
+        given(fjwtTokenUtil.getUserFromClaims(CLAIMS)).willReturn(USER);
+        given(fjwtTokenInvalidator.wasInvalidated(USER, "token"))
+                .willReturn(Mono.error(new FjwtTokenInvalidatorException()));
+
+        StepVerifier.create(target.authenticate(new FjwtBearerTokenAuthentication("token")))
+                .expectErrorSatisfies(
+                        e -> assertThat(e).extracting("reason").isEqualTo(FjwtFailureReason.INVALIDATOR_ERROR))
+                .verify();
+    }
+
+    @Test
+    void whenInvalidatorCompletesEmptyShouldConsiderTheTokenNotInvalidated() {
+
+        given(fjwtTokenUtil.getClaimsFromToken("token")).willReturn(CLAIMS);
+        given(fjwtTokenUtil.getUserFromClaims(CLAIMS)).willReturn(USER);
+        given(fjwtTokenInvalidator.wasInvalidated(USER, "token")).willReturn(Mono.empty());
+
+        StepVerifier.create(target.authenticate(new FjwtBearerTokenAuthentication("token")))
+                .assertNext(authentication -> assertThat(authentication.getPrincipal()).isSameAs(USER))
+                .verifyComplete();
+    }
+
+    @Test
+    void whenCheckingRevocationShouldRebuildTheUserOffTheCallerThread() {
+
+        AtomicReference<String> builtOn = new AtomicReference<>();
+        given(fjwtTokenUtil.getClaimsFromToken("token")).willReturn(CLAIMS);
+        given(fjwtTokenUtil.getUserFromClaims(CLAIMS))
+                .willAnswer(
+                        invocation -> {
+                            builtOn.set(Thread.currentThread().getName());
+                            return USER;
+                        });
+        given(fjwtTokenInvalidator.wasInvalidated(USER, "token")).willReturn(Mono.just(false));
+
+        StepVerifier.create(target.authenticate(new FjwtBearerTokenAuthentication("token")))
+                .expectNextCount(1)
+                .verifyComplete();
+
+        assertThat(builtOn.get()).startsWith("boundedElastic");
+    }
+
+    @Test
+    void whenUserCantBeRebuiltShouldSignalInvalid() {
+
+        given(fjwtTokenUtil.getClaimsFromToken("token")).willReturn(CLAIMS);
+        given(fjwtTokenUtil.getUserFromClaims(CLAIMS)).willThrow(new IllegalStateException("extractor failed"));
+
+        StepVerifier.create(target.authenticate(new FjwtBearerTokenAuthentication("token")))
+                .expectErrorSatisfies(
+                        e -> assertThat(e).extracting("reason").isEqualTo(FjwtFailureReason.INVALID))
+                .verify();
+
+        then(fjwtTokenInvalidator).should(never()).wasInvalidated(any(), any());
+    }
+}
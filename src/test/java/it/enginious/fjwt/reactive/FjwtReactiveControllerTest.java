@@ -0,0 +1,67 @@
+package it.enginious.fjwt.reactive;
+
+import it.enginious.fjwt.core.FjwtTokenUtil;
+import it.enginious.fjwt.core.exceptions.FjwtClaimsExtractionException;
+import it.enginious.fjwt.core.metrics.FjwtMetrics;
+import it.enginious.fjwt.dto.FjwtRequest;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.core.userdetails.MapReactiveUserDetailsService;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.crypto.factory.PasswordEncoderFactories;
+import reactor.test.StepVerifier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+
+@ExtendWith(MockitoExtension.class)
+class FjwtReactiveControllerTest {
+
+    private static final UserDetails USER = User.withUsername("username").password("{noop}password").roles("USER").build();
+
+    @Mock
+    private FjwtTokenUtil fjwtTokenUtil;
+    @Mock
+    private FjwtReactiveTokenInvalidator fjwtTokenInvalidator;
+    @Mock
+    private FjwtMetrics metrics;
+
+    private FjwtReactiveController target;
+
+    @BeforeEach
+    void setUp() {
+        target =
+                new FjwtReactiveController(
+                        new MapReactiveUserDetailsService(USER),
+                        PasswordEncoderFactories.createDelegatingPasswordEncoder(),
+                        fjwtTokenUtil,
+                        fjwtTokenInvalidator,
+                        metrics);
+    }
+
+    @Test
+    void whenCreateAuthenticationTokenAndClaimsExtractionFailsShouldReturn503Response() {
+
+        given(fjwtTokenUtil.generateToken(any()))
+                .willThrow(new FjwtClaimsExtractionException("extractor failed", null));
+
+        StepVerifier.create(
+                        target.createAuthenticationToken(
+                                FjwtRequest.builder().username("username").password("password").build()))
+                .assertNext(
+                        response -> {
+                            assertThat(response.getStatusCode()).isEqualTo(HttpStatus.SERVICE_UNAVAILABLE);
+                            assertThat(response.getBody()).isNull();
+                        })
+                .verifyComplete();
+
+        then(metrics).should().recordExtractionFailure();
+    }
+}
@@ -0,0 +1,180 @@
+package it.enginious.fjwt.reactive;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import it.enginious.fjwt.core.FjwtAuthentication;
+import it.enginious.fjwt.core.FjwtConfig;
+import it.enginious.fjwt.core.FjwtFailureReason;
+import it.enginious.fjwt.core.FjwtFailureReporter;
+import it.enginious.fjwt.core.FjwtRequestFilter;
+import it.enginious.fjwt.core.exceptions.FjwtAuthenticationException;
+import it.enginious.fjwt.core.metrics.FjwtMetrics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.security.authentication.TestingAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.ReactiveSecurityContextHolder;
+import org.springframework.security.core.context.SecurityContext;
+import org.springframework.web.server.WebFilterChain;
+import reactor.core.publisher.Mono;
+import reactor.test.StepVerifier;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.BDDMockito.given;
+import static org.mockito.BDDMockito.then;
+import static org.mockito.Mockito.times;
+
+@ExtendWith(MockitoExtension.class)
+class FjwtWebFilterTest {
+
+    private static final Claims CLAIMS = Jwts.claims().subject("username").build();
+
+    @Mock
+    private FjwtReactiveAuthenticationManager authenticationManager;
+
+    @Mock
+    private FjwtMetrics fjwtMetrics;
+
+    @Mock
+    private FjwtFailureReporter failureReporter;
+
+    private FjwtConfig fjwtConfig;
+
+    private final AtomicInteger chainCalls = new AtomicInteger();
+
+    private final AtomicReference<Authentication> chainAuthentication = new AtomicReference<>();
+
+    private final WebFilterChain chain =
+            exchange -> {
+                chainCalls.incrementAndGet();
+                return ReactiveSecurityContextHolder.getContext()
+                        .map(SecurityContext::getAuthentication)
+                        .doOnNext(chainAuthentication::set)
+                        .then();
+            };
+
+    @BeforeEach
+    void setUp() {
+        fjwtConfig = new FjwtConfig();
+        fjwtConfig.getToken().setMaxLength(16);
+    }
+
+    @Test
+    void whenRequestIsForUnsecuredEndpointShouldBypassAuthentication() {
+
+        MockServerWebExchange exchange =
+                MockServerWebExchange.from(
+                        MockServerHttpRequest.post(fjwtConfig.getEndpoint()).header("Authorization", "Bearer token"));
+
+        StepVerifier.create(target().filter(exchange, chain)).verifyComplete();
+
+        assertThat(chainCalls).hasValue(1);
+        then(authenticationManager).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void whenRequestHasNoTokenShouldCallTheChainOnceWithoutAuthentication() {
+
+        StepVerifier.create(target().filter(securedExchange(null), chain)).verifyComplete();
+
+        assertThat(chainCalls).hasValue(1);
+        assertThat(chainAuthentication).hasValue(null);
+        then(authenticationManager).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void whenTokenIsValidShouldAuthenticateTheChainAndPublishTheClaims() {
+
+        FjwtAuthentication authentication = new FjwtAuthentication(CLAIMS, claims -> null);
+        given(authenticationManager.authenticate(any())).willReturn(Mono.just(authentication));
+        MockServerWebExchange exchange = securedExchange("Bearer token");
+
+        StepVerifier.create(target().filter(exchange, chain)).verifyComplete();
+
+        assertThat(chainCalls).hasValue(1);
+        assertThat(chainAuthentication).hasValue(authentication);
+        assertThat((Object) exchange.getAttribute(FjwtRequestFilter.CLAIMS_ATTRIBUTE)).isSameAs(CLAIMS);
+        then(fjwtMetrics).should().recordTokenSize(FjwtMetrics.RECEIVED, "token".length());
+    }
+
+    @Test
+    void whenRequestIsAlreadyAuthenticatedShouldNotAuthenticateItAgain() {
+
+        Authentication existing = new TestingAuthenticationToken("other", null, "ROLE_USER");
+
+        StepVerifier.create(
+                        target().filter(securedExchange("Bearer token"), chain)
+                                .contextWrite(ReactiveSecurityContextHolder.withAuthentication(existing)))
+                .verifyComplete();
+
+        assertThat(chainCalls).hasValue(1);
+        assertThat(chainAuthentication).hasValue(existing);
+        then(authenticationManager).shouldHaveNoInteractions();
+    }
+
+    @Test
+    void whenTokenIsRefusedShouldReportItAndCallTheChainOnceWithoutAuthentication() {
+
+        FjwtAuthenticationException refused =
+                new FjwtAuthenticationException(FjwtFailureReason.REVOKED, "token was invalidated", null);
+        given(authenticationManager.authenticate(any())).willReturn(Mono.error(refused));
+
+        StepVerifier.create(target().filter(securedExchange("Bearer token"), chain)).verifyComplete();
+
+        assertThat(chainCalls).hasValue(1);
+        assertThat(chainAuthentication).hasValue(null);
+        then(fjwtMetrics).should(times(1)).recordFailure(FjwtFailureReason.REVOKED);
+        then(failureReporter).should().report(FjwtFailureReason.REVOKED, null, refused);
+    }
+
+    @Test
+    void whenTokenIsOversizedShouldRefuseItWithoutAuthenticating() {
+
+        StepVerifier.create(target().filter(securedExchange("Bearer " + "x".repeat(17)), chain)).verifyComplete();
+
+        assertThat(chainCalls).hasValue(1);
+        then(authenticationManager).shouldHaveNoInteractions();
+        then(fjwtMetrics).should().recordFailure(FjwtFailureReason.OVERSIZED);
+    }
+
+    @Test
+    void whenNegativeCacheIsEnabledShouldRefuseARefusedTokenWithoutAuthenticatingIt() {
+
+        fjwtConfig.getToken().setNegativeCacheSize(8);
+        given(authenticationManager.authenticate(any()))
+                .willReturn(
+                        Mono.error(new FjwtAuthenticationException(FjwtFailureReason.BAD_SIGNATURE, "bad signature", null)));
+        FjwtWebFilter target = target();
+
+        StepVerifier.create(target.filter(securedExchange("Bearer token"), chain)).verifyComplete();
+        StepVerifier.create(target.filter(securedExchange("Bearer token"), chain)).verifyComplete();
+
+        assertThat(chainCalls).hasValue(2);
+        then(authenticationManager).should(times(1)).authenticate(any());
+        then(fjwtMetrics).should(times(2)).recordFailure(FjwtFailureReason.BAD_SIGNATURE);
+        then(failureReporter).should().report(eq(FjwtFailureReason.BAD_SIGNATURE), isNull(), isNull());
+    }
+
+    private FjwtWebFilter target() {
+        return new FjwtWebFilter(authenticationManager, fjwtConfig, fjwtMetrics, failureReporter);
+    }
+
+    private static MockServerWebExchange securedExchange(String authorization) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/securedEndpoint");
+        if (authorization != null) {
+            request.header("Authorization", authorization);
+        }
+        return MockServerWebExchange.from(request);
+    }
+}